@@ -0,0 +1,50 @@
+package org.example.memoryfx.jmh;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste en el servidor de codificar el tablero tras una jugada: texto completo (lo que reciben
+ * los clientes antiguos) frente a snapshot y delta binarios.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardEncodingBenchmark {
+
+    @Param({"3x4", "4x8", "64x64", "200x200"})
+    public String tamano;
+
+    private GameLogic partida;
+    private final int[] celdas = {0, 1};
+    private final int[] valores = new int[2];
+
+    @Setup
+    public void preparar() {
+        partida = Tamanos.aMedias(tamano, 42);
+        int columnas = partida.getColumnas();
+        valores[0] = BoardCodec.valorCelda(partida, 0, 0);
+        valores[1] = BoardCodec.valorCelda(partida, 1 / columnas, 1 % columnas);
+    }
+
+    @Benchmark
+    public String textoCompleto() {
+        return BoardCodec.codificarTableroTexto(partida);
+    }
+
+    @Benchmark
+    public byte[] snapshotBinario() {
+        return BoardCodec.codificarSnapshot(partida);
+    }
+
+    @Benchmark
+    public byte[] deltaBinario() {
+        return BoardCodec.codificarDelta(celdas, valores, 2);
+    }
+}
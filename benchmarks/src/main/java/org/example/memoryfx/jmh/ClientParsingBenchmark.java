@@ -0,0 +1,64 @@
+package org.example.memoryfx.jmh;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste en el cliente de interpretar una actualización del tablero, sin la parte de JavaFX:
+ * el troceado con split que hacía el cliente de botones antes de leer con {@code HeadlessClient}, la
+ * lectura sin subcadenas de {@link BoardCodec#leerTableroTexto} y la decodificación de tramas binarias.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClientParsingBenchmark {
+
+    @Param({"3x4", "4x8", "64x64", "200x200"})
+    public String tamano;
+
+    private String lineaServidor;
+    private int[] valores;
+    private byte[] tramas;
+
+    @Setup
+    public void preparar() {
+        GameLogic partida = Tamanos.aMedias(tamano, 42);
+        lineaServidor = BoardCodec.codificarTableroTexto(partida);
+        valores = new int[partida.getFilas() * partida.getColumnas()];
+        // Un snapshot seguido de un delta, como al entrar en una partida y recibir la primera jugada
+        byte[] snapshot = BoardCodec.codificarSnapshot(partida);
+        byte[] delta = BoardCodec.codificarDelta(new int[]{0, 1}, new int[]{3, 0}, 2);
+        tramas = new byte[snapshot.length + delta.length];
+        System.arraycopy(snapshot, 0, tramas, 0, snapshot.length);
+        System.arraycopy(delta, 0, tramas, snapshot.length, delta.length);
+    }
+
+    /**
+     * Lo que hacía el cliente de botones con cada línea: cambiar '#' por saltos de línea y trocear.
+     */
+    @Benchmark
+    public String[][] reemplazarYSeparar() {
+        return BoardCodec.separarTableroTexto(lineaServidor.replace("#", "\n"));
+    }
+
+    @Benchmark
+    public int leerTextoSinSubcadenas() {
+        return BoardCodec.leerTableroTexto(lineaServidor, valores);
+    }
+
+    @Benchmark
+    public int decodificarSnapshotYDelta() throws IOException {
+        BoardCodec.Decodificador decodificador = new BoardCodec.Decodificador(new ByteArrayInputStream(tramas));
+        decodificador.leer();
+        decodificador.leer();
+        return decodificador.getNumCambiadas();
+    }
+}
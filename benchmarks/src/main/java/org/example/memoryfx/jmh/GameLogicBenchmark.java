@@ -0,0 +1,62 @@
+package org.example.memoryfx.jmh;
+
+import org.example.memoryfx.core.GameLogic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de crear y barajar un tablero y de las operaciones de cada jugada en {@link GameLogic}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLogicBenchmark {
+
+    @Param({"3x4", "4x8", "64x64", "200x200"})
+    public String tamano;
+
+    private int filas;
+    private int columnas;
+    private long semilla;
+    private GameLogic partida;
+    private int celda;
+
+    @Setup
+    public void preparar() {
+        filas = Tamanos.filas(tamano);
+        columnas = Tamanos.columnas(tamano);
+        partida = Tamanos.aMedias(tamano, 42);
+    }
+
+    @Benchmark
+    public GameLogic construirYBarajar() {
+        return new GameLogic(filas, columnas, semilla++);
+    }
+
+    /**
+     * Una jugada fallida completa: levantar dos cartas, compararlas y volver a esconderlas.
+     */
+    @Benchmark
+    public boolean voltearComprobarEsconder() {
+        int total = filas * columnas;
+        int a = celda;
+        int b = (celda + 1) % total;
+        celda = (celda + 2) % total;
+        int f1 = a / columnas, c1 = a % columnas, f2 = b / columnas, c2 = b % columnas;
+        boolean volteadas = partida.voltearCarta(f1, c1) & partida.voltearCarta(f2, c2);
+        boolean coinciden = partida.comprobarSiCoinciden(f1, c1, f2, c2);
+        if (volteadas) {
+            partida.esconderCartas(f1, c1, f2, c2);
+        }
+        return coinciden;
+    }
+
+    @Benchmark
+    public boolean verificarJuegoTerminado() {
+        return partida.verificarJuegoTerminado();
+    }
+}
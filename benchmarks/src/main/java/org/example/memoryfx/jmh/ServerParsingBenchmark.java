@@ -0,0 +1,67 @@
+package org.example.memoryfx.jmh;
+
+import org.example.memoryfx.core.LectorComandos;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste en el servidor de leer las jugadas de un cliente: {@code readLine} + {@code split} +
+ * {@code parseInt}, como hacía {@code ClientHandler}, frente a {@link LectorComandos}. Cada operación
+ * es una jugada; con {@code -prof gc} se ven además los bytes reservados por jugada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServerParsingBenchmark {
+
+    private static final int JUGADAS = 1000;
+
+    private byte[] entrada;
+
+    @Setup
+    public void preparar() {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < JUGADAS; i++) {
+            texto.append("MOVE ").append(i % 64).append(' ').append(i * 7 % 200).append('\n');
+        }
+        entrada = texto.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JUGADAS)
+    public int readLineYSplit() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(entrada), StandardCharsets.UTF_8));
+        int suma = 0;
+        String linea;
+        while ((linea = in.readLine()) != null) {
+            if (!linea.startsWith("MOVE")) continue;
+            String[] partes = linea.split(" ");
+            if (partes.length < 3) continue;
+            suma += Integer.parseInt(partes[1]) + Integer.parseInt(partes[2]);
+        }
+        return suma;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JUGADAS)
+    public int lectorComandos() throws IOException {
+        LectorComandos lector = new LectorComandos(new ByteArrayInputStream(entrada), 1024);
+        int suma = 0;
+        int comando;
+        while ((comando = lector.siguiente()) != LectorComandos.FIN) {
+            if (comando == LectorComandos.MOVIMIENTO) {
+                suma += lector.getFila() + lector.getColumna();
+            }
+        }
+        return suma;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.memoryfx.jmh;
+
+import org.example.memoryfx.core.GameLogic;
+
+import java.util.Random;
+
+/**
+ * Utilidades comunes de los benchmarks: tamaños de tablero y partidas a medio jugar.
+ */
+final class Tamanos {
+
+    private Tamanos() {
+    }
+
+    static int filas(String tamano) {
+        return Integer.parseInt(tamano.substring(0, tamano.indexOf('x')));
+    }
+
+    static int columnas(String tamano) {
+        return Integer.parseInt(tamano.substring(tamano.indexOf('x') + 1));
+    }
+
+    /**
+     * Partida con aproximadamente la mitad de las cartas descubiertas, siempre la misma para una semilla.
+     */
+    static GameLogic aMedias(String tamano, long semilla) {
+        GameLogic logic = new GameLogic(filas(tamano), columnas(tamano), semilla);
+        Random random = new Random(semilla);
+        int celdas = logic.getFilas() * logic.getColumnas();
+        for (int i = 0; i < celdas / 2; i++) {
+            int celda = random.nextInt(celdas);
+            logic.voltearCarta(celda / logic.getColumnas(), celda % logic.getColumnas());
+        }
+        return logic;
+    }
+}
@@ -1,10 +1,11 @@
 module org.example.memoryfx {
     requires javafx.controls;
     requires javafx.fxml;
+    requires org.example.memoryfx.server;
 
     requires org.controlsfx.controls;
     requires com.almasb.fxgl.all;
 
     opens org.example.memoryfx to javafx.fxml;
     exports org.example.memoryfx;
-}
\ No newline at end of file
+}
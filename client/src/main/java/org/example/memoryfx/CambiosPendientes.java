@@ -0,0 +1,76 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+
+import java.util.Arrays;
+
+/**
+ * Cambios de celda recibidos del servidor y aún no mostrados. De cada celda se guarda solo su último
+ * valor, salvo una cara que llega y se vuelve a tapar antes de mostrarse: esa se conserva, porque es la
+ * que confirma una jugada y termina su volteo provisional. Si solo llegara el {@link BoardCodec#OCULTA},
+ * la carta se quedaría a medio voltear esperando una cara que ya pasó.
+ *
+ * No es thread-safe: {@link MemoryClient} anota y vuelca con su monitor tomado.
+ */
+final class CambiosPendientes {
+
+    private int[] ultimo = new int[0];
+    private boolean[] sucia = new boolean[0];
+    private int[] sucias = new int[16];
+    private int numSucias;
+    // Caras tapadas por un OCULTA antes de mostrarse, en orden de llegada
+    private int[] tapadasCelda = new int[4];
+    private int[] tapadasValor = new int[4];
+    private int numTapadas;
+
+    void anotar(int celda, int valor) {
+        if (celda >= ultimo.length) {
+            int capacidad = Math.max(celda + 1, ultimo.length * 2);
+            ultimo = Arrays.copyOf(ultimo, capacidad);
+            sucia = Arrays.copyOf(sucia, capacidad);
+        }
+        if (!sucia[celda]) {
+            sucia[celda] = true;
+            if (numSucias == sucias.length) {
+                sucias = Arrays.copyOf(sucias, Math.max(16, sucias.length * 2));
+            }
+            sucias[numSucias++] = celda;
+        } else if (valor == BoardCodec.OCULTA && ultimo[celda] != BoardCodec.OCULTA) {
+            if (numTapadas == tapadasCelda.length) {
+                tapadasCelda = Arrays.copyOf(tapadasCelda, numTapadas * 2);
+                tapadasValor = Arrays.copyOf(tapadasValor, numTapadas * 2);
+            }
+            tapadasCelda[numTapadas] = celda;
+            tapadasValor[numTapadas++] = ultimo[celda];
+        }
+        ultimo[celda] = valor;
+    }
+
+    /**
+     * Cambios que devolverá {@link #volcar}.
+     */
+    int size() {
+        return numTapadas + numSucias;
+    }
+
+    /**
+     * Copia los cambios en {@code celdas} y {@code valores}, que deben tener sitio para {@link #size()}, y
+     * los olvida. Devuelve cuántos son. Las caras tapadas van delante: cada celda acaba en su último valor.
+     */
+    int volcar(int[] celdas, int[] valores) {
+        int n = 0;
+        for (int i = 0; i < numTapadas; i++, n++) {
+            celdas[n] = tapadasCelda[i];
+            valores[n] = tapadasValor[i];
+        }
+        for (int i = 0; i < numSucias; i++, n++) {
+            int celda = sucias[i];
+            celdas[n] = celda;
+            valores[n] = ultimo[celda];
+            sucia[celda] = false;
+        }
+        numTapadas = 0;
+        numSucias = 0;
+        return n;
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.GameLogic;
+
+import javafx.beans.InvalidationListener;
+import javafx.scene.image.Image;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Imágenes de las cartas compartidas por todos los tableros y partidas. Cada imagen se decodifica en
+ * segundo plano y ya escalada al tamaño de celda, redondeado a múltiplos de {@value #PASO} px para que
+ * un cambio pequeño de tamaño de la ventana no obligue a decodificar de nuevo. Solo se guardan las
+ * {@value #MAX_RESOLUCIONES} resoluciones usadas más recientemente.
+ *
+ * El índice 0 de cada juego es el dorso; del 1 al {@value #CARAS_DISPONIBLES}, las caras.
+ */
+final class CartasCache {
+
+    static final int CARAS_DISPONIBLES = 16;
+    private static final int PASO = 32;
+    private static final int TAMANO_MAXIMO = 512;
+    private static final int MAX_RESOLUCIONES = 3;
+
+    // En orden de acceso: la primera entrada es la resolución que lleva más tiempo sin usarse
+    private static final Map<Integer, Image[]> juegos = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Image[]> eldest) {
+            return size() > MAX_RESOLUCIONES;
+        }
+    };
+
+    private CartasCache() {
+    }
+
+
+    /**
+     * Cara de la carta {@code id} (de 1 a {@value #CARAS_DISPONIBLES}) para celdas de {@code lado} px.
+     * Si esa resolución aún se está decodificando se devuelve la de otra resolución ya lista, si la hay.
+     */
+    static Image getCara(int id, double lado) {
+        return imagen(id, lado);
+    }
+
+    static Image getDorso(double lado) {
+        return imagen(0, lado);
+    }
+
+    /**
+     * Ejecuta {@code accion} en el hilo de JavaFX cada vez que termina de cargarse una imagen de esa resolución.
+     * Sirve para repintar cuando dejan de hacer falta las imágenes provisionales.
+     */
+    static void alCargar(double lado, Runnable accion) {
+        for (Image img : juego(lado)) {
+            if (img != null && img.getProgress() < 1.0) {
+                img.progressProperty().addListener((obs, antes, ahora) -> {
+                    if (ahora.doubleValue() >= 1.0) {
+                        accion.run();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Imágenes que aún se están decodificando, de todas las resoluciones guardadas.
+     */
+    static synchronized int getCargando() {
+        int cargando = 0;
+        for (Image[] juego : juegos.values()) {
+            for (Image img : juego) {
+                if (img != null && img.getProgress() < 1.0) {
+                    cargando++;
+                }
+            }
+        }
+        return cargando;
+    }
+
+    /**
+     * Sigue las imágenes que se están decodificando ahora: {@code progreso} recibe la fracción ya
+     * terminada y {@code alTerminar} se ejecuta cuando no queda ninguna. Llamar desde el hilo de JavaFX,
+     * que es donde avanza la carga, así que ninguna puede terminar entre la consulta y la escucha.
+     */
+    static synchronized void seguirCarga(DoubleConsumer progreso, Runnable alTerminar) {
+        List<Image> pendientes = new ArrayList<>();
+        for (Image[] juego : juegos.values()) {
+            for (Image img : juego) {
+                if (img != null && img.getProgress() < 1.0 && !img.isError()) {
+                    pendientes.add(img);
+                }
+            }
+        }
+        if (pendientes.isEmpty()) {
+            alTerminar.run();
+            return;
+        }
+        int total = pendientes.size();
+        int[] terminadas = {0};
+        InvalidationListener alAvanzar = obs -> {
+            int n = 0;
+            for (Image img : pendientes) {
+                if (img.getProgress() >= 1.0 || img.isError()) {
+                    n++;
+                }
+            }
+            if (n == terminadas[0]) {
+                return;
+            }
+            terminadas[0] = n;
+            progreso.accept((double) n / total);
+            if (n == total) {
+                alTerminar.run();
+            }
+        };
+        for (Image img : pendientes) {
+            img.progressProperty().addListener(alAvanzar);
+            img.errorProperty().addListener(alAvanzar);
+        }
+    }
+
+    private static synchronized Image imagen(int indice, double lado) {
+        Image img = juego(lado)[indice];
+        if (img == null || img.getProgress() >= 1.0) {
+            return img;
+        }
+        for (Image[] otro : juegos.values()) {
+            Image alternativa = otro[indice];
+            if (alternativa != null && alternativa.getProgress() >= 1.0 && !alternativa.isError()) {
+                return alternativa;
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Tamaño en px de las imágenes que se usan para celdas de {@code lado} px.
+     */
+    static int resolucion(double lado) {
+        return (int) Math.min(TAMANO_MAXIMO, Math.max(PASO, Math.ceil(lado / PASO) * PASO));
+    }
+
+    private static synchronized Image[] juego(double lado) {
+        return juegos.computeIfAbsent(resolucion(lado), CartasCache::cargarJuego);
+    }
+
+    private static Image[] cargarJuego(int tam) {
+        Image[] juego = new Image[CARAS_DISPONIBLES + 1];
+        juego[0] = cargar("/assets/cardBack.png", tam);
+        for (int i = 1; i <= CARAS_DISPONIBLES; i++) {
+            juego[i] = cargar("/assets/cartas/" + GameLogic.nombreCarta(i), tam);
+        }
+        return juego;
+    }
+
+    private static Image cargar(String ruta, int tam) {
+        URL url = CartasCache.class.getResource(ruta);
+        if (url == null) {
+            System.err.println("No se encontró la imagen: " + ruta);
+            return null;
+        }
+        return new Image(url.toExternalForm(), tam, tam, true, true, true);
+    }
+}
@@ -0,0 +1,399 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+import org.example.memoryfx.server.MemoryServer;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.lang.System.Logger.Level;
+import java.time.Duration;
+import java.time.Instant;
+
+public class MainMenu extends Application {
+
+    // Con más parejas que imágenes distintas se usa la vista sobre canvas, que reutiliza las caras
+    private static final int MAX_CELDAS_BOTONES = CartasCache.CARAS_DISPONIBLES * 2;
+    private static final int PUERTO_POR_DEFECTO = 12345;
+    // Una sola búsqueda del recurso para todas las escenas; JavaFX guarda la hoja ya interpretada por su URL
+    private static final String ESTILOS = MainMenu.class.getResource("/css/styles.css").toExternalForm();
+    private static final double ANCHO_PARTIDA = 1080;
+    private static final double ALTO_PARTIDA = 925;
+    // Los tiempos de arranque solo salen con el nivel DEBUG activado
+    private static final System.Logger LOG = System.getLogger(MainMenu.class.getName());
+
+    private Stage primaryStage;
+    private Scene menuScene;
+    private Scene optionsScene;
+
+    // Valor por defecto: 4x8 para mantener el tablero original
+    private String boardSize = "4x8";
+
+    private ComboBox<String> boardSizeComboBox;
+
+    // Vista del tablero: "Automática" elige botones o canvas según el tamaño
+    private String vista = "Automática";
+
+    // Servidor al que se conecta "Unirse a partida"; "Crear partida" arranca uno local en este puerto
+    private String servidor = "localhost:" + PUERTO_POR_DEFECTO;
+
+    // Dificultad de "Jugar contra el ordenador": cuánto recuerda de las cartas que ha visto
+    private String dificultad = "Normal";
+
+    // "Inmediato": la carta empieza a voltearse al pulsarla, sin esperar la respuesta del servidor
+    private String volteo = "Inmediato";
+
+    // Panel de rendimiento al empezar la partida; F3 lo muestra u oculta y F4 empieza o deja de guardarlo
+    private String rendimiento = "Oculto";
+    private PanelRendimiento panelRendimiento;
+
+    // Escena de partida construida y maquetada de antemano para la configuración actual (ver prepararPartida)
+    private PartidaPreparada preparada;
+    private VBox estadoCarga;
+    private ProgressBar barraCarga;
+    private int cargasPedidas;
+
+    private record PartidaPreparada(String configuracion, VistaTablero tablero, Scene escena, StackPane capas,
+                                    Label cabecera, Label identidad, Label marcador) {
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+        long inicio = System.nanoTime();
+        this.primaryStage = primaryStage;
+        primaryStage.setTitle("Memory FX - Menú Principal");
+        showMenu();
+        primaryStage.show();
+        primaryStage.setOnCloseRequest(e -> Platform.exit());
+
+        // El menú sale sin esperar a nada; la partida se prepara cuando ya está en pantalla
+        alPintar(menuScene, () -> {
+            if (LOG.isLoggable(Level.DEBUG)) {
+                long arranqueJvm = ProcessHandle.current().info().startInstant()
+                        .map(instante -> Duration.between(instante, Instant.now()).toMillis()).orElse(-1L);
+                LOG.log(Level.DEBUG, String.format("Menú en pantalla: %d ms desde el arranque de la JVM, %.1f ms desde start()",
+                        arranqueJvm, (System.nanoTime() - inicio) / 1e6));
+            }
+            prepararPartida();
+        });
+    }
+
+    /**
+     * Ejecuta {@code accion} una sola vez, justo después del primer pulso en que se pinte {@code escena}.
+     */
+    private static void alPintar(Scene escena, Runnable accion) {
+        Runnable[] escucha = new Runnable[1];
+        escucha[0] = () -> {
+            escena.removePostLayoutPulseListener(escucha[0]);
+            // Tras la maquetación aún falta pintar: se deja para cuando termine el pulso
+            Platform.runLater(accion);
+        };
+        escena.addPostLayoutPulseListener(escucha[0]);
+    }
+
+    private void showMenu() {
+        // Dos botones para definir el rol: quien crea la partida (inicia el servidor) y quien se une (solo cliente)
+        Button createGameButton = new Button("Crear partida");
+        Button joinGameButton = new Button("Unirse a partida");
+        Button computerButton = new Button("Jugar contra el ordenador");
+        Button optionsButton = new Button("Opciones");
+        Button exitButton = new Button("Salir");
+
+        createGameButton.setOnAction(e -> startGame(true, false));
+        joinGameButton.setOnAction(e -> startGame(false, false));
+        computerButton.setOnAction(e -> startGame(true, true));
+        optionsButton.setOnAction(e -> showOptions());
+        exitButton.setOnAction(e -> Platform.exit());
+
+        // Aplicamos la clase de estilo "menu-button" a cada botón para personalizarlos
+        Button[] buttons = { createGameButton, joinGameButton, computerButton, optionsButton, exitButton };
+        for (Button b : buttons) {
+            b.getStyleClass().add("menu-button");
+        }
+
+        // Mientras se decodifican las cartas de la partida preparada se ve su progreso debajo de los botones
+        barraCarga = new ProgressBar(0);
+        Label cargandoLabel = new Label("Preparando las cartas...");
+        cargandoLabel.setStyle("-fx-font-size: 12px; -fx-padding: 0;");
+        estadoCarga = new VBox(4, cargandoLabel, barraCarga);
+        estadoCarga.setAlignment(Pos.CENTER);
+        estadoCarga.setVisible(false);
+
+        VBox menuBox = new VBox(15, createGameButton, joinGameButton, computerButton, optionsButton, exitButton, estadoCarga);
+        menuBox.setAlignment(Pos.CENTER);
+        menuScene = new Scene(menuBox, 400, 390);
+        menuScene.getStylesheets().add(ESTILOS);
+        primaryStage.setScene(menuScene);
+
+        // Igualamos el ancho de todos los botones al del más largo
+        Platform.runLater(() -> {
+            double maxWidth = 0;
+            for (Button b : buttons) {
+                b.applyCss();
+                b.layout();
+                maxWidth = Math.max(maxWidth, b.getWidth());
+            }
+            for (Button b : buttons) {
+                b.setMinWidth(maxWidth);
+            }
+        });
+    }
+
+    private void showOptions() {
+        Label label = new Label("Selecciona el tamaño del tablero:");
+        boardSizeComboBox = new ComboBox<>();
+        boardSizeComboBox.getItems().addAll("4x8", "5x6", "4x5", "3x4", "16x16", "64x64", "200x200");
+        // Editable: se admite cualquier tamaño "filas x columnas" con un número par de casillas y lados que
+        // el servidor acepte
+        boardSizeComboBox.setEditable(true);
+        boardSizeComboBox.setValue(boardSize);
+
+        Label vistaLabel = new Label("Vista del tablero:");
+        ComboBox<String> vistaComboBox = new ComboBox<>();
+        vistaComboBox.getItems().addAll("Automática", "Botones", "Canvas");
+        vistaComboBox.setValue(vista);
+
+        Label servidorLabel = new Label("Servidor (host:puerto):");
+        TextField servidorField = new TextField(servidor);
+        servidorField.setMaxWidth(220);
+
+        Label dificultadLabel = new Label("Dificultad del ordenador:");
+        ComboBox<String> dificultadComboBox = new ComboBox<>();
+        dificultadComboBox.getItems().addAll("Fácil", "Normal", "Difícil");
+        dificultadComboBox.setValue(dificultad);
+
+        Label volteoLabel = new Label("Volteo de cartas:");
+        ComboBox<String> volteoComboBox = new ComboBox<>();
+        volteoComboBox.getItems().addAll("Inmediato", "Al confirmar el servidor");
+        volteoComboBox.setValue(volteo);
+
+        Label rendimientoLabel = new Label("Panel de rendimiento (F3 / F4):");
+        ComboBox<String> rendimientoComboBox = new ComboBox<>();
+        rendimientoComboBox.getItems().addAll("Oculto", "Visible", "Visible y guardado en archivo");
+        rendimientoComboBox.setValue(rendimiento);
+
+        Button backButton = new Button("Volver");
+        backButton.getStyleClass().add("menu-button");
+        backButton.setOnAction(e -> {
+            String valor = boardSizeComboBox.getEditor().getText().trim().toLowerCase();
+            if (!esTamanoValido(valor)) {
+                Alert alert = new Alert(Alert.AlertType.ERROR,
+                        "Tamaño no válido: usa el formato filas x columnas (por ejemplo 64x64) con un número par de casillas"
+                                + " y lados de " + BoardCodec.LADO_MAXIMO + " como mucho.",
+                        ButtonType.OK);
+                alert.showAndWait();
+                return;
+            }
+            String direccion = servidorField.getText().trim();
+            if (!direccion.matches("[^:\\s]+:\\d{1,5}")) {
+                Alert alert = new Alert(Alert.AlertType.ERROR,
+                        "Servidor no válido: usa el formato host:puerto (por ejemplo localhost:12345).",
+                        ButtonType.OK);
+                alert.showAndWait();
+                return;
+            }
+            boardSize = valor;
+            vista = vistaComboBox.getValue();
+            servidor = direccion;
+            dificultad = dificultadComboBox.getValue();
+            volteo = volteoComboBox.getValue();
+            rendimiento = rendimientoComboBox.getValue();
+            primaryStage.setScene(menuScene);
+            prepararPartida();
+        });
+
+        VBox optionsBox = new VBox(15, label, boardSizeComboBox, vistaLabel, vistaComboBox, servidorLabel, servidorField,
+                dificultadLabel, dificultadComboBox, volteoLabel, volteoComboBox, rendimientoLabel, rendimientoComboBox,
+                backButton);
+        optionsBox.setAlignment(Pos.CENTER);
+        optionsScene = new Scene(optionsBox, 400, 720);
+        optionsScene.getStylesheets().add(ESTILOS);
+        primaryStage.setScene(optionsScene);
+    }
+
+    private static boolean esTamanoValido(String valor) {
+        if (!valor.matches("\\d{1,4}x\\d{1,4}")) {
+            return false;
+        }
+        String[] parts = valor.split("x");
+        int filas = Integer.parseInt(parts[0]);
+        int columnas = Integer.parseInt(parts[1]);
+        return filas <= BoardCodec.LADO_MAXIMO && columnas <= BoardCodec.LADO_MAXIMO
+                && GameLogic.esTamanoValido(filas, columnas);
+    }
+
+    /**
+     * Tanto por ciento de las cartas vistas que recuerda el ordenador en cada dificultad.
+     */
+    private static int memoriaOrdenador(String dificultad) {
+        return switch (dificultad) {
+            case "Fácil" -> 40;
+            case "Difícil" -> 100;
+            default -> 75;
+        };
+    }
+
+    /**
+     * @param isCreator Si es true, esta instancia crea la partida (inicia el servidor)
+     *                  Si es false, solo se conecta como cliente.
+     * @param contraOrdenador Si es true, el otro jugador es el ordenador del servidor
+     */
+    private void startGame(boolean isCreator, boolean contraOrdenador) {
+        long inicio = System.nanoTime();
+        // Parseamos el tamaño del tablero (formato "filas x columnas")
+        String[] parts = boardSize.split("x");
+        int filas = Integer.parseInt(parts[0]);
+        int columnas = Integer.parseInt(parts[1]);
+
+        boolean yaPreparada = preparada != null && preparada.configuracion().equals(configuracion());
+        PartidaPreparada partida = yaPreparada ? preparada : construirPartida(filas, columnas);
+        preparada = null;
+        VistaTablero tablero = partida.tablero();
+        Label headerLabel = partida.cabecera();
+        Label identityLabel = partida.identidad();
+        Label scoreLabel = partida.marcador();
+        StackPane capas = partida.capas();
+        Scene gameScene = partida.escena();
+        primaryStage.setScene(gameScene);
+        if (LOG.isLoggable(Level.DEBUG)) {
+            alPintar(gameScene, () -> LOG.log(Level.DEBUG, String.format("Tablero en pantalla: %.1f ms desde el clic (%s)",
+                    (System.nanoTime() - inicio) / 1e6, yaPreparada ? "preparado desde el menú" : "construido al empezar")));
+        }
+
+        String host = servidor.substring(0, servidor.lastIndexOf(':'));
+        int port = Integer.parseInt(servidor.substring(servidor.lastIndexOf(':') + 1));
+
+        // Solo el creador inicia el servidor; el lobby empareja a quien pida el mismo tamaño de tablero
+        if (isCreator) {
+            host = "localhost";
+            MemoryServer server = new MemoryServer(port, filas, columnas);
+            Thread serverThread = new Thread(server::start, "memory-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+        }
+
+        // Se inicializa el cliente (todos se conectan igual)
+        MemoryClient client = new MemoryClient(host, port, tablero, headerLabel, scoreLabel, identityLabel);
+        client.setTablero(filas, columnas);
+        client.setOptimista(volteo.equals("Inmediato"));
+        if (contraOrdenador) {
+            client.setContraOrdenador(memoriaOrdenador(dificultad));
+        }
+        tablero.setClient(client);
+
+        if (panelRendimiento != null) {
+            panelRendimiento.cerrar();
+        }
+        panelRendimiento = new PanelRendimiento(gameScene, client, tablero);
+        StackPane.setAlignment(panelRendimiento, Pos.TOP_LEFT);
+        capas.getChildren().add(panelRendimiento);
+        PanelRendimiento panel = panelRendimiento;
+        gameScene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.F3) {
+                panel.alternarVisible();
+            } else if (e.getCode() == KeyCode.F4) {
+                panel.alternarRegistro();
+            }
+        });
+        if (!rendimiento.equals("Oculto")) {
+            panel.alternarVisible();
+        }
+        if (rendimiento.equals("Visible y guardado en archivo")) {
+            panel.alternarRegistro();
+        }
+        client.connect();
+    }
+
+    private String configuracion() {
+        return boardSize + " " + vista;
+    }
+
+    /**
+     * Construye y maqueta la escena de partida de la configuración actual mientras el usuario está en el
+     * menú: se crean los controles, se aplica el CSS y las cartas se piden ya al tamaño de celda con el
+     * que se van a pintar, así que se decodifican en segundo plano antes de que se pulse nada.
+     */
+    private void prepararPartida() {
+        if (preparada != null && preparada.configuracion().equals(configuracion())) {
+            return;
+        }
+        String[] parts = boardSize.split("x");
+        PartidaPreparada partida = construirPartida(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        // Sin ventana, la raíz no recibe tamaño: se le da el de la escena para maquetarla igual que al mostrarla
+        partida.capas().resize(ANCHO_PARTIDA, ALTO_PARTIDA);
+        partida.capas().applyCss();
+        partida.capas().layout();
+        preparada = partida;
+
+        // Si se cambia de configuración antes de terminar, los avisos de la carga anterior ya no cuentan
+        int carga = ++cargasPedidas;
+        barraCarga.setProgress(0);
+        estadoCarga.setVisible(true);
+        CartasCache.seguirCarga(progreso -> {
+            if (carga == cargasPedidas) {
+                barraCarga.setProgress(progreso);
+            }
+        }, () -> {
+            if (carga == cargasPedidas) {
+                estadoCarga.setVisible(false);
+            }
+        });
+    }
+
+    private PartidaPreparada construirPartida(int filas, int columnas) {
+        // Creamos el tablero (la lógica de cada partida vive en su sala del servidor)
+        VistaTablero tablero = switch (vista) {
+            case "Botones" -> new TableroCartasFX(filas, columnas);
+            case "Canvas" -> new TableroCanvasFX(filas, columnas);
+            default -> filas * columnas > MAX_CELDAS_BOTONES
+                    ? new TableroCanvasFX(filas, columnas)
+                    : new TableroCartasFX(filas, columnas);
+        };
+
+        // Creamos la zona superior con los labels para el estado del juego
+        Label headerLabel = new Label("Conectando al servidor...");
+        Label identityLabel = new Label("Identidad: -");
+        Label scoreLabel = new Label("Jugador 1: 0 | Jugador 2: 0");
+        scoreLabel.setStyle("-fx-font-size: 20px; -fx-padding: 10;");
+        VBox topBox = new VBox(headerLabel, identityLabel, scoreLabel);
+        topBox.setAlignment(Pos.CENTER);
+
+        BorderPane gameRoot = new BorderPane();
+        gameRoot.setTop(topBox);
+        gameRoot.setCenter((Parent) tablero);
+
+        // El panel de rendimiento va por encima del tablero, en la esquina superior izquierda
+        StackPane capas = new StackPane(gameRoot);
+        Scene gameScene = new Scene(capas, ANCHO_PARTIDA, ALTO_PARTIDA);
+        gameScene.getStylesheets().add(ESTILOS);
+        return new PartidaPreparada(configuracion(), tablero, gameScene, capas, headerLabel, identityLabel, scoreLabel);
+    }
+
+    @Override
+    public void stop() {
+        if (panelRendimiento != null) {
+            panelRendimiento.cerrar();
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
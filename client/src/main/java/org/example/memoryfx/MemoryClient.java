@@ -0,0 +1,431 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.HeadlessClient;
+import org.example.memoryfx.core.Histograma;
+
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente JavaFX: la conexión la lleva un {@link HeadlessClient} y esta clase solo traslada
+ * sus avisos a los labels y a la vista del tablero en el hilo de JavaFX.
+ *
+ * Lo recibido no se pasa mensaje a mensaje: el hilo lector lo vuelca en un modelo con el último
+ * valor de cada celda y de cada label, y el hilo de JavaFX aplica todo lo acumulado de una vez.
+ * Así una ráfaga de mensajes cuesta una sola actualización de la vista.
+ *
+ * En modo optimista, una carta pulsada en nuestro turno empieza a voltearse sin esperar al
+ * servidor: la vista anima el volteo mientras la jugada va y vuelve y pone la cara al llegar su
+ * valor. Si el servidor la rechaza, la carta vuelve a quedar boca abajo.
+ */
+public class MemoryClient implements HeadlessClient.Listener {
+    private final HeadlessClient conexion;
+    private final VistaTablero tablero;
+    private final Label headerLabel;
+    private final Label scoreLabel;
+    private final Label identityLabel;
+    private Thread listenerThread;
+    // Tras una desconexión en plena partida se reintenta volver con el token (el servidor pudo reiniciarse)
+    private static final int REINTENTOS = 30;
+    private static final long ESPERA_REINTENTO_MS = 1000;
+    // Lo contesta el servidor si al volver ya no tiene la partida; entonces cierra y no se reintenta
+    private static final String SIN_PARTIDA = "No hay ninguna partida que recuperar";
+    private volatile boolean partidaTerminada;
+    private volatile boolean optimista = true;
+    private int columnas;
+
+    // Último estado recibido y aún no mostrado; lo escribe el hilo lector y lo vacía el de JavaFX (monitor de this)
+    private final CambiosPendientes cambios = new CambiosPendientes();
+    private String cabeceraPendiente;
+    private String marcadorPendiente;
+    private String identidadPendiente;
+    private String resultadoPendiente;
+    // Lo que se sabe del turno por los mensajes del servidor, para decidir si una jugada se puede adelantar
+    private int miJugador = -1;
+    private int turnoDe = -1;
+    private int cartasEnTurno;
+    private int rechazosPendientes;
+    private boolean reiniciarJugadas;
+    // Solo los usa el hilo de JavaFX
+    private int[] aplicarCeldas = new int[0];
+    private int[] aplicarValores = new int[0];
+    // Jugadas enviadas sin respuesta todavía, de la más antigua a la más nueva (solo hilo de JavaFX)
+    private static final int MAX_JUGADAS = 8;
+    private final int[] jugadaCelda = new int[MAX_JUGADAS];
+    private final boolean[] jugadaProvisional = new boolean[MAX_JUGADAS];
+    private final long[] jugadaInstante = new long[MAX_JUGADAS];
+    private int numJugadas;
+    private final Histograma latenciaRespuesta = new Histograma();
+    private final Histograma latenciaConfirmacion = new Histograma();
+
+    private final AtomicBoolean actualizacionProgramada = new AtomicBoolean();
+    private final AtomicLong mensajesRecibidos = new AtomicLong();
+    private final AtomicLong actualizacionesVista = new AtomicLong();
+    // Solo mientras se muestra o se registra el panel de rendimiento; sin él no se toma ningún tiempo
+    private volatile PanelRendimiento panelRendimiento;
+    // Llegada del primer mensaje de la actualización programada (la escribe quien la programa)
+    private long llegadaPendiente;
+
+    public MemoryClient(String host, int port, VistaTablero tablero, Label headerLabel, Label scoreLabel, Label identityLabel) {
+        // Se propone el protocolo binario; si el servidor no lo entiende seguimos en texto
+        this.conexion = new HeadlessClient(host, port, true, this);
+        this.tablero = tablero;
+        this.headerLabel = headerLabel;
+        this.scoreLabel = scoreLabel;
+        this.identityLabel = identityLabel;
+    }
+
+    /**
+     * Tamaño de tablero que se pide al servidor; hay que fijarlo antes de {@link #connect()}.
+     */
+    public void setTablero(int filas, int columnas) {
+        this.columnas = columnas;
+        conexion.setTablero(filas, columnas);
+    }
+
+    /**
+     * Con true (por defecto) las cartas empiezan a voltearse al pulsarlas; con false esperan al servidor.
+     */
+    public void setOptimista(boolean optimista) {
+        this.optimista = optimista;
+    }
+
+    /**
+     * Juega contra el ordenador del servidor (ver {@link HeadlessClient#setContraOrdenador(int)}); antes de {@link #connect()}.
+     */
+    public void setContraOrdenador(int memoria) {
+        conexion.setContraOrdenador(memoria);
+    }
+
+    /**
+     * Panel al que se pasan los tiempos de cada actualización de la vista, o null para no medir nada.
+     */
+    void setPanelRendimiento(PanelRendimiento panel) {
+        this.panelRendimiento = panel;
+    }
+
+    public void connect() {
+        try {
+            conexion.connect();
+            startListener();
+        } catch (IOException e) {
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.ERROR, "Error al conectar con el servidor", ButtonType.OK);
+                alert.showAndWait();
+            });
+        }
+    }
+
+    public void sendMove(int fila, int col) {
+        conexion.sendMove(fila, col);
+    }
+
+    /**
+     * Jugada pulsada en la vista; llamar desde el hilo de JavaFX.
+     */
+    public void pulsar(int fila, int col) {
+        int celda = fila * columnas + col;
+        boolean provisional;
+        synchronized (this) {
+            // Antes de empezar la partida o ya terminada el servidor no contesta: no hay nada que seguir
+            if (turnoDe < 0 || partidaTerminada) {
+                conexion.sendMove(fila, col);
+                return;
+            }
+            for (int i = 0; i < numJugadas; i++) {
+                if (jugadaCelda[i] == celda) {
+                    return;
+                }
+            }
+            if (numJugadas == MAX_JUGADAS) {
+                return;
+            }
+            provisional = optimista && turnoDe == miJugador && cartasEnTurno < 2;
+            cartasEnTurno++;
+        }
+        long ahora = System.nanoTime();
+        jugadaCelda[numJugadas] = celda;
+        jugadaProvisional[numJugadas] = provisional;
+        jugadaInstante[numJugadas] = ahora;
+        numJugadas++;
+        if (provisional) {
+            tablero.voltearProvisional(celda);
+            latenciaRespuesta.registrar(System.nanoTime() - ahora);
+        }
+        conexion.sendMove(fila, col);
+    }
+
+    @Override
+    public void onDesconexion() {
+        if (partidaTerminada || conexion.getToken() == null) {
+            return;
+        }
+        synchronized (this) {
+            cabeceraPendiente = "Conexión perdida, reintentando...";
+            // Lo que no haya contestado ya no contestará: el snapshot al volver manda
+            reiniciarJugadas = true;
+            rechazosPendientes = 0;
+            turnoDe = -1;
+        }
+        mensajeRecibido();
+        for (int i = 0; i < REINTENTOS; i++) {
+            try {
+                Thread.sleep(ESPERA_REINTENTO_MS);
+                conexion.connect();
+                startListener();
+                return;
+            } catch (IOException e) {
+                // El servidor aún no ha vuelto
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        synchronized (this) {
+            cabeceraPendiente = "No se pudo volver a conectar con el servidor.";
+        }
+        mensajeRecibido();
+    }
+
+    private void startListener() {
+        listenerThread = new Thread(() -> {
+            try {
+                conexion.escuchar();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void onTablero(int[] celdas, int n) {
+        // HeadlessClient reutiliza el array: se anotan los valores en el modelo pendiente
+        synchronized (this) {
+            for (int i = 0; i < n; i++) {
+                cambios.anotar(celdas[i], conexion.getValor(celdas[i]));
+            }
+        }
+        mensajeRecibido();
+    }
+
+    @Override
+    public void onMensaje(String msg) {
+        synchronized (this) {
+            anotarTurno(msg);
+            if (msg.startsWith("Bienvenido,")) {
+                identidadPendiente = msg;
+            } else if (msg.startsWith("SCORE:")) {
+                marcadorPendiente = msg.substring("SCORE:".length()).trim();
+            } else if (msg.startsWith(SIN_PARTIDA)) {
+                partidaTerminada = true;
+                cabeceraPendiente = "La partida se ha perdido: el servidor ya no la tiene.";
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(Alert.AlertType.ERROR, "No se pudo volver a la partida: " + msg, ButtonType.OK);
+                    alert.showAndWait();
+                });
+            } else {
+                if (msg.equals("¡Juego terminado!") || msg.endsWith("Partida terminada.")) {
+                    partidaTerminada = true;
+                }
+                cabeceraPendiente = msg;
+                if (msg.startsWith("Ganador:") || msg.startsWith("Empate")) {
+                    resultadoPendiente = msg;
+                }
+            }
+        }
+        mensajeRecibido();
+    }
+
+    /**
+     * Mensajes recibidos del servidor y cuántos de ellos se juntaron con otros en la misma actualización de la vista.
+     */
+    public long getMensajesRecibidos() {
+        return mensajesRecibidos.get();
+    }
+
+    public long getActualizacionesVista() {
+        return actualizacionesVista.get();
+    }
+
+    public long getMensajesCoalescidos() {
+        return mensajesRecibidos.get() - actualizacionesVista.get();
+    }
+
+    // Llamar con el monitor tomado
+    private void anotarTurno(String msg) {
+        int turno = msg.indexOf("Turno del Jugador ");
+        if (msg.startsWith("Bienvenido, eres el Jugador ")) {
+            miJugador = msg.charAt("Bienvenido, eres el Jugador ".length()) - '1';
+        } else if (turno >= 0) {
+            turnoDe = msg.charAt(turno + "Turno del Jugador ".length()) - '1';
+            cartasEnTurno = 0;
+        } else if (msg.startsWith("¡Jugador ") && msg.endsWith("encontró una pareja!")) {
+            // Quien acierta repite turno
+            if (msg.charAt("¡Jugador ".length()) - '1' == turnoDe) {
+                cartasEnTurno = 0;
+            }
+        } else if (msg.equals("Esperando tu segunda jugada.")) {
+            cartasEnTurno = Math.max(cartasEnTurno, 1);
+        } else if (msg.equals("No es tu turno.") || msg.equals("Espera a que se escondan las cartas.")
+                || msg.startsWith("Movimiento inválido")) {
+            rechazosPendientes++;
+            cartasEnTurno = Math.max(0, cartasEnTurno - 1);
+        }
+    }
+
+    /**
+     * Tiempo desde que se pulsa una carta hasta que empieza a voltearse en la vista.
+     */
+    public Histograma getLatenciaRespuesta() {
+        return latenciaRespuesta;
+    }
+
+    /**
+     * Tiempo desde que se pulsa una carta hasta que la vista recibe su valor del servidor.
+     */
+    public Histograma getLatenciaConfirmacion() {
+        return latenciaConfirmacion;
+    }
+
+    public boolean isPartidaTerminada() {
+        return partidaTerminada;
+    }
+
+    /**
+     * Es nuestro turno y aún no se han levantado sus dos cartas.
+     */
+    public synchronized boolean puedeVoltear() {
+        return miJugador >= 0 && turnoDe == miJugador && cartasEnTurno < 2;
+    }
+
+    /**
+     * Jugadas enviadas que aún no han vuelto del servidor; solo desde el hilo de JavaFX.
+     */
+    public int getJugadasSinRespuesta() {
+        return numJugadas;
+    }
+
+    public int getValor(int celda) {
+        return conexion.getValor(celda);
+    }
+
+    /**
+     * Solo se programa una actualización de la vista si no hay otra pendiente: lo que llegue mientras
+     * tanto se acumula y entra en esa misma.
+     */
+    private void mensajeRecibido() {
+        mensajesRecibidos.incrementAndGet();
+        if (actualizacionProgramada.compareAndSet(false, true)) {
+            if (panelRendimiento != null) {
+                llegadaPendiente = System.nanoTime();
+            }
+            Platform.runLater(this::aplicarPendiente);
+        }
+    }
+
+    private void aplicarPendiente() {
+        PanelRendimiento panel = panelRendimiento;
+        long inicio = panel != null ? System.nanoTime() : 0;
+        String cabecera, marcador, identidad, resultado;
+        int n, rechazos;
+        long llegada;
+        boolean reiniciar;
+        synchronized (this) {
+            // Se lee antes de liberar la marca: después otro hilo ya puede programar la siguiente
+            llegada = llegadaPendiente;
+            llegadaPendiente = 0;
+            actualizacionProgramada.set(false);
+            cabecera = cabeceraPendiente;
+            marcador = marcadorPendiente;
+            identidad = identidadPendiente;
+            resultado = resultadoPendiente;
+            cabeceraPendiente = marcadorPendiente = identidadPendiente = resultadoPendiente = null;
+            if (aplicarCeldas.length < cambios.size()) {
+                aplicarCeldas = new int[Math.max(16, cambios.size() * 2)];
+                aplicarValores = new int[aplicarCeldas.length];
+            }
+            n = cambios.volcar(aplicarCeldas, aplicarValores);
+            rechazos = rechazosPendientes;
+            reiniciar = reiniciarJugadas;
+            rechazosPendientes = 0;
+            reiniciarJugadas = false;
+        }
+        actualizacionesVista.incrementAndGet();
+
+        if (numJugadas > 0) {
+            confirmarJugadas(n);
+        }
+        if (n > 0) {
+            tablero.aplicarCambios(aplicarCeldas, aplicarValores, n);
+        }
+        // El servidor contesta en orden: cada rechazo corresponde a la jugada más antigua sin respuesta
+        for (int i = 0; i < rechazos && numJugadas > 0; i++) {
+            if (jugadaProvisional[0]) {
+                tablero.deshacerProvisional(jugadaCelda[0]);
+            }
+            quitarJugada(0);
+        }
+        if (reiniciar) {
+            while (numJugadas > 0) {
+                if (jugadaProvisional[0]) {
+                    tablero.deshacerProvisional(jugadaCelda[0]);
+                }
+                quitarJugada(0);
+            }
+        }
+        if (identidad != null) identityLabel.setText(identidad);
+        if (marcador != null) scoreLabel.setText(marcador);
+        if (cabecera != null) headerLabel.setText(cabecera);
+        if (panel != null && llegada != 0) {
+            panel.vistaActualizada(llegada, inicio, System.nanoTime());
+        }
+        if (resultado != null) {
+            // showAndWait abre un bucle de eventos anidado: se muestra aparte para no retener esta actualización
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION, resultado, ButtonType.OK);
+                alert.setTitle("Fin del Juego");
+                alert.setHeaderText("Resultado Final");
+                alert.showAndWait();
+            });
+        }
+    }
+
+    /**
+     * Una jugada queda confirmada cuando llega la cara de su celda.
+     */
+    private void confirmarJugadas(int n) {
+        long ahora = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            if (aplicarValores[i] == BoardCodec.OCULTA) {
+                continue;
+            }
+            for (int j = 0; j < numJugadas; j++) {
+                if (jugadaCelda[j] == aplicarCeldas[i]) {
+                    long latencia = ahora - jugadaInstante[j];
+                    latenciaConfirmacion.registrar(latencia);
+                    if (!jugadaProvisional[j]) {
+                        latenciaRespuesta.registrar(latencia);
+                    }
+                    quitarJugada(j);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void quitarJugada(int pos) {
+        numJugadas--;
+        System.arraycopy(jugadaCelda, pos + 1, jugadaCelda, pos, numJugadas - pos);
+        System.arraycopy(jugadaProvisional, pos + 1, jugadaProvisional, pos, numJugadas - pos);
+        System.arraycopy(jugadaInstante, pos + 1, jugadaInstante, pos, numJugadas - pos);
+    }
+}
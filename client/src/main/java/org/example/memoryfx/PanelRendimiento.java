@@ -0,0 +1,310 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.Histograma;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Panel de rendimiento que se superpone a la partida. Cada segundo resume los frames por segundo y un
+ * histograma del tiempo entre frames; la latencia desde que llega un mensaje del servidor hasta el
+ * pulso que lo pinta, separando la espera al hilo de JavaFX de lo que cuesta aplicarlo a la vista;
+ * cuánto tarda en atenderse un {@code runLater}; las animaciones en curso, las imágenes que aún se
+ * decodifican y el heap. Las mismas muestras se pueden ir añadiendo a un CSV durante la sesión.
+ *
+ * Mientras no se muestra ni se registra no hay nada en marcha: ni {@link AnimationTimer}, ni escucha
+ * de pulsos, ni sondas, y el {@link MemoryClient} no toma ningún tiempo.
+ */
+class PanelRendimiento extends VBox {
+
+    private static final long VENTANA = 1_000_000_000L;
+    private static final long PERIODO_SONDA_MS = 100;
+    // Límites superiores de las barras del histograma de frames, en ms; la última barra recoge el resto
+    private static final double[] LIMITES_FRAME = {8.4, 16.7, 33.4, 50, 100};
+    private static final String[] ETIQUETAS_FRAME = {"<8", "<17", "<33", "<50", "<100", "100+"};
+    private static final String CABECERA_CSV = "instante,fps,frame_p50_ms,frame_p99_ms,frame_max_ms,"
+            + "pintado_p50_ms,pintado_p99_ms,cola_p99_ms,aplicar_p99_ms,mensajes,actualizaciones,"
+            + "runlater_p99_ms,sondas_pendientes,animaciones,imagenes_cargando,heap_usado_mb,heap_max_mb";
+
+    private final MemoryClient client;
+    private final VistaTablero tablero;
+    private final Scene escena;
+    private final Label texto = new Label();
+    private final Canvas barras = new Canvas(240, 70);
+
+    // Muestras del segundo en curso; todo se toca solo desde el hilo de JavaFX
+    private final Histograma frames = new Histograma();
+    private final Histograma hastaPintar = new Histograma();
+    private final Histograma enCola = new Histograma();
+    private final Histograma aplicando = new Histograma();
+    private final Histograma esperaRunLater = new Histograma();
+    private final int[] cubosFrame = new int[LIMITES_FRAME.length + 1];
+    private final AtomicInteger sondasPendientes = new AtomicInteger();
+    private long inicioVentana;
+    private long frameAnterior;
+    // Llegada del mensaje más antiguo ya aplicado a la vista y aún no pintado (0 si no hay)
+    private long llegadaSinPintar;
+    private long mensajesAntes;
+    private long actualizacionesAntes;
+
+    private volatile boolean activo;
+    private Thread sondas;
+    private BufferedWriter registro;
+    private Path archivo;
+
+    private final AnimationTimer cronometro = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            alFrame(now);
+        }
+    };
+    private final Runnable trasMaquetar = this::trasMaquetar;
+
+    PanelRendimiento(Scene escena, MemoryClient client, VistaTablero tablero) {
+        this.escena = escena;
+        this.client = client;
+        this.tablero = tablero;
+        texto.setStyle("-fx-text-fill: white; -fx-font-family: monospace; -fx-font-size: 12px;");
+        getChildren().addAll(texto, barras);
+        setSpacing(4);
+        setStyle("-fx-background-color: rgba(0, 0, 0, 0.7); -fx-padding: 8;");
+        setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+        // No debe quitarle clics al tablero que tiene debajo
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    void alternarVisible() {
+        setVisible(!isVisible());
+        if (isVisible()) {
+            texto.setText("Midiendo...");
+        }
+        actualizarActividad();
+    }
+
+    /**
+     * Empieza a guardar las muestras en un CSV nuevo del directorio de trabajo, o deja de hacerlo.
+     */
+    void alternarRegistro() {
+        if (registro == null) {
+            archivo = Path.of("memoryfx-rendimiento-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+            try {
+                registro = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8);
+                registro.write(CABECERA_CSV);
+                registro.newLine();
+                System.out.println("Registrando el rendimiento en " + archivo.toAbsolutePath());
+            } catch (IOException e) {
+                e.printStackTrace();
+                registro = null;
+            }
+        } else {
+            cerrarRegistro();
+        }
+        actualizarActividad();
+    }
+
+    /**
+     * Para las mediciones y cierra el registro, si lo hay.
+     */
+    void cerrar() {
+        cerrarRegistro();
+        setVisible(false);
+        actualizarActividad();
+    }
+
+    /**
+     * Lo llama {@link MemoryClient} en el hilo de JavaFX tras aplicar una actualización a la vista.
+     */
+    void vistaActualizada(long llegada, long inicio, long fin) {
+        enCola.registrar(inicio - llegada);
+        aplicando.registrar(fin - inicio);
+        if (llegadaSinPintar == 0) {
+            llegadaSinPintar = llegada;
+        }
+    }
+
+    private void actualizarActividad() {
+        boolean medir = isVisible() || registro != null;
+        if (medir && !activo) {
+            activo = true;
+            reiniciarVentana(System.nanoTime());
+            frameAnterior = 0;
+            llegadaSinPintar = 0;
+            cronometro.start();
+            escena.addPostLayoutPulseListener(trasMaquetar);
+            client.setPanelRendimiento(this);
+            sondas = Thread.ofVirtual().name("memory-sondas").start(this::sondear);
+        } else if (!medir && activo) {
+            activo = false;
+            cronometro.stop();
+            escena.removePostLayoutPulseListener(trasMaquetar);
+            client.setPanelRendimiento(null);
+            sondas.interrupt();
+        }
+    }
+
+    private void alFrame(long now) {
+        if (frameAnterior != 0) {
+            long duracion = now - frameAnterior;
+            frames.registrar(duracion);
+            cubosFrame[cubo(duracion / 1e6)]++;
+        }
+        frameAnterior = now;
+        if (now - inicioVentana >= VENTANA) {
+            cerrarVentana(now);
+        }
+    }
+
+    /**
+     * Tras la maquetación de cada pulso, justo antes de pintar: lo aplicado hasta aquí sale en este frame.
+     */
+    private void trasMaquetar() {
+        if (llegadaSinPintar != 0) {
+            hastaPintar.registrar(System.nanoTime() - llegadaSinPintar);
+            llegadaSinPintar = 0;
+        }
+    }
+
+    /**
+     * Manda un {@code runLater} cada {@value #PERIODO_SONDA_MS} ms y mide cuánto tarda en ejecutarse. JavaFX
+     * no dice cuántas tareas tiene en cola; la espera de la sonda es lo que tarda en vaciarse lo que tenía delante.
+     */
+    private void sondear() {
+        while (activo) {
+            try {
+                Thread.sleep(PERIODO_SONDA_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long enviada = System.nanoTime();
+            sondasPendientes.incrementAndGet();
+            Platform.runLater(() -> {
+                esperaRunLater.registrar(System.nanoTime() - enviada);
+                sondasPendientes.decrementAndGet();
+            });
+        }
+    }
+
+    private void cerrarVentana(long now) {
+        double segundos = (now - inicioVentana) / 1e9;
+        double fps = frames.getTotal() / segundos;
+        long mensajes = client.getMensajesRecibidos() - mensajesAntes;
+        long actualizaciones = client.getActualizacionesVista() - actualizacionesAntes;
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsado = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        long heapMaximo = runtime.maxMemory() >> 20;
+        int animaciones = tablero.getAnimacionesActivas();
+        int cargando = CartasCache.getCargando();
+
+        if (isVisible()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("FPS %.1f   frame p50 %.1f ms  p99 %.1f  máx %.1f%n",
+                    fps, ms(frames, 0.5), ms(frames, 0.99), ms(frames, 1.0)));
+            sb.append(String.format("Mensaje a pintado p50 %.1f ms  p99 %.1f%n", ms(hastaPintar, 0.5), ms(hastaPintar, 0.99)));
+            sb.append(String.format("  en cola p99 %.1f ms, aplicar p99 %.1f ms%n", ms(enCola, 0.99), ms(aplicando, 0.99)));
+            sb.append(String.format("Mensajes %d/s en %d actualizaciones%n", mensajes, actualizaciones));
+            sb.append(String.format("runLater espera p99 %.1f ms, %d sin atender%n", ms(esperaRunLater, 0.99), sondasPendientes.get()));
+            sb.append(String.format("Animaciones %d, imágenes cargando %d%n", animaciones, cargando));
+            sb.append(String.format("Heap %d / %d MB", heapUsado, heapMaximo));
+            if (registro != null) {
+                sb.append("\nRegistrando en ").append(archivo.getFileName());
+            }
+            texto.setText(sb.toString());
+            pintarBarras();
+        }
+        if (registro != null) {
+            try {
+                registro.write(String.format(Locale.ROOT, "%s,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%d,%.2f,%d,%d,%d,%d,%d",
+                        LocalTime.now().truncatedTo(ChronoUnit.MILLIS), fps,
+                        ms(frames, 0.5), ms(frames, 0.99), ms(frames, 1.0), ms(hastaPintar, 0.5), ms(hastaPintar, 0.99),
+                        ms(enCola, 0.99), ms(aplicando, 0.99), mensajes, actualizaciones, ms(esperaRunLater, 0.99),
+                        sondasPendientes.get(), animaciones, cargando, heapUsado, heapMaximo));
+                registro.newLine();
+                // Una línea por segundo: si la aplicación se cierra de golpe no se pierde nada
+                registro.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+                cerrarRegistro();
+                actualizarActividad();
+            }
+        }
+        reiniciarVentana(now);
+    }
+
+    private void pintarBarras() {
+        GraphicsContext gc = barras.getGraphicsContext2D();
+        double ancho = barras.getWidth() / cubosFrame.length;
+        double alto = barras.getHeight() - 14;
+        int maximo = 1;
+        for (int n : cubosFrame) {
+            maximo = Math.max(maximo, n);
+        }
+        gc.clearRect(0, 0, barras.getWidth(), barras.getHeight());
+        gc.setFont(texto.getFont());
+        for (int i = 0; i < cubosFrame.length; i++) {
+            double h = alto * cubosFrame[i] / maximo;
+            // Verde lo que cabe en un frame a 60 Hz, amarillo hasta 30 Hz y rojo el resto
+            gc.setFill(i < 2 ? Color.LIMEGREEN : i < 3 ? Color.GOLD : Color.TOMATO);
+            gc.fillRect(i * ancho + 2, alto - h, ancho - 4, h);
+            gc.setFill(Color.WHITE);
+            gc.fillText(ETIQUETAS_FRAME[i], i * ancho + 2, barras.getHeight() - 2);
+        }
+    }
+
+    private void reiniciarVentana(long now) {
+        inicioVentana = now;
+        frames.reiniciar();
+        hastaPintar.reiniciar();
+        enCola.reiniciar();
+        aplicando.reiniciar();
+        esperaRunLater.reiniciar();
+        Arrays.fill(cubosFrame, 0);
+        mensajesAntes = client.getMensajesRecibidos();
+        actualizacionesAntes = client.getActualizacionesVista();
+    }
+
+    private void cerrarRegistro() {
+        if (registro == null) {
+            return;
+        }
+        try {
+            registro.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        registro = null;
+    }
+
+    private static int cubo(double ms) {
+        for (int i = 0; i < LIMITES_FRAME.length; i++) {
+            if (ms < LIMITES_FRAME[i]) {
+                return i;
+            }
+        }
+        return LIMITES_FRAME.length;
+    }
+
+    private static double ms(Histograma histograma, double p) {
+        return histograma.percentil(p) / 1e6;
+    }
+}
@@ -0,0 +1,405 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+/**
+ * Vista de tablero virtualizada para tableros grandes (64x64, 200x200...). Todo se pinta en un
+ * único {@link Canvas} del tamaño de la ventana y solo se dibujan las celdas visibles, así que el
+ * coste por frame y la memoria no dependen del tamaño del tablero: el estado es un {@code int[]}
+ * con el valor de cada celda.
+ *
+ * Rueda del ratón o arrastrar para desplazarse; Ctrl + rueda (o gesto de pellizco) para hacer zoom.
+ * Como solo hay {@link CartasCache#CARAS_DISPONIBLES} imágenes, los ids mayores reutilizan una de ellas con un
+ * marco de color y el número de la carta para que todas las parejas sigan siendo distinguibles.
+ *
+ * Los volteos se animan con un único {@link AnimationTimer} que solo corre mientras hay alguno en
+ * curso y en cada frame repinta únicamente las celdas que se están volteando. Un volteo provisional
+ * (la jugada aún no ha vuelto del servidor) se queda con la carta de canto hasta que llega su valor.
+ */
+public class TableroCanvasFX extends Pane implements VistaTablero {
+
+    private static final double CELDA_MINIMA = 16;
+    private static final double CELDA_MAXIMA = 220;
+    // Lo mismo que los dos FadeTransition de 300 ms de la vista de botones
+    private static final long DURACION_VOLTEO = 600_000_000L;
+
+    private final int filas;
+    private final int columnas;
+    private final int[] valores;
+    private final Canvas canvas = new Canvas();
+    private MemoryClient client;
+    private int resolucionImagenes = -1;
+
+    // Volteos en curso: un único AnimationTimer los avanza todos y solo repinta esas celdas en cada frame
+    private final int[] animacionDe;
+    private final boolean[] provisional;
+    private int[] animCeldas = new int[16];
+    private int[] animAnteriores = new int[16];
+    private long[] animInicios = new long[16];
+    private int numAnimaciones;
+    private long instanteFrame;
+    private boolean animando;
+    private final AnimationTimer animador = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            animar(now);
+        }
+    };
+
+    private double tamCelda = CELDA_MINIMA;
+    private double despX;
+    private double despY;
+    private boolean ajustado;
+    private double ratonX;
+    private double ratonY;
+    private boolean arrastrado;
+
+    public TableroCanvasFX(int filas, int columnas) {
+        this.filas = filas;
+        this.columnas = columnas;
+        this.valores = new int[filas * columnas];
+        this.animacionDe = new int[filas * columnas];
+        this.provisional = new boolean[filas * columnas];
+        Arrays.fill(animacionDe, -1);
+        getChildren().add(canvas);
+        setMinSize(0, 0);
+
+        canvas.setOnScroll(this::alDesplazar);
+        canvas.setOnZoom(e -> hacerZoom(e.getZoomFactor(), e.getX(), e.getY()));
+        canvas.setOnMousePressed(e -> {
+            ratonX = e.getX();
+            ratonY = e.getY();
+            arrastrado = false;
+        });
+        canvas.setOnMouseDragged(this::alArrastrar);
+        canvas.setOnMouseClicked(this::alPulsar);
+    }
+
+    @Override
+    public void setClient(MemoryClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void aplicarCambio(int celda, int valor) {
+        if (provisional[celda]) {
+            // El "boca abajo" es el estado previo a la jugada; con el valor el volteo ya empezado sigue su curso
+            if (valor != BoardCodec.OCULTA) {
+                provisional[celda] = false;
+                valores[celda] = valor;
+                if (animacionDe[celda] < 0) {
+                    iniciarVolteo(celda, BoardCodec.OCULTA);
+                }
+            }
+            return;
+        }
+        int anterior = valores[celda];
+        if (anterior == valor) {
+            return;
+        }
+        valores[celda] = valor;
+        iniciarVolteo(celda, anterior);
+    }
+
+    @Override
+    public void aplicarCambios(int[] celdas, int[] valores, int n) {
+        // Con muchos cambios (p. ej. un snapshot) sale más barato repintar lo visible una sola vez, sin animar
+        if (n < 64) {
+            VistaTablero.super.aplicarCambios(celdas, valores, n);
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            int celda = celdas[i];
+            if (provisional[celda]) {
+                if (valores[i] == BoardCodec.OCULTA) {
+                    continue;
+                }
+                provisional[celda] = false;
+            }
+            this.valores[celda] = valores[i];
+        }
+        redibujar();
+    }
+
+    @Override
+    public void voltearProvisional(int celda) {
+        if (provisional[celda] || valores[celda] != BoardCodec.OCULTA) {
+            return;
+        }
+        provisional[celda] = true;
+        iniciarVolteo(celda, BoardCodec.OCULTA);
+    }
+
+    @Override
+    public void deshacerProvisional(int celda) {
+        // Sin valor nuevo, el volteo retenido termina de nuevo en el dorso
+        provisional[celda] = false;
+    }
+
+    /**
+     * Empieza el volteo de una celda; el instante de inicio se fija en el siguiente frame.
+     */
+    private void iniciarVolteo(int celda, int anterior) {
+        int pos = animacionDe[celda];
+        if (pos < 0) {
+            if (numAnimaciones == animCeldas.length) {
+                animCeldas = Arrays.copyOf(animCeldas, numAnimaciones * 2);
+                animAnteriores = Arrays.copyOf(animAnteriores, numAnimaciones * 2);
+                animInicios = Arrays.copyOf(animInicios, numAnimaciones * 2);
+            }
+            pos = numAnimaciones++;
+            animCeldas[pos] = celda;
+            animacionDe[celda] = pos;
+        }
+        animAnteriores[pos] = anterior;
+        animInicios[pos] = -1;
+        if (!animando) {
+            animando = true;
+            animador.start();
+        }
+    }
+
+    private void animar(long now) {
+        instanteFrame = now;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        int i = 0;
+        while (i < numAnimaciones) {
+            if (animInicios[i] < 0) {
+                animInicios[i] = now;
+            }
+            int celda = animCeldas[i];
+            if (provisional[celda] && now - animInicios[i] > DURACION_VOLTEO / 2) {
+                // Sin respuesta del servidor todavía: la carta espera de canto
+                animInicios[i] = now - DURACION_VOLTEO / 2;
+            }
+            if (now - animInicios[i] >= DURACION_VOLTEO) {
+                // Se quita moviendo la última a su hueco; esa se procesa en la siguiente vuelta
+                numAnimaciones--;
+                animacionDe[celda] = -1;
+                if (i < numAnimaciones) {
+                    animCeldas[i] = animCeldas[numAnimaciones];
+                    animAnteriores[i] = animAnteriores[numAnimaciones];
+                    animInicios[i] = animInicios[numAnimaciones];
+                    animacionDe[animCeldas[i]] = i;
+                }
+            } else {
+                i++;
+            }
+            int fila = celda / columnas;
+            int col = celda % columnas;
+            if (isVisible(fila, col)) {
+                dibujarCelda(gc, fila, col);
+            }
+        }
+        if (numAnimaciones == 0) {
+            animando = false;
+            animador.stop();
+        }
+    }
+
+    @Override
+    public int getAnimacionesActivas() {
+        return numAnimaciones;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double ancho = getWidth();
+        double alto = getHeight();
+        if (canvas.getWidth() != ancho || canvas.getHeight() != alto) {
+            canvas.setWidth(ancho);
+            canvas.setHeight(alto);
+            if (!ajustado && ancho > 0 && alto > 0) {
+                tamCelda = limitar(Math.min(ancho / columnas, alto / filas), CELDA_MINIMA, CELDA_MAXIMA);
+                ajustado = true;
+            }
+            limitarDesplazamiento();
+            redibujar();
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 800;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 600;
+    }
+
+    private void alDesplazar(ScrollEvent e) {
+        if (e.isControlDown()) {
+            hacerZoom(e.getDeltaY() > 0 ? 1.1 : 1 / 1.1, e.getX(), e.getY());
+        } else {
+            despX -= e.getDeltaX();
+            despY -= e.getDeltaY();
+            limitarDesplazamiento();
+            redibujar();
+        }
+        e.consume();
+    }
+
+    private void alArrastrar(MouseEvent e) {
+        double dx = e.getX() - ratonX;
+        double dy = e.getY() - ratonY;
+        if (!arrastrado && Math.abs(dx) + Math.abs(dy) < 4) {
+            return;
+        }
+        arrastrado = true;
+        despX -= dx;
+        despY -= dy;
+        ratonX = e.getX();
+        ratonY = e.getY();
+        limitarDesplazamiento();
+        redibujar();
+    }
+
+    private void alPulsar(MouseEvent e) {
+        if (arrastrado || client == null) {
+            return;
+        }
+        int col = (int) Math.floor((e.getX() + despX) / tamCelda);
+        int fila = (int) Math.floor((e.getY() + despY) / tamCelda);
+        if (fila >= 0 && fila < filas && col >= 0 && col < columnas && valores[fila * columnas + col] == BoardCodec.OCULTA) {
+            client.pulsar(fila, col);
+        }
+    }
+
+    /**
+     * Cambia el tamaño de celda manteniendo bajo el cursor el mismo punto del tablero.
+     */
+    private void hacerZoom(double factor, double x, double y) {
+        double nuevo = limitar(tamCelda * factor, CELDA_MINIMA, CELDA_MAXIMA);
+        if (nuevo == tamCelda) {
+            return;
+        }
+        despX = (x + despX) / tamCelda * nuevo - x;
+        despY = (y + despY) / tamCelda * nuevo - y;
+        tamCelda = nuevo;
+        limitarDesplazamiento();
+        redibujar();
+    }
+
+    private void limitarDesplazamiento() {
+        despX = limitarEje(despX, columnas * tamCelda, canvas.getWidth());
+        despY = limitarEje(despY, filas * tamCelda, canvas.getHeight());
+    }
+
+    /**
+     * Si el tablero cabe en la ventana se centra; si no, el desplazamiento queda entre 0 y el sobrante.
+     */
+    private static double limitarEje(double desp, double tamTablero, double tamVentana) {
+        if (tamTablero <= tamVentana) {
+            return -(tamVentana - tamTablero) / 2;
+        }
+        return limitar(desp, 0, tamTablero - tamVentana);
+    }
+
+    private static double limitar(double valor, double min, double max) {
+        return Math.max(min, Math.min(max, valor));
+    }
+
+    private boolean isVisible(int fila, int col) {
+        double x = col * tamCelda - despX;
+        double y = fila * tamCelda - despY;
+        return x + tamCelda > 0 && x < canvas.getWidth() && y + tamCelda > 0 && y < canvas.getHeight();
+    }
+
+    private void redibujar() {
+        // Al cambiar de resolución las imágenes se decodifican en segundo plano; al terminar se repinta
+        int resolucion = CartasCache.resolucion(tamCelda);
+        if (resolucion != resolucionImagenes) {
+            resolucionImagenes = resolucion;
+            CartasCache.alCargar(tamCelda, this::redibujar);
+        }
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        int colInicio = Math.max(0, (int) Math.floor(despX / tamCelda));
+        int colFin = Math.min(columnas - 1, (int) Math.floor((despX + canvas.getWidth()) / tamCelda));
+        int filaInicio = Math.max(0, (int) Math.floor(despY / tamCelda));
+        int filaFin = Math.min(filas - 1, (int) Math.floor((despY + canvas.getHeight()) / tamCelda));
+        for (int i = filaInicio; i <= filaFin; i++) {
+            for (int j = colInicio; j <= colFin; j++) {
+                dibujarCelda(gc, i, j);
+            }
+        }
+    }
+
+    private void dibujarCelda(GraphicsContext gc, int fila, int col) {
+        double margen = Math.max(1, tamCelda * 0.06);
+        double x = col * tamCelda - despX;
+        double y = fila * tamCelda - despY;
+        double lado = tamCelda - 2 * margen;
+        gc.clearRect(x, y, tamCelda, tamCelda);
+
+        // Durante un volteo la carta se estrecha mostrando el valor anterior y se abre con el nuevo
+        int celda = fila * columnas + col;
+        int valor = valores[celda];
+        double escala = 1;
+        int pos = animacionDe[celda];
+        if (pos >= 0) {
+            double t = animInicios[pos] < 0 ? 0 : (double) (instanteFrame - animInicios[pos]) / DURACION_VOLTEO;
+            if (t < 0.5) {
+                valor = animAnteriores[pos];
+                escala = 1 - 2 * t;
+            } else {
+                escala = 2 * t - 1;
+            }
+        }
+        double ancho = lado * escala;
+        double izquierda = x + margen + (lado - ancho) / 2;
+
+        if (valor == BoardCodec.OCULTA) {
+            dibujarImagen(gc, CartasCache.getDorso(tamCelda), izquierda, y + margen, ancho, lado, Color.web("#4a2e2e"));
+            return;
+        }
+
+        gc.setFill(Color.WHITE);
+        gc.fillRoundRect(izquierda, y + margen, ancho, lado, lado * 0.15, lado * 0.15);
+        int indice = (valor - 1) % CartasCache.CARAS_DISPONIBLES;
+        int variante = (valor - 1) / CartasCache.CARAS_DISPONIBLES;
+        double interior = lado * 0.1;
+        dibujarImagen(gc, CartasCache.getCara(indice + 1, tamCelda), izquierda + interior * escala, y + margen + interior,
+                ancho - 2 * interior * escala, lado - 2 * interior, Color.LIGHTGRAY);
+        if (variante == 0) {
+            return;
+        }
+
+        // Misma imagen que otra pareja: se distingue por el color del marco y el número
+        gc.setStroke(Color.hsb((variante * 137.508) % 360, 0.85, 0.85));
+        gc.setLineWidth(Math.max(1, lado * 0.06));
+        gc.strokeRoundRect(izquierda, y + margen, ancho, lado, lado * 0.15, lado * 0.15);
+        if (lado >= 28 && pos < 0) {
+            gc.setFill(Color.web("#333333"));
+            gc.setFont(Font.font("Tahoma", FontWeight.BOLD, lado * 0.2));
+            gc.setTextAlign(TextAlignment.RIGHT);
+            gc.setTextBaseline(VPos.BOTTOM);
+            gc.fillText(Integer.toString(valor), x + margen + lado - 2, y + margen + lado - 1);
+        }
+    }
+
+    private static void dibujarImagen(GraphicsContext gc, Image img, double x, double y, double ancho, double alto, Color provisional) {
+        if (img == null || img.getProgress() < 1.0 || img.isError()) {
+            gc.setFill(provisional);
+            gc.fillRect(x, y, ancho, alto);
+        } else {
+            gc.drawImage(img, x, y, ancho, alto);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.RowConstraints;
+import javafx.util.Duration;
+
+
+public class TableroCartasFX extends GridPane implements VistaTablero {
+
+    private Button[][] botones;
+    // Una ImageView por celda que se reutiliza en cada volteo; la imagen sale de CartasCache
+    private final ImageView[][] vistas;
+    private final int[][] caras;
+    // Volteos provisionales (ver voltearProvisional): en qué fase está cada celda y el valor que llegó durante el fundido
+    private static final int SIN_VOLTEO = 0, OCULTANDO = 1, ESPERANDO = 2;
+    private final int[][] provisional;
+    private final int[][] valorProvisional;
+    private final FadeTransition[][] fundidosProvisionales;
+    // Fundidos en marcha (ver fundido)
+    private int animacionesActivas;
+    private MemoryClient client;
+    private final int filas;
+    private final int columnas;
+
+    public TableroCartasFX(int filas, int columnas) {
+        this.filas = filas;
+        this.columnas = columnas;
+        botones = new Button[filas][columnas];
+        vistas = new ImageView[filas][columnas];
+        caras = new int[filas][columnas];
+        provisional = new int[filas][columnas];
+        valorProvisional = new int[filas][columnas];
+        fundidosProvisionales = new FadeTransition[filas][columnas];
+        setHgap(5);
+        setVgap(5);
+        setPadding(new Insets(10));
+
+        // Configurar restricciones para distribuir equitativamente las celdas
+        for (int j = 0; j < columnas; j++) {
+            ColumnConstraints cc = new ColumnConstraints();
+            cc.setPercentWidth(100.0 / columnas);
+            getColumnConstraints().add(cc);
+        }
+        for (int i = 0; i < filas; i++) {
+            RowConstraints rc = new RowConstraints();
+            rc.setPercentHeight(100.0 / filas);
+            getRowConstraints().add(rc);
+        }
+
+        // Crear los botones (cartas)
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                Button btn = new Button("???");
+                btn.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+                btn.getStyleClass().add("card");
+                btn.getStyleClass().add("card-back");
+
+                final int fila = i;
+                final int col = j;
+                btn.setOnAction(e -> {
+                    if (client != null) {
+                        client.pulsar(fila, col);
+                    }
+                });
+
+                ImageView iv = new ImageView();
+                iv.setPreserveRatio(true);
+                iv.fitWidthProperty().bind(btn.widthProperty().subtract(50));
+                iv.fitHeightProperty().bind(btn.heightProperty().subtract(50));
+                // Al redimensionar se pasa a la resolución adecuada (si cambia, se decodifica en segundo plano).
+                // La primera imagen llega así también: hasta la primera maquetación no se sabe el tamaño
+                iv.fitWidthProperty().addListener((obs, antes, ahora) -> {
+                    if (ahora.doubleValue() > 0) {
+                        iv.setImage(imagenCelda(caras[fila][col], ahora.doubleValue()));
+                    }
+                });
+                btn.setGraphic(iv);
+                btn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+
+                botones[i][j] = btn;
+                vistas[i][j] = iv;
+                add(btn, j, i);
+            }
+        }
+    }
+
+    @Override
+    public void setClient(MemoryClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void aplicarCambio(int celda, int valor) {
+        actualizarCelda(celda / columnas, celda % columnas, valor);
+    }
+
+    @Override
+    public void voltearProvisional(int celda) {
+        int fila = celda / columnas;
+        int col = celda % columnas;
+        Button btn = botones[fila][col];
+        if (provisional[fila][col] != SIN_VOLTEO || !btn.getStyleClass().contains("card-back")) {
+            return;
+        }
+        // El primer fundido empieza ya; la cara entra en cuanto se sepa cuál es
+        provisional[fila][col] = OCULTANDO;
+        btn.setDisable(true);
+        FadeTransition fadeOut = fundido(btn);
+        fadeOut.setFromValue(1.0);
+        fadeOut.setToValue(0.0);
+        fadeOut.setOnFinished(event -> {
+            if (provisional[fila][col] != OCULTANDO) {
+                return;
+            }
+            if (valorProvisional[fila][col] != BoardCodec.OCULTA) {
+                mostrarProvisional(fila, col, valorProvisional[fila][col]);
+            } else {
+                provisional[fila][col] = ESPERANDO;
+            }
+        });
+        fundidosProvisionales[fila][col] = fadeOut;
+        fadeOut.play();
+    }
+
+    @Override
+    public void deshacerProvisional(int celda) {
+        int fila = celda / columnas;
+        int col = celda % columnas;
+        if (provisional[fila][col] == SIN_VOLTEO) {
+            return;
+        }
+        provisional[fila][col] = SIN_VOLTEO;
+        valorProvisional[fila][col] = BoardCodec.OCULTA;
+        Button btn = botones[fila][col];
+        fundidosProvisionales[fila][col].stop();
+        fundidosProvisionales[fila][col] = null;
+        btn.setDisable(false);
+        FadeTransition fadeIn = fundido(btn);
+        fadeIn.setToValue(1.0);
+        fadeIn.play();
+    }
+
+    private void mostrarProvisional(int fila, int col, int valor) {
+        provisional[fila][col] = SIN_VOLTEO;
+        valorProvisional[fila][col] = BoardCodec.OCULTA;
+        fundidosProvisionales[fila][col] = null;
+        Button btn = botones[fila][col];
+        if (!mostrar(fila, col, valor)) {
+            return;
+        }
+        FadeTransition fadeIn = fundido(btn);
+        fadeIn.setFromValue(0.0);
+        fadeIn.setToValue(1.0);
+        fadeIn.play();
+    }
+
+    private void actualizarCelda(int fila, int col, int valor) {
+        Button btn = botones[fila][col];
+        boolean oculta = valor == BoardCodec.OCULTA;
+        if (provisional[fila][col] != SIN_VOLTEO) {
+            // Hasta que el servidor dé su valor, un "boca abajo" solo es el estado de antes de la jugada
+            if (!oculta) {
+                if (provisional[fila][col] == ESPERANDO) {
+                    mostrarProvisional(fila, col, valor);
+                } else {
+                    valorProvisional[fila][col] = valor;
+                }
+            } else if (valorProvisional[fila][col] != BoardCodec.OCULTA) {
+                // La cara llegó durante el fundido y ya se ha vuelto a esconder: la carta acaba boca abajo
+                deshacerProvisional(fila * columnas + col);
+            }
+            return;
+        }
+        // Con más parejas que imágenes, la cara se repite y el número de carta las distingue
+        String texto = textoCelda(valor);
+
+        // Si el botón ya tiene el estilo correcto, se omite la animación
+        if (oculta && btn.getStyleClass().contains("card-back")) return;
+        if (!oculta && btn.getStyleClass().contains("card-face")) return;
+
+        if (!btn.getText().equals(texto)) {
+            FadeTransition fadeOut = fundido(btn);
+            fadeOut.setFromValue(1.0);
+            fadeOut.setToValue(0.0);
+            fadeOut.setOnFinished(event -> {
+                if (!mostrar(fila, col, valor)) {
+                    return;
+                }
+                FadeTransition fadeIn = fundido(btn);
+                fadeIn.setFromValue(0.0);
+                fadeIn.setToValue(1.0);
+                fadeIn.play();
+            });
+            fadeOut.play();
+        }
+    }
+
+    @Override
+    public int getAnimacionesActivas() {
+        return animacionesActivas;
+    }
+
+    /**
+     * Fundido de 300 ms de un botón que lleva la cuenta de los que están en marcha.
+     */
+    private FadeTransition fundido(Button btn) {
+        FadeTransition fundido = new FadeTransition(Duration.millis(300), btn);
+        fundido.statusProperty().addListener((obs, antes, ahora) -> {
+            if (ahora == Animation.Status.RUNNING) {
+                animacionesActivas++;
+            } else if (antes == Animation.Status.RUNNING) {
+                animacionesActivas--;
+            }
+        });
+        return fundido;
+    }
+
+    /**
+     * Pone en el botón la cara o el dorso, sin animar. Devuelve false si no se pudo cargar la imagen.
+     */
+    private boolean mostrar(int fila, int col, int valor) {
+        Button btn = botones[fila][col];
+        caras[fila][col] = valor;
+        if (valor == BoardCodec.OCULTA) {
+            btn.setText("???");
+            ImageView iv = vistas[fila][col];
+            iv.setImage(iv.getFitWidth() > 0 ? imagenCelda(valor, iv.getFitWidth()) : null);
+            btn.setGraphic(iv);
+            btn.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+            btn.getStyleClass().removeAll("card-face");
+            if (!btn.getStyleClass().contains("card-back")) {
+                btn.getStyleClass().add("card-back");
+            }
+            btn.setDisable(false);
+            return true;
+        }
+        btn.getStyleClass().remove("card-back");
+        if (!btn.getStyleClass().contains("card-face")) {
+            btn.getStyleClass().add("card-face");
+        }
+        Image img = imagenCara(valor, btn.getWidth() - 50);
+        if (img == null) {
+            System.err.println("La imagen no se cargó correctamente para: " + GameLogic.nombreCarta(valor));
+            return false;
+        }
+        ImageView iv = vistas[fila][col];
+        iv.setImage(img);
+        btn.setGraphic(iv);
+        btn.setContentDisplay(ContentDisplay.LEFT);
+        btn.setText(textoCelda(valor));
+        btn.setDisable(true);
+        return true;
+    }
+
+    private static String textoCelda(int valor) {
+        return valor == BoardCodec.OCULTA ? "???" : valor > CartasCache.CARAS_DISPONIBLES ? Integer.toString(valor) : "";
+    }
+
+    /**
+     * El dorso va como imagen de CartasCache, igual que las caras, para que se decodifique en segundo plano.
+     */
+    private static Image imagenCelda(int valor, double lado) {
+        return valor == BoardCodec.OCULTA ? CartasCache.getDorso(lado) : imagenCara(valor, lado);
+    }
+
+    private static Image imagenCara(int valor, double lado) {
+        return CartasCache.getCara((valor - 1) % CartasCache.CARAS_DISPONIBLES + 1, lado);
+    }
+}
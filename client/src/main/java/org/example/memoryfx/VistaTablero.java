@@ -0,0 +1,45 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+
+/**
+ * Lo que el {@link MemoryClient} necesita de una vista del tablero, sea la de botones
+ * ({@link TableroCartasFX}) o la virtualizada sobre canvas ({@link TableroCanvasFX}).
+ * Todos los métodos se llaman desde el hilo de JavaFX.
+ */
+public interface VistaTablero {
+
+    void setClient(MemoryClient client);
+
+    /**
+     * Cambio de una celda recibido por el protocolo binario: {@link BoardCodec#OCULTA} o id de carta.
+     */
+    void aplicarCambio(int celda, int valor);
+
+    /**
+     * Empieza a voltear una celda boca abajo sin esperar al servidor. La cara aparece cuando llegue su
+     * valor por {@link #aplicarCambio}; mientras tanto un valor {@link BoardCodec#OCULTA} para esa celda
+     * no la devuelve a su sitio, solo lo hace {@link #deshacerProvisional}.
+     */
+    void voltearProvisional(int celda);
+
+    /**
+     * El servidor ha rechazado la jugada de una celda volteada con {@link #voltearProvisional}: vuelve
+     * boca abajo. Si la celda ya no estaba pendiente no hace nada.
+     */
+    void deshacerProvisional(int celda);
+
+    /**
+     * Volteos que se están animando ahora mismo; lo muestra el panel de rendimiento.
+     */
+    int getAnimacionesActivas();
+
+    /**
+     * Varios cambios de celda acumulados desde la última actualización.
+     */
+    default void aplicarCambios(int[] celdas, int[] valores, int n) {
+        for (int i = 0; i < n; i++) {
+            aplicarCambio(celdas[i], valores[i]);
+        }
+    }
+}
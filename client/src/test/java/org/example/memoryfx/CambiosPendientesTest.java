@@ -0,0 +1,88 @@
+package org.example.memoryfx;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CambiosPendientesTest {
+
+    private final CambiosPendientes cambios = new CambiosPendientes();
+    private final int[] celdas = new int[16];
+    private final int[] valores = new int[16];
+
+    @Test
+    void deCadaCeldaQuedaSuUltimoValor() {
+        cambios.anotar(3, 5);
+        cambios.anotar(7, 2);
+        cambios.anotar(3, 6);
+
+        assertEquals(2, cambios.size());
+        int n = cambios.volcar(celdas, valores);
+        assertEquals(2, n);
+        assertArrayEquals(new int[]{3, 7}, primeros(celdas, n));
+        assertArrayEquals(new int[]{6, 2}, primeros(valores, n));
+    }
+
+    @Test
+    void unaCaraTapadaEnLaMismaTandaSeConservaDelante() {
+        // Jugada fallida: la cara de la carta y su vuelta boca abajo llegan antes de que se pinte nada
+        cambios.anotar(4, BoardCodec.OCULTA);
+        cambios.anotar(4, 9);
+        cambios.anotar(4, BoardCodec.OCULTA);
+
+        int n = cambios.volcar(celdas, valores);
+        assertEquals(2, n);
+        assertArrayEquals(new int[]{4, 4}, primeros(celdas, n));
+        assertArrayEquals(new int[]{9, BoardCodec.OCULTA}, primeros(valores, n));
+    }
+
+    @Test
+    void unaCaraQueSigueALaVistaNoSeRepite() {
+        cambios.anotar(4, 9);
+        cambios.anotar(4, 9);
+        cambios.anotar(5, 9);
+
+        int n = cambios.volcar(celdas, valores);
+        assertArrayEquals(new int[]{4, 5}, primeros(celdas, n));
+        assertArrayEquals(new int[]{9, 9}, primeros(valores, n));
+    }
+
+    @Test
+    void volcarVaciaLaTanda() {
+        cambios.anotar(1, 3);
+        cambios.anotar(1, BoardCodec.OCULTA);
+        cambios.volcar(celdas, valores);
+
+        assertEquals(0, cambios.size());
+        cambios.anotar(1, BoardCodec.OCULTA);
+        int n = cambios.volcar(celdas, valores);
+        assertEquals(1, n);
+        assertEquals(BoardCodec.OCULTA, valores[0]);
+    }
+
+    @Test
+    void crecePorEncimaDeSuTamanoInicial() {
+        int[] grandesCeldas = new int[200];
+        int[] grandesValores = new int[200];
+        for (int celda = 0; celda < 100; celda++) {
+            cambios.anotar(celda, 1);
+            cambios.anotar(celda, BoardCodec.OCULTA);
+        }
+
+        assertEquals(200, cambios.size());
+        int n = cambios.volcar(grandesCeldas, grandesValores);
+        assertEquals(200, n);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, grandesValores[i]);
+            assertEquals(BoardCodec.OCULTA, grandesValores[100 + i]);
+        }
+    }
+
+    private static int[] primeros(int[] datos, int n) {
+        int[] copia = new int[n];
+        System.arraycopy(datos, 0, copia, 0, n);
+        return copia;
+    }
+}
@@ -0,0 +1,3 @@
+module org.example.memoryfx.core {
+    exports org.example.memoryfx.core;
+}
@@ -0,0 +1,328 @@
+package org.example.memoryfx.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Protocolo binario compacto para el estado del tablero (versión 1).
+ *
+ * La conexión empieza siempre en modo texto (una línea por mensaje). El cliente que sabe hablar
+ * binario envía {@link #SOLICITUD}; si el servidor la entiende contesta con la línea {@link #ACEPTADO}
+ * y a partir de ahí todo lo que envía son tramas: un byte de tipo seguido de la carga.
+ * Un servidor antiguo ignora la solicitud y la partida sigue en texto sin más.
+ *
+ * <ul>
+ *   <li>{@code TEXTO}: cadena en UTF-8 modificado ({@link DataOutput#writeUTF}).</li>
+ *   <li>{@code SNAPSHOT}: filas, columnas y el valor de cada celda.</li>
+ *   <li>{@code DELTA}: número de cambios y pares (celda, valor).</li>
+ * </ul>
+ * Todos los enteros van como varint sin signo. El valor de una celda es 0 si está boca abajo
+ * o el id de la carta (1..parejas) si está descubierta.
+ */
+public final class BoardCodec {
+
+    public static final int VERSION = 1;
+    public static final String SOLICITUD = "PROTO BIN " + VERSION;
+    public static final String ACEPTADO = SOLICITUD + " OK";
+
+    /**
+     * Primera línea de un cliente que vuelve a su partida tras una caída del servidor: {@code REJOIN <token>}.
+     * Si el servidor ya no tiene esa partida lo dice y cierra la conexión.
+     */
+    public static final String REINCORPORAR = "REJOIN ";
+    /** Primera línea de un espectador: {@code WATCH <sala>}. Los espectadores reciben siempre tramas binarias. */
+    public static final String MIRAR = "WATCH ";
+    /**
+     * Primera línea de un jugador: {@code PLAY} o {@code PLAY <filas>x<columnas>} para jugar con ese tablero.
+     * Sin tamaño se usa el del servidor. Detrás puede ir {@link #CONTRA_ORDENADOR}.
+     */
+    public static final String JUGAR = "PLAY";
+    /**
+     * Lado máximo del tablero que se puede pedir con {@link #JUGAR}; si se pide uno mayor el servidor juega
+     * con su tamaño por defecto.
+     */
+    public static final int LADO_MAXIMO = 200;
+    /**
+     * {@code PLAY [<filas>x<columnas>] AI [<memoria>]}: partida contra el ordenador, que recuerda cada carta
+     * vista con una probabilidad de {@code memoria} por ciento (100 si no se indica).
+     */
+    public static final String CONTRA_ORDENADOR = "AI";
+    /**
+     * {@code ROOM <sala>}: la manda la pasarela de un clúster justo antes de {@link #JUGAR} para que la pareja
+     * que ha emparejado juegue en la sala con ese id. Los clientes no la envían.
+     */
+    public static final String SALA = "ROOM ";
+
+    public static final int TIPO_TEXTO = 1;
+    public static final int TIPO_SNAPSHOT = 2;
+    public static final int TIPO_DELTA = 3;
+
+    public static final int OCULTA = 0;
+
+    private BoardCodec() {
+    }
+
+    public static byte[] codificarTexto(String texto) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(texto.length() + 3);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(TIPO_TEXTO);
+            out.writeUTF(texto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param valores valor de cada celda en orden fila a fila ({@link #OCULTA} o id de carta)
+     */
+    public static byte[] codificarSnapshot(int filas, int columnas, int[] valores) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + valores.length * 2);
+        bytes.write(TIPO_SNAPSHOT);
+        escribirVarInt(bytes, filas);
+        escribirVarInt(bytes, columnas);
+        for (int i = 0; i < filas * columnas; i++) {
+            escribirVarInt(bytes, valores[i]);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Snapshot del estado actual de una partida.
+     */
+    public static byte[] codificarSnapshot(GameLogic gameLogic) {
+        int filas = gameLogic.getFilas();
+        int columnas = gameLogic.getColumnas();
+        int[] valores = new int[filas * columnas];
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                valores[i * columnas + j] = valorCelda(gameLogic, i, j);
+            }
+        }
+        return codificarSnapshot(filas, columnas, valores);
+    }
+
+    /**
+     * Valor que viaja por el protocolo para una celda: {@link #OCULTA} o el id de la carta.
+     */
+    public static int valorCelda(GameLogic gameLogic, int fila, int col) {
+        return gameLogic.isRevelada(fila, col) ? gameLogic.getIdCarta(fila, col) : OCULTA;
+    }
+
+    public static byte[] codificarDelta(int[] celdas, int[] valores, int n) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 + n * 6);
+        bytes.write(TIPO_DELTA);
+        escribirVarInt(bytes, n);
+        for (int i = 0; i < n; i++) {
+            escribirVarInt(bytes, celdas[i]);
+            escribirVarInt(bytes, valores[i]);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Tablero en el formato de texto clásico: "cardN.png" o "???" por celda seguidos de un espacio,
+     * y '#' al final de cada fila. Es el único punto del servidor donde los ids se convierten en nombres de fichero.
+     */
+    public static String codificarTableroTexto(GameLogic gameLogic) {
+        int filas = gameLogic.getFilas();
+        int columnas = gameLogic.getColumnas();
+        StringBuilder sb = new StringBuilder(filas * columnas * 11);
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                if (gameLogic.isRevelada(i, j)) {
+                    sb.append("card").append(gameLogic.getIdCarta(i, j)).append(".png");
+                } else {
+                    sb.append("???");
+                }
+                sb.append(' ');
+            }
+            sb.append('#');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Separa un tablero en texto (filas separadas por '\n') en los tokens de cada celda.
+     */
+    public static String[][] separarTableroTexto(String msg) {
+        String[] rows = msg.split("\n");
+        String[][] celdas = new String[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            celdas[i] = rows[i].trim().split("\\s+");
+        }
+        return celdas;
+    }
+
+    /**
+     * Lee un tablero en texto directamente a valores de celda ({@link #OCULTA} o id de carta),
+     * recorriendo la cadena sin crear subcadenas. Acepta '\n' o '#' como separador de filas.
+     * Devuelve el número de celdas leídas.
+     */
+    public static int leerTableroTexto(String msg, int[] valores) {
+        int celda = 0;
+        int i = 0;
+        int n = msg.length();
+        while (i < n && celda < valores.length) {
+            while (i < n && esSeparador(msg.charAt(i))) i++;
+            if (i >= n) break;
+            int valor = OCULTA;
+            if (msg.startsWith("card", i)) {
+                i += 4;
+                while (i < n && Character.isDigit(msg.charAt(i))) {
+                    valor = valor * 10 + (msg.charAt(i++) - '0');
+                }
+            }
+            while (i < n && !esSeparador(msg.charAt(i))) i++;
+            valores[celda++] = valor;
+        }
+        return celda;
+    }
+
+    private static boolean esSeparador(char c) {
+        return c == '#' || Character.isWhitespace(c);
+    }
+
+    static void escribirVarInt(OutputStream out, int valor) {
+        try {
+            while ((valor & ~0x7F) != 0) {
+                out.write((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            out.write(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static int leerVarInt(InputStream in) throws IOException {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint demasiado largo");
+    }
+
+    /**
+     * Lee una línea de texto terminada en '\n' directamente del flujo, sin un lector con búfer propio,
+     * para que tras {@link #ACEPTADO} no se pierdan bytes de la primera trama binaria.
+     * Devuelve null al final del flujo.
+     */
+    public static String leerLinea(InputStream in) throws IOException {
+        ByteArrayOutputStream linea = new ByteArrayOutputStream(80);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return linea.size() == 0 ? null : linea.toString(StandardCharsets.UTF_8);
+            }
+            if (b != '\r') {
+                linea.write(b);
+            }
+        }
+        return linea.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodificador de tramas del lado del cliente. Mantiene la copia local del tablero
+     * y, tras cada trama, expone qué celdas han cambiado sin reservar memoria por trama.
+     */
+    public static class Decodificador {
+        private final DataInputStream in;
+        private int filas;
+        private int columnas;
+        private int[] tablero = new int[0];
+        private int[] cambiadas = new int[16];
+        private int numCambiadas;
+        private String texto;
+
+        public Decodificador(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        /**
+         * Lee la siguiente trama y devuelve su tipo, o -1 al final del flujo.
+         */
+        public int leer() throws IOException {
+            int tipo = in.read();
+            numCambiadas = 0;
+            switch (tipo) {
+                case -1 -> {
+                    return -1;
+                }
+                case TIPO_TEXTO -> texto = in.readUTF();
+                case TIPO_SNAPSHOT -> {
+                    filas = leerVarInt(in);
+                    columnas = leerVarInt(in);
+                    // Un varint de 5 bytes puede dar un lado negativo, y el producto desbordar: se mira antes de reservar
+                    if (!GameLogic.esTamanoValido(filas, columnas)) {
+                        throw new IOException("Snapshot con un tamaño de tablero no válido: " + filas + "x" + columnas);
+                    }
+                    int celdas = filas * columnas;
+                    if (tablero.length != celdas) {
+                        tablero = new int[celdas];
+                    }
+                    for (int i = 0; i < celdas; i++) {
+                        int valor = leerVarInt(in);
+                        if (tablero[i] != valor) {
+                            tablero[i] = valor;
+                            anotarCambio(i);
+                        }
+                    }
+                }
+                case TIPO_DELTA -> {
+                    int n = leerVarInt(in);
+                    for (int i = 0; i < n; i++) {
+                        int celda = leerVarInt(in);
+                        int valor = leerVarInt(in);
+                        if (celda < 0 || celda >= tablero.length) {
+                            throw new IOException("Delta fuera del tablero: " + celda);
+                        }
+                        tablero[celda] = valor;
+                        anotarCambio(celda);
+                    }
+                }
+                default -> throw new IOException("Tipo de trama desconocido: " + tipo);
+            }
+            return tipo;
+        }
+
+        private void anotarCambio(int celda) {
+            if (numCambiadas == cambiadas.length) {
+                int[] mayor = new int[cambiadas.length * 2];
+                System.arraycopy(cambiadas, 0, mayor, 0, numCambiadas);
+                cambiadas = mayor;
+            }
+            cambiadas[numCambiadas++] = celda;
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public int getColumnas() {
+            return columnas;
+        }
+
+        public int getNumCambiadas() {
+            return numCambiadas;
+        }
+
+        public int getCeldaCambiada(int i) {
+            return cambiadas[i];
+        }
+
+        /**
+         * Valor de la celda en la copia local; antes del primer snapshot todas cuentan como ocultas.
+         */
+        public int getValor(int celda) {
+            return celda < tablero.length ? tablero[celda] : OCULTA;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.memoryfx.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Estado de un tablero de memoria con representación compacta: los ids de carta van en un
+ * {@code short[]} plano (fila * columnas + columna) y las cartas descubiertas en un bitset de
+ * {@code long}. Un contador de cartas descubiertas permite saber en O(1) si la partida ha terminado.
+ * Ninguna jugada reserva memoria; el nombre del fichero de cada carta solo se calcula al pintar
+ * ({@link #nombreCarta(int)}).
+ */
+public class GameLogic {
+    private final int filas;
+    private final int columnas;
+    private long semilla;
+    private final short[] cartas;
+    private final long[] revelado;
+    private int cartasReveladas;
+    private final Random barajador = new Random();
+
+    public GameLogic(int filas, int columnas) {
+        this(filas, columnas, new Random().nextLong());
+    }
+
+    /**
+     * @param semilla semilla del barajado: la misma semilla reparte siempre el mismo tablero
+     */
+    public GameLogic(int filas, int columnas, long semilla) {
+        if (!esTamanoValido(filas, columnas)) {
+            throw new IllegalArgumentException("Tamaño de tablero no soportado: " + filas + "x" + columnas
+                    + " (debe tener un número par de casillas y como mucho " + Short.MAX_VALUE + " parejas)");
+        }
+        this.filas = filas;
+        this.columnas = columnas;
+        this.semilla = semilla;
+        this.cartas = new short[filas * columnas];
+        this.revelado = new long[(cartas.length + 63) >>> 6];
+        inicializarTablero();
+    }
+
+    /**
+     * true si se puede crear un tablero de ese tamaño: lados positivos, número par de casillas y no más
+     * parejas de las que caben en un {@code short}. No reserva nada, así que sirve para validar lo que
+     * pide un jugador antes de crear la partida.
+     */
+    public static boolean esTamanoValido(int filas, int columnas) {
+        if (filas <= 0 || columnas <= 0) {
+            return false;
+        }
+        long casillas = (long) filas * columnas;
+        return casillas % 2 == 0 && casillas / 2 <= Short.MAX_VALUE;
+    }
+
+    /**
+     * Vuelve a repartir el tablero con otra semilla, todo boca abajo, sin reservar memoria. Lo usa el
+     * simulador del servidor para jugar millones de partidas con el mismo objeto.
+     */
+    public void repartir(long semilla) {
+        this.semilla = semilla;
+        Arrays.fill(revelado, 0L);
+        cartasReveladas = 0;
+        inicializarTablero();
+    }
+
+    private void inicializarTablero() {
+        // Crear parejas de ids de carta (1..parejas)
+        for (int i = 0; i < cartas.length; i++) {
+            cartas[i] = (short) (i / 2 + 1);
+        }
+
+        // Fisher-Yates sobre el array primitivo; setSeed deja el generador igual que new Random(semilla)
+        Random random = barajador;
+        random.setSeed(semilla);
+        for (int i = cartas.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            short tmp = cartas[i];
+            cartas[i] = cartas[j];
+            cartas[j] = tmp;
+        }
+    }
+
+    /**
+     * Nombre del fichero de imagen que corresponde a un id de carta.
+     */
+    public static String nombreCarta(int id) {
+        return "card" + id + ".png";
+    }
+
+    public boolean voltearCarta(int fila, int columna) {
+        if (fila < 0 || fila >= filas || columna < 0 || columna >= columnas) {
+            return false;
+        }
+        int celda = fila * columnas + columna;
+        if (isRevelada(celda)) {
+            return false;
+        }
+        revelado[celda >>> 6] |= 1L << celda;
+        cartasReveladas++;
+        return true;
+    }
+
+    public boolean comprobarSiCoinciden(int fila1, int col1, int fila2, int col2) {
+        int celda1 = fila1 * columnas + col1;
+        int celda2 = fila2 * columnas + col2;
+        if (!isRevelada(celda1) || !isRevelada(celda2)) {
+            return false;
+        }
+        return cartas[celda1] == cartas[celda2];
+    }
+
+    public void esconderCartas(int fila1, int col1, int fila2, int col2) {
+        esconder(fila1 * columnas + col1);
+        esconder(fila2 * columnas + col2);
+    }
+
+    private void esconder(int celda) {
+        if (isRevelada(celda)) {
+            revelado[celda >>> 6] &= ~(1L << celda);
+            cartasReveladas--;
+        }
+    }
+
+    public boolean verificarJuegoTerminado() {
+        return cartasReveladas == cartas.length;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Copia del bitset de cartas descubiertas (bit {@code fila * columnas + columna}).
+     */
+    public long[] getReveladas() {
+        return revelado.clone();
+    }
+
+    /**
+     * Sustituye las cartas descubiertas por las de un bitset obtenido con {@link #getReveladas()}.
+     */
+    public void setReveladas(long[] bits) {
+        if (bits.length != revelado.length) {
+            throw new IllegalArgumentException("El bitset no corresponde a un tablero de " + filas + "x" + columnas);
+        }
+        System.arraycopy(bits, 0, revelado, 0, revelado.length);
+        cartasReveladas = 0;
+        for (long palabra : revelado) {
+            cartasReveladas += Long.bitCount(palabra);
+        }
+    }
+
+    public int getIdCarta(int fila, int columna) {
+        return cartas[fila * columnas + columna];
+    }
+
+    public boolean isRevelada(int fila, int columna) {
+        return isRevelada(fila * columnas + columna);
+    }
+
+    private boolean isRevelada(int celda) {
+        return (revelado[celda >>> 6] & (1L << celda)) != 0;
+    }
+}
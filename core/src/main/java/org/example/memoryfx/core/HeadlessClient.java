@@ -0,0 +1,285 @@
+package org.example.memoryfx.core;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cliente del servidor sin interfaz gráfica. Se encarga de la conexión, de negociar el protocolo
+ * binario (o seguir en texto si el servidor no lo soporta) y de mantener una copia del tablero;
+ * quien lo usa solo recibe mensajes de texto y la lista de celdas que han cambiado.
+ * Lo usan tanto el {@code MemoryClient} de la aplicación JavaFX como los bots de las pruebas de carga.
+ */
+public class HeadlessClient implements Closeable {
+
+    /**
+     * Recibe lo que llega del servidor. Se invoca desde el hilo que ejecuta {@link #escuchar()}.
+     */
+    public interface Listener {
+        void onMensaje(String msg);
+
+        /**
+         * El tablero ha cambiado. {@code celdas} contiene los índices (fila * columnas + columna) de las
+         * {@code n} celdas cambiadas; el estado completo se consulta con {@link #getValor(int)}.
+         * El array se reutiliza entre llamadas.
+         */
+        void onTablero(int[] celdas, int n);
+
+        default void onDesconexion() {
+        }
+    }
+
+    private static final String TOKEN = "TOKEN ";
+
+    private final String host;
+    private final int port;
+    private final boolean binario;
+    private final Listener listener;
+    private Socket socket;
+    private PrintWriter out;
+    private InputStream in;
+    private long bytesRecibidos;
+    private long mensajesRecibidos;
+    private boolean binarioActivo;
+    // Lo manda el servidor al entrar en una sala; con él se vuelve a la partida si el servidor se reinicia
+    private volatile String token;
+    private int salaMirada = -1;
+    private int filasPedidas;
+    private int columnasPedidas;
+    private int memoriaOrdenador = -1;
+
+    // Estado del tablero en modo texto (en binario lo mantiene el decodificador)
+    private BoardCodec.Decodificador decodificador;
+    private int columnas;
+    private int[] valores;
+    private int[] nuevos;
+    private int[] cambiadas;
+
+    /**
+     * @param binario si es true se propone el protocolo binario al conectar
+     */
+    public HeadlessClient(String host, int port, boolean binario, Listener listener) {
+        this.host = host;
+        this.port = port;
+        this.binario = binario;
+        this.listener = listener;
+    }
+
+    /**
+     * Conecta con el servidor. Si ya se tiene un token solo se pide volver a esa partida: si el servidor
+     * ya no la tiene lo dice y cierra, sin empezar otra. Se puede llamar otra vez tras una desconexión.
+     */
+    public void connect() throws IOException {
+        close();
+        decodificador = null;
+        valores = null;
+        binarioActivo = false;
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+        in = new ContadorEntrada(new BufferedInputStream(socket.getInputStream()));
+        if (salaMirada >= 0) {
+            out.println(BoardCodec.MIRAR + salaMirada);
+            return;
+        }
+        if (token != null) {
+            out.println(BoardCodec.REINCORPORAR + token);
+        } else {
+            out.println(jugar());
+        }
+        if (binario) {
+            out.println(BoardCodec.SOLICITUD);
+        }
+    }
+
+    private String jugar() {
+        String jugar = filasPedidas > 0 ? BoardCodec.JUGAR + " " + filasPedidas + "x" + columnasPedidas : BoardCodec.JUGAR;
+        if (memoriaOrdenador >= 0) {
+            jugar += " " + BoardCodec.CONTRA_ORDENADOR + " " + memoriaOrdenador;
+        }
+        return jugar;
+    }
+
+    public void sendMove(int fila, int col) {
+        if (out != null) {
+            out.println("MOVE " + fila + " " + col);
+        }
+    }
+
+    /**
+     * Lee del servidor hasta que se cierra la conexión, avisando al {@link Listener}. Bloquea el hilo llamante.
+     */
+    public void escuchar() throws IOException {
+        try {
+            String line;
+            while ((line = BoardCodec.leerLinea(in)) != null) {
+                mensajesRecibidos++;
+                if (line.equals(BoardCodec.ACEPTADO)) {
+                    binarioActivo = true;
+                    leerTramas();
+                    return;
+                }
+                if (line.contains("#")) {
+                    leerTableroTexto(line);
+                } else {
+                    recibirMensaje(line);
+                }
+            }
+        } finally {
+            listener.onDesconexion();
+        }
+    }
+
+    private void leerTramas() throws IOException {
+        decodificador = new BoardCodec.Decodificador(in);
+        int tipo;
+        while ((tipo = decodificador.leer()) != -1) {
+            mensajesRecibidos++;
+            if (tipo == BoardCodec.TIPO_TEXTO) {
+                recibirMensaje(decodificador.getTexto());
+            } else {
+                int n = decodificador.getNumCambiadas();
+                if (cambiadas == null || cambiadas.length < n) {
+                    cambiadas = new int[Math.max(n, 16)];
+                }
+                for (int i = 0; i < n; i++) {
+                    cambiadas[i] = decodificador.getCeldaCambiada(i);
+                }
+                listener.onTablero(cambiadas, n);
+            }
+        }
+    }
+
+    private void recibirMensaje(String msg) {
+        if (msg.startsWith(TOKEN)) {
+            token = msg.substring(TOKEN.length());
+            return;
+        }
+        listener.onMensaje(msg);
+    }
+
+    /**
+     * En texto llega siempre el tablero entero: se compara con el anterior para avisar solo de lo que cambia.
+     */
+    private void leerTableroTexto(String line) {
+        if (valores == null) {
+            int filas = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '#') filas++;
+            }
+            int[] primeraFila = new int[line.length()];
+            columnas = BoardCodec.leerTableroTexto(line.substring(0, line.indexOf('#')), primeraFila);
+            valores = new int[filas * columnas];
+            nuevos = new int[filas * columnas];
+            cambiadas = new int[filas * columnas];
+        }
+        BoardCodec.leerTableroTexto(line, nuevos);
+        int n = 0;
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] != nuevos[i]) {
+                valores[i] = nuevos[i];
+                cambiadas[n++] = i;
+            }
+        }
+        // Un tablero sin cambios también se notifica: el servidor lo manda al empezar la partida
+        listener.onTablero(cambiadas, n);
+    }
+
+    /**
+     * Valor actual de una celda: {@link BoardCodec#OCULTA} o el id de la carta.
+     * Mientras no haya llegado ningún tablero todas las celdas cuentan como ocultas.
+     */
+    public int getValor(int celda) {
+        if (decodificador != null) {
+            return decodificador.getValor(celda);
+        }
+        return valores != null ? valores[celda] : BoardCodec.OCULTA;
+    }
+
+    public int getColumnas() {
+        return decodificador != null ? decodificador.getColumnas() : columnas;
+    }
+
+    /**
+     * Token de la partida actual, o null si aún no se ha entrado en ninguna sala.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Pide jugar con un tablero de ese tamaño: el servidor empareja a quienes piden el mismo.
+     * Sin llamarlo se juega con el tamaño por defecto del servidor.
+     */
+    public void setTablero(int filas, int columnas) {
+        this.filasPedidas = filas;
+        this.columnasPedidas = columnas;
+    }
+
+    /**
+     * Al conectar, pide jugar contra el ordenador en lugar de esperar a otro jugador.
+     *
+     * @param memoria tanto por ciento de cartas vistas que recuerda el ordenador (100 = no olvida ninguna)
+     */
+    public void setContraOrdenador(int memoria) {
+        this.memoriaOrdenador = memoria;
+    }
+
+    /**
+     * Al conectar, entra como espectador de esa sala en lugar de como jugador. Los espectadores van
+     * siempre en binario y sus jugadas no cuentan.
+     */
+    public void setSalaMirada(int sala) {
+        this.salaMirada = sala;
+    }
+
+    public boolean isBinario() {
+        return binarioActivo;
+    }
+
+    public long getBytesRecibidos() {
+        return bytesRecibidos;
+    }
+
+    public long getMensajesRecibidos() {
+        return mensajesRecibidos;
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try { socket.close(); } catch (IOException e) { e.printStackTrace(); }
+        }
+    }
+
+    /**
+     * Cuenta los bytes que llegan del servidor sin añadir otra capa de búfer.
+     */
+    private class ContadorEntrada extends FilterInputStream {
+        ContadorEntrada(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytesRecibidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                bytesRecibidos += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.memoryfx.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos, seguro para varios hilos y sin reservar memoria al registrar.
+ * Los cubos son log-lineales: cada potencia de dos se divide en {@value #SUBCUBOS} partes,
+ * así que los percentiles tienen un error relativo por debajo del 7 %.
+ */
+public class Histograma {
+
+    private static final int BITS_SUBCUBO = 4;
+    private static final int SUBCUBOS = 1 << BITS_SUBCUBO;
+
+    private final AtomicLongArray cubos = new AtomicLongArray(64 * SUBCUBOS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+
+    /**
+     * Histograma vacío, con los cubos de todo el rango de un {@code long} ya reservados: registrar no
+     * reserva nada.
+     */
+    public Histograma() {
+    }
+
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        cubos.incrementAndGet(indice(nanos));
+        total.increment();
+        suma.add(nanos);
+    }
+
+    private static int indice(long valor) {
+        if (valor < SUBCUBOS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - BITS_SUBCUBO)) & (SUBCUBOS - 1);
+        return (exponente - BITS_SUBCUBO + 1) * SUBCUBOS + sub;
+    }
+
+    /**
+     * Mayor valor que cae en el cubo indicado.
+     */
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBCUBOS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBOS + BITS_SUBCUBO - 1;
+        long sub = indice % SUBCUBOS;
+        long base = (SUBCUBOS + sub) << (exponente - BITS_SUBCUBO);
+        return base + (1L << (exponente - BITS_SUBCUBO)) - 1;
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public double getMedia() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Valor por debajo del cual queda la fracción {@code p} de las muestras (p entre 0 y 1).
+     */
+    public long percentil(double p) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(p * n));
+        long acumulado = 0;
+        for (int i = 0; i < cubos.length(); i++) {
+            acumulado += cubos.get(i);
+            if (acumulado >= objetivo) {
+                return limiteSuperior(i);
+            }
+        }
+        return limiteSuperior(cubos.length() - 1);
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < cubos.length(); i++) {
+            cubos.set(i, 0);
+        }
+        total.reset();
+        suma.reset();
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.memoryfx.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lee las líneas que manda un cliente directamente sobre un buffer de bytes propio, sin pasar por
+ * {@code BufferedReader}: {@link #siguiente()} reconoce {@code MOVE <fila> <columna>} y
+ * {@link BoardCodec#SOLICITUD} sin crear ningún objeto. Una línea mal formada o más larga que el
+ * buffer se devuelve como {@link #MALFORMADO}, nunca como excepción.
+ *
+ * {@link #leerLinea()} devuelve la línea como texto para las de presentación ({@code PLAY}, {@code REJOIN}...),
+ * que solo llegan al principio. Las dos formas comparten el buffer, así que se pueden alternar.
+ */
+public final class LectorComandos {
+
+    public static final int FIN = -1;
+    /** Una línea que no es un comando de la partida; se ignora. */
+    public static final int OTRO = 0;
+    /** {@code MOVE <fila> <columna>}: los valores quedan en {@link #getFila()} y {@link #getColumna()}. */
+    public static final int MOVIMIENTO = 1;
+    /** {@link BoardCodec#SOLICITUD}. */
+    public static final int BINARIO = 2;
+    /** Empieza por {@code MOVE} pero no se puede interpretar, o no cabe en el buffer. */
+    public static final int MALFORMADO = 3;
+
+    private static final byte[] MOVE = "MOVE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SOLICITUD = BoardCodec.SOLICITUD.getBytes(StandardCharsets.US_ASCII);
+    // Con 9 cifras no se desborda un int; cualquier tablero válido necesita muchas menos
+    private static final int MAX_CIFRAS = 9;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int inicio;
+    private int fin;
+    // Tras una línea que no cabía se descarta hasta el siguiente salto
+    private boolean descartando;
+    private int fila;
+    private int columna;
+
+    public LectorComandos(InputStream in, int capacidad) {
+        this.in = in;
+        this.buffer = new byte[capacidad];
+    }
+
+    public int getFila() {
+        return fila;
+    }
+
+    public int getColumna() {
+        return columna;
+    }
+
+    /**
+     * Lee la siguiente línea y dice qué es. Devuelve {@link #FIN} cuando se cierra la conexión.
+     */
+    public int siguiente() throws IOException {
+        while (true) {
+            int salto = buscarSalto();
+            if (salto >= 0) {
+                int desde = inicio;
+                inicio = salto + 1;
+                if (descartando) {
+                    descartando = false;
+                    return MALFORMADO;
+                }
+                return clasificar(buffer, desde, salto);
+            }
+            if (!llenar()) {
+                // Lo que quede sin salto de línea al cerrar también es una línea, como en readLine
+                if (inicio == fin) {
+                    return FIN;
+                }
+                int desde = inicio;
+                inicio = fin;
+                return descartando ? MALFORMADO : clasificar(buffer, desde, fin);
+            }
+        }
+    }
+
+    /**
+     * La siguiente línea como texto, sin el salto, o null si se ha cerrado la conexión. Si la espera
+     * se corta por el timeout del socket, lo leído hasta entonces se conserva para la siguiente llamada.
+     */
+    public String leerLinea() throws IOException {
+        while (true) {
+            int salto = buscarSalto();
+            if (salto >= 0) {
+                // Si no cabía, se devuelve solo su final
+                String linea = texto(inicio, salto);
+                inicio = salto + 1;
+                descartando = false;
+                return linea;
+            }
+            if (!llenar()) {
+                if (inicio == fin) {
+                    return null;
+                }
+                String linea = texto(inicio, fin);
+                inicio = fin;
+                return linea;
+            }
+        }
+    }
+
+    /**
+     * Interpreta una línea sin su salto (puede acabar en {@code \r}).
+     */
+    public int clasificar(byte[] datos, int desde, int hasta) {
+        if (hasta > desde && datos[hasta - 1] == '\r') {
+            hasta--;
+        }
+        if (empiezaPor(datos, desde, hasta, SOLICITUD) && hasta - desde == SOLICITUD.length) {
+            return BINARIO;
+        }
+        if (!empiezaPor(datos, desde, hasta, MOVE)) {
+            return OTRO;
+        }
+        int pos = desde + MOVE.length;
+        if (pos >= hasta || datos[pos] != ' ') {
+            return MALFORMADO;
+        }
+        long valor = leerEntero(datos, pos + 1, hasta);
+        if (valor == Long.MIN_VALUE) {
+            return MALFORMADO;
+        }
+        pos = (int) (valor >>> 32);
+        int leidaFila = (int) valor;
+        if (pos >= hasta || datos[pos] != ' ') {
+            return MALFORMADO;
+        }
+        valor = leerEntero(datos, pos + 1, hasta);
+        if (valor == Long.MIN_VALUE) {
+            return MALFORMADO;
+        }
+        pos = (int) (valor >>> 32);
+        // Detrás de la columna puede venir algo más separado por un espacio; se ignora como antes
+        if (pos < hasta && datos[pos] != ' ') {
+            return MALFORMADO;
+        }
+        fila = leidaFila;
+        columna = (int) valor;
+        return MOVIMIENTO;
+    }
+
+    /**
+     * Entero con signo opcional a partir de {@code pos}. Devuelve la posición siguiente en los 32 bits altos y
+     * el valor en los bajos, o {@link Long#MIN_VALUE} si no hay un número válido. Así no hace falta ningún objeto.
+     */
+    private static long leerEntero(byte[] datos, int pos, int hasta) {
+        boolean negativo = pos < hasta && datos[pos] == '-';
+        if (negativo) {
+            pos++;
+        }
+        int cifras = 0;
+        int valor = 0;
+        while (pos < hasta && datos[pos] >= '0' && datos[pos] <= '9') {
+            if (++cifras > MAX_CIFRAS) {
+                return Long.MIN_VALUE;
+            }
+            valor = valor * 10 + (datos[pos] - '0');
+            pos++;
+        }
+        if (cifras == 0) {
+            return Long.MIN_VALUE;
+        }
+        return (long) pos << 32 | ((negativo ? -valor : valor) & 0xFFFFFFFFL);
+    }
+
+    private static boolean empiezaPor(byte[] datos, int desde, int hasta, byte[] prefijo) {
+        if (hasta - desde < prefijo.length) {
+            return false;
+        }
+        for (int i = 0; i < prefijo.length; i++) {
+            if (datos[desde + i] != prefijo[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int buscarSalto() {
+        for (int i = inicio; i < fin; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lee más bytes del stream. Si el buffer está lleno sin ningún salto, la línea no cabe: se
+     * descarta lo acumulado y se sigue hasta el salto. Devuelve false al final del stream.
+     */
+    private boolean llenar() throws IOException {
+        if (inicio > 0) {
+            System.arraycopy(buffer, inicio, buffer, 0, fin - inicio);
+            fin -= inicio;
+            inicio = 0;
+        }
+        if (fin == buffer.length) {
+            descartando = true;
+            fin = 0;
+        }
+        int n = in.read(buffer, fin, buffer.length - fin);
+        if (n < 0) {
+            return false;
+        }
+        fin += n;
+        return true;
+    }
+
+    private String texto(int desde, int hasta) {
+        if (hasta > desde && buffer[hasta - 1] == '\r') {
+            hasta--;
+        }
+        return new String(buffer, desde, hasta - desde, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.memoryfx.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoardCodecTest {
+
+    @Test
+    void snapshotIdaYVuelta() throws IOException {
+        // Ids de más de un byte en varint para probar también la continuación
+        int[] valores = {0, 1, 127, 128, 300, 0, 70_000, 5, 0, 2, 2, 16_383};
+        BoardCodec.Decodificador decodificador = decodificador(BoardCodec.codificarSnapshot(3, 4, valores));
+
+        assertEquals(BoardCodec.TIPO_SNAPSHOT, decodificador.leer());
+        assertEquals(4, decodificador.getColumnas());
+        for (int i = 0; i < valores.length; i++) {
+            assertEquals(valores[i], decodificador.getValor(i));
+        }
+        // Solo cuentan como cambiadas las que no estaban ya ocultas
+        assertEquals(9, decodificador.getNumCambiadas());
+        assertEquals(-1, decodificador.leer());
+    }
+
+    @Test
+    void deltaSobreUnSnapshot() throws IOException {
+        ByteArrayOutputStream tramas = new ByteArrayOutputStream();
+        tramas.writeBytes(BoardCodec.codificarSnapshot(2, 2, new int[4]));
+        tramas.writeBytes(BoardCodec.codificarDelta(new int[]{3, 0}, new int[]{7, 9}, 2));
+        tramas.writeBytes(BoardCodec.codificarDelta(new int[]{3}, new int[]{BoardCodec.OCULTA}, 1));
+        BoardCodec.Decodificador decodificador = decodificador(tramas.toByteArray());
+
+        assertEquals(BoardCodec.TIPO_SNAPSHOT, decodificador.leer());
+        assertEquals(0, decodificador.getNumCambiadas());
+        assertEquals(BoardCodec.TIPO_DELTA, decodificador.leer());
+        assertEquals(2, decodificador.getNumCambiadas());
+        assertEquals(3, decodificador.getCeldaCambiada(0));
+        assertEquals(0, decodificador.getCeldaCambiada(1));
+        assertEquals(9, decodificador.getValor(0));
+        assertEquals(7, decodificador.getValor(3));
+        assertEquals(BoardCodec.TIPO_DELTA, decodificador.leer());
+        assertEquals(BoardCodec.OCULTA, decodificador.getValor(3));
+    }
+
+    @Test
+    void deltaFueraDelTableroEsUnError() throws IOException {
+        ByteArrayOutputStream tramas = new ByteArrayOutputStream();
+        tramas.writeBytes(BoardCodec.codificarSnapshot(2, 2, new int[4]));
+        tramas.writeBytes(BoardCodec.codificarDelta(new int[]{4}, new int[]{1}, 1));
+        BoardCodec.Decodificador decodificador = decodificador(tramas.toByteArray());
+
+        decodificador.leer();
+        assertThrows(IOException.class, decodificador::leer);
+    }
+
+    @Test
+    void deltaConCeldaNegativaEsUnError() throws IOException {
+        ByteArrayOutputStream tramas = new ByteArrayOutputStream();
+        tramas.writeBytes(BoardCodec.codificarSnapshot(2, 2, new int[4]));
+        // Varint de 5 bytes: -1 como celda
+        tramas.writeBytes(BoardCodec.codificarDelta(new int[]{-1}, new int[]{1}, 1));
+        BoardCodec.Decodificador decodificador = decodificador(tramas.toByteArray());
+
+        decodificador.leer();
+        assertThrows(IOException.class, decodificador::leer);
+    }
+
+    @Test
+    void snapshotConTamanoImposibleEsUnError() {
+        assertThrows(IOException.class, () -> decodificador(BoardCodec.codificarSnapshot(-2, 4, new int[0])).leer());
+        // 65536 x 65536 desborda un int y daría 0 casillas
+        assertThrows(IOException.class, () -> decodificador(BoardCodec.codificarSnapshot(65_536, 65_536, new int[0])).leer());
+    }
+
+    @Test
+    void tipoDeTramaDesconocido() {
+        assertThrows(IOException.class, () -> decodificador(new byte[]{42}).leer());
+    }
+
+    @Test
+    void textoIdaYVuelta() throws IOException {
+        String texto = "¡Jugador 2 encontró una pareja! ñ€";
+        BoardCodec.Decodificador decodificador = decodificador(BoardCodec.codificarTexto(texto));
+
+        assertEquals(BoardCodec.TIPO_TEXTO, decodificador.leer());
+        assertEquals(texto, decodificador.getTexto());
+    }
+
+    @Test
+    void tableroDeTextoIdaYVuelta() {
+        GameLogic partida = new GameLogic(4, 6, 1234);
+        partida.voltearCarta(0, 0);
+        partida.voltearCarta(2, 5);
+        partida.voltearCarta(3, 1);
+
+        int[] leidos = new int[24];
+        assertEquals(24, BoardCodec.leerTableroTexto(BoardCodec.codificarTableroTexto(partida), leidos));
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 6; j++) {
+                assertEquals(BoardCodec.valorCelda(partida, i, j), leidos[i * 6 + j]);
+            }
+        }
+    }
+
+    @Test
+    void snapshotDeUnaPartidaComoElTableroDeTexto() throws IOException {
+        GameLogic partida = new GameLogic(2, 4, 99);
+        partida.voltearCarta(1, 2);
+        BoardCodec.Decodificador decodificador = decodificador(BoardCodec.codificarSnapshot(partida));
+
+        decodificador.leer();
+        int[] texto = new int[8];
+        BoardCodec.leerTableroTexto(BoardCodec.codificarTableroTexto(partida), texto);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(texto[i], decodificador.getValor(i));
+        }
+    }
+
+    @Test
+    void leerLineaNoConsumeLoQueVieneDetras() throws IOException {
+        byte[] trama = BoardCodec.codificarTexto("hola");
+        ByteArrayOutputStream datos = new ByteArrayOutputStream();
+        datos.writeBytes((BoardCodec.ACEPTADO + "\r\n").getBytes(StandardCharsets.UTF_8));
+        datos.writeBytes(trama);
+        InputStream in = new ByteArrayInputStream(datos.toByteArray());
+
+        assertEquals(BoardCodec.ACEPTADO, BoardCodec.leerLinea(in));
+        BoardCodec.Decodificador decodificador = new BoardCodec.Decodificador(in);
+        assertEquals(BoardCodec.TIPO_TEXTO, decodificador.leer());
+        assertEquals("hola", decodificador.getTexto());
+    }
+
+    @Test
+    void leerLineaAlFinalDelFlujo() throws IOException {
+        InputStream in = new ByteArrayInputStream("sin salto".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("sin salto", BoardCodec.leerLinea(in));
+        assertNull(BoardCodec.leerLinea(in));
+    }
+
+    private static BoardCodec.Decodificador decodificador(byte[] datos) {
+        return new BoardCodec.Decodificador(new ByteArrayInputStream(datos));
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.memoryfx.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameLogicTest {
+
+    @Test
+    void tamanosValidos() {
+        assertTrue(GameLogic.esTamanoValido(3, 4));
+        assertTrue(GameLogic.esTamanoValido(200, 200));
+        // 32767 parejas: el mayor tablero cuyas cartas caben en un short
+        assertTrue(GameLogic.esTamanoValido(2, Short.MAX_VALUE));
+    }
+
+    @Test
+    void tamanosNoValidos() {
+        assertFalse(GameLogic.esTamanoValido(3, 3));
+        assertFalse(GameLogic.esTamanoValido(0, 4));
+        assertFalse(GameLogic.esTamanoValido(-2, -2));
+        assertFalse(GameLogic.esTamanoValido(2, Short.MAX_VALUE + 1));
+        // filas * columnas desborda un int y da par y pequeño
+        assertFalse(GameLogic.esTamanoValido(65_536, 65_536));
+    }
+
+    @Test
+    void elConstructorRechazaLoMismo() {
+        assertThrows(IllegalArgumentException.class, () -> new GameLogic(3, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GameLogic(65_536, 65_536, 0));
+    }
+}
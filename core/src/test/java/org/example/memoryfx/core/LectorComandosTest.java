@@ -0,0 +1,102 @@
+package org.example.memoryfx.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LectorComandosTest {
+
+    @Test
+    void jugadas() throws IOException {
+        LectorComandos lector = lector("MOVE 3 4\nMOVE 0 12\r\nMOVE 1 2 resto\n", 64);
+
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals(3, lector.getFila());
+        assertEquals(4, lector.getColumna());
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals(0, lector.getFila());
+        assertEquals(12, lector.getColumna());
+        // Lo que va detrás de la columna separado por un espacio se ignora
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals(2, lector.getColumna());
+        assertEquals(LectorComandos.FIN, lector.siguiente());
+    }
+
+    @Test
+    void solicitudDelProtocoloBinario() throws IOException {
+        LectorComandos lector = lector(BoardCodec.SOLICITUD + "\n" + BoardCodec.SOLICITUD + " 2\nHOLA\n", 64);
+
+        assertEquals(LectorComandos.BINARIO, lector.siguiente());
+        assertEquals(LectorComandos.OTRO, lector.siguiente());
+        assertEquals(LectorComandos.OTRO, lector.siguiente());
+    }
+
+    @Test
+    void lineasMalFormadas() throws IOException {
+        String[] malas = {"MOVE", "MOVE ", "MOVEX 1 2", "MOVE x 2", "MOVE 1", "MOVE 1 ", "MOVE 1 2x", "MOVE 1  2",
+                "MOVE - 2", "MOVE 9999999999 0", "MOVE 0 12345678901234567890"};
+        LectorComandos lector = lector(String.join("\n", malas) + "\n", 64);
+
+        for (String mala : malas) {
+            assertEquals(LectorComandos.MALFORMADO, lector.siguiente(), mala);
+        }
+        assertEquals(LectorComandos.FIN, lector.siguiente());
+    }
+
+    @Test
+    void numerosNegativosSeLeenYLosValidaLaSala() throws IOException {
+        LectorComandos lector = lector("MOVE -1 5\n", 64);
+
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals(-1, lector.getFila());
+    }
+
+    @Test
+    void unaLineaQueNoCabeSeDescartaEntera() throws IOException {
+        String larga = "MOVE 1 2 " + "x".repeat(100);
+        LectorComandos lector = lector(larga + "\nMOVE 5 6\n", 16);
+
+        assertEquals(LectorComandos.MALFORMADO, lector.siguiente());
+        // La siguiente línea se lee entera, sin restos de la anterior
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals(5, lector.getFila());
+        assertEquals(6, lector.getColumna());
+        assertEquals(LectorComandos.FIN, lector.siguiente());
+    }
+
+    @Test
+    void unaLineaQueNoCabeAlCerrarTambienEsMalFormada() throws IOException {
+        LectorComandos lector = lector("MOVE 1 2 " + "x".repeat(100), 16);
+
+        assertEquals(LectorComandos.MALFORMADO, lector.siguiente());
+        assertEquals(LectorComandos.FIN, lector.siguiente());
+    }
+
+    @Test
+    void ultimaLineaSinSalto() throws IOException {
+        LectorComandos lector = lector("MOVE 7 8", 64);
+
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals(7, lector.getFila());
+        assertEquals(LectorComandos.FIN, lector.siguiente());
+    }
+
+    @Test
+    void lineasDeTextoYComandosSeAlternan() throws IOException {
+        LectorComandos lector = lector("PLAY 4x4\r\nMOVE 1 1\nREJOIN abc\n", 64);
+
+        assertEquals("PLAY 4x4", lector.leerLinea());
+        assertEquals(LectorComandos.MOVIMIENTO, lector.siguiente());
+        assertEquals("REJOIN abc", lector.leerLinea());
+        assertNull(lector.leerLinea());
+    }
+
+    private static LectorComandos lector(String texto, int capacidad) {
+        return new LectorComandos(new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)), capacidad);
+    }
+}
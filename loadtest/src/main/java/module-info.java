@@ -0,0 +1,8 @@
+module org.example.memoryfx.bench {
+    requires javafx.controls;
+    requires org.example.memoryfx;
+    requires org.example.memoryfx.server;
+
+    // RenderBenchmark es una Application: JavaFX necesita poder instanciarla
+    exports org.example.memoryfx.bench to javafx.graphics;
+}
@@ -0,0 +1,193 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.HeadlessClient;
+import org.example.memoryfx.core.Histograma;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Jugador automático con memoria perfecta sobre {@link HeadlessClient}: recuerda cada carta que ve
+ * y, cuando conoce una pareja oculta, la levanta. Antes de cada jugada puede "pensar" un tiempo
+ * aleatorio alrededor de {@code pensarMillis}, y mide cuánto tarda el servidor en devolver el
+ * tablero con su jugada aplicada.
+ */
+class Bot implements HeadlessClient.Listener, Closeable {
+    private final HeadlessClient cliente;
+    private final int columnas;
+    private final int[] caras;
+    private final long pensarMillis;
+    private final Histograma latencias;
+    private final Runnable alIniciar;
+    private int miJugador = -1;
+    private volatile int sala = -1;
+    private int primera = -1;
+    private long enviado = -1;
+    private long jugadas;
+    private boolean terminada;
+    private int ganador = -1;
+
+    /**
+     * @param latencias histograma compartido donde se anota el tiempo de ida y vuelta de cada jugada (puede ser null)
+     * @param alIniciar se ejecuta cuando empieza la partida
+     */
+    Bot(String host, int port, int filas, int columnas, boolean binario, long pensarMillis,
+        Histograma latencias, Runnable alIniciar) {
+        this.cliente = new HeadlessClient(host, port, binario, this);
+        this.columnas = columnas;
+        this.caras = new int[filas * columnas];
+        this.pensarMillis = pensarMillis;
+        this.latencias = latencias;
+        this.alIniciar = alIniciar;
+    }
+
+    /**
+     * Conecta y juega hasta que el servidor cierra la conexión. Bloquea el hilo llamante.
+     */
+    void jugar() throws IOException {
+        cliente.connect();
+        cliente.escuchar();
+    }
+
+    long getJugadas() {
+        return jugadas;
+    }
+
+    /**
+     * Sala en la que juega, o -1 si aún no ha entrado en ninguna.
+     */
+    int getSala() {
+        return sala;
+    }
+
+    boolean isTerminada() {
+        return terminada;
+    }
+
+    /**
+     * Jugador que ganó la partida (0 o 1), 2 si hubo empate o -1 si aún no ha terminado.
+     */
+    int getGanador() {
+        return ganador;
+    }
+
+    HeadlessClient getCliente() {
+        return cliente;
+    }
+
+    @Override
+    public void onTablero(int[] celdas, int n) {
+        if (enviado >= 0 && n > 0) {
+            if (latencias != null) {
+                latencias.registrar(System.nanoTime() - enviado);
+            }
+            enviado = -1;
+        }
+        for (int i = 0; i < n; i++) {
+            int valor = cliente.getValor(celdas[i]);
+            if (valor != BoardCodec.OCULTA) {
+                caras[celdas[i]] = valor;
+            }
+        }
+    }
+
+    @Override
+    public void onMensaje(String line) {
+        if (line.startsWith("Bienvenido, eres el Jugador ")) {
+            miJugador = line.charAt("Bienvenido, eres el Jugador ".length()) - '1';
+            int inicio = line.indexOf("(sala ");
+            if (inicio >= 0) {
+                sala = Integer.parseInt(line.substring(inicio + "(sala ".length(), line.indexOf(')', inicio)));
+            }
+        } else if (line.startsWith("¡Juego iniciado!")) {
+            alIniciar.run();
+            if (miJugador == 0) {
+                mover();
+            }
+        } else if (line.startsWith("Turno del Jugador ")) {
+            if (line.charAt("Turno del Jugador ".length()) - '1' == miJugador) {
+                mover();
+            }
+        } else if (line.startsWith("Esperando tu segunda jugada.")) {
+            mover();
+        } else if (line.startsWith("¡Jugador ")) {
+            if (line.charAt("¡Jugador ".length()) - '1' == miJugador) {
+                mover();
+            }
+        } else if (line.startsWith("¡Juego terminado!")) {
+            terminada = true;
+        } else if (line.startsWith("Ganador: Jugador ")) {
+            ganador = line.charAt("Ganador: Jugador ".length()) - '1';
+        } else if (line.startsWith("Empate")) {
+            ganador = 2;
+        }
+    }
+
+    private void mover() {
+        int celda = primera < 0 ? elegirPrimera() : elegirSegunda(primera);
+        if (celda < 0) {
+            return;
+        }
+        if (pensarMillis > 0) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(pensarMillis / 2, pensarMillis * 3 / 2 + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        primera = primera < 0 ? celda : -1;
+        enviado = System.nanoTime();
+        cliente.sendMove(celda / columnas, celda % columnas);
+        jugadas++;
+    }
+
+    private boolean isVisible(int celda) {
+        return cliente.getValor(celda) != BoardCodec.OCULTA;
+    }
+
+    private int elegirPrimera() {
+        for (int i = 0; i < caras.length; i++) {
+            if (!isVisible(i) && caras[i] != 0 && buscarPareja(i) >= 0) {
+                return i;
+            }
+        }
+        return buscarDesconocida(-1);
+    }
+
+    private int elegirSegunda(int primera) {
+        int pareja = buscarPareja(primera);
+        return pareja >= 0 ? pareja : buscarDesconocida(primera);
+    }
+
+    private int buscarPareja(int celda) {
+        if (caras[celda] == 0) {
+            return -1;
+        }
+        for (int i = 0; i < caras.length; i++) {
+            if (i != celda && !isVisible(i) && caras[i] == caras[celda]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int buscarDesconocida(int excluida) {
+        int oculta = -1;
+        for (int i = 0; i < caras.length; i++) {
+            if (i == excluida || isVisible(i)) continue;
+            if (caras[i] == 0) {
+                return i;
+            }
+            oculta = i;
+        }
+        return oculta;
+    }
+
+    @Override
+    public void close() {
+        cliente.close();
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.server.MemoryServer;
+import org.example.memoryfx.server.Pasarela;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jugadas por segundo de un clúster a medida que se le añaden fragmentos. Cada fragmento es un proceso
+ * {@link MemoryServer} aparte en esta máquina; delante hay una {@link Pasarela} y los bots (memoria
+ * perfecta, sin pausas) se conectan solo a ella. Los fragmentos se añaden en caliente, así que cada nivel
+ * mide también el reparto de las salas nuevas. Al final se drena el último fragmento y se comprueba que
+ * ya no recibe salas.
+ *
+ * Opciones ({@code clave=valor}): {@code fragmentos=1,2,4}, {@code partidas=500} (por nivel),
+ * {@code tablero=4x4}, {@code revelado=0}.
+ */
+public class ClusterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String[] niveles = {"1", "2", "4"};
+        int partidas = 500;
+        String[] tablero = {"4", "4"};
+        long revelado = 0;
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "fragmentos" -> niveles = valor.split(",");
+                case "partidas" -> partidas = Integer.parseInt(valor);
+                case "tablero" -> tablero = valor.split("x");
+                case "revelado" -> revelado = Long.parseLong(valor);
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        int filas = Integer.parseInt(tablero[0]);
+        int columnas = Integer.parseInt(tablero[1]);
+
+        List<Process> procesos = new ArrayList<>();
+        List<String> fragmentos = new ArrayList<>();
+        Pasarela pasarela = null;
+        boolean ok = true;
+        try {
+            fragmentos.add(lanzarFragmento(procesos, filas, columnas, revelado));
+            pasarela = new Pasarela(0, fragmentos);
+            Thread pasarelaThread = new Thread(pasarela::start, "pasarela");
+            pasarelaThread.setDaemon(true);
+            pasarelaThread.start();
+            while (pasarela.getLocalPort() < 0) {
+                Thread.sleep(10);
+            }
+            int port = pasarela.getLocalPort();
+            System.out.printf("%d núcleos; tablero %dx%d, %d partidas por nivel%n",
+                    Runtime.getRuntime().availableProcessors(), filas, columnas, partidas);
+            System.out.printf("%11s %12s %14s %10s   %s%n", "fragmentos", "jugadas", "jugadas/s", "tiempo(s)", "salas nuevas por fragmento");
+
+            for (String nivel : niveles) {
+                int n = Integer.parseInt(nivel.trim());
+                while (fragmentos.size() < n) {
+                    String fragmento = lanzarFragmento(procesos, filas, columnas, revelado);
+                    fragmentos.add(fragmento);
+                    pasarela.anadirFragmento(fragmento);
+                }
+                // Calentamiento: los procesos recién lanzados aún no han compilado nada
+                ronda(port, filas, columnas, Math.max(1, partidas / 5));
+                Map<String, Long> antes = pasarela.getSalasPorFragmento();
+                Resultado r = ronda(port, filas, columnas, partidas);
+                Map<String, Long> reparto = diferencia(pasarela.getSalasPorFragmento(), antes, fragmentos);
+                System.out.printf("%11d %12d %14.1f %10.2f   %s%n", n, r.jugadas, r.jugadas / r.segundos, r.segundos, reparto.values());
+                if (n > 1) {
+                    ok &= comprobar("las salas nuevas se reparten entre los " + n + " fragmentos",
+                            reparto.values().stream().allMatch(salas -> salas > 0));
+                }
+            }
+
+            if (fragmentos.size() > 1) {
+                String drenado = fragmentos.get(fragmentos.size() - 1);
+                pasarela.drenarFragmento(drenado);
+                Map<String, Long> antes = pasarela.getSalasPorFragmento();
+                Resultado r = ronda(port, filas, columnas, partidas);
+                Map<String, Long> reparto = diferencia(pasarela.getSalasPorFragmento(), antes, fragmentos);
+                System.out.printf("%11s %12d %14.1f %10.2f   %s%n", "drenado 1", r.jugadas, r.jugadas / r.segundos, r.segundos, reparto.values());
+                ok &= comprobar("el fragmento drenado no recibe salas nuevas", reparto.get(drenado) == 0);
+                ok &= comprobar("todas las partidas terminan tras drenar", r.terminadas == partidas * 2);
+            }
+        } finally {
+            if (pasarela != null) {
+                pasarela.stop();
+            }
+            for (Process proceso : procesos) {
+                proceso.destroy();
+            }
+            for (Process proceso : procesos) {
+                proceso.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    record Resultado(long jugadas, double segundos, long terminadas) {
+    }
+
+    private static Resultado ronda(int port, int filas, int columnas, int partidas) throws InterruptedException {
+        CountDownLatch terminadas = new CountDownLatch(partidas * 2);
+        LongAdder jugadas = new LongAdder();
+        LongAdder completas = new LongAdder();
+        long inicio = System.nanoTime();
+        try (ExecutorService bots = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < partidas * 2; i++) {
+                bots.execute(() -> {
+                    Bot bot = new Bot("localhost", port, filas, columnas, true, 0, null, () -> { });
+                    try (bot) {
+                        bot.jugar();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } finally {
+                        jugadas.add(bot.getJugadas());
+                        if (bot.isTerminada()) {
+                            completas.increment();
+                        }
+                        terminadas.countDown();
+                    }
+                });
+            }
+            terminadas.await(10, TimeUnit.MINUTES);
+        }
+        return new Resultado(jugadas.sum(), (System.nanoTime() - inicio) / 1e9, completas.sum());
+    }
+
+    /**
+     * Salas nuevas de cada fragmento entre dos lecturas, en el orden en que se añadieron los fragmentos.
+     */
+    private static Map<String, Long> diferencia(Map<String, Long> despues, Map<String, Long> antes, List<String> fragmentos) {
+        Map<String, Long> reparto = new LinkedHashMap<>();
+        for (String fragmento : fragmentos) {
+            reparto.put(fragmento, despues.getOrDefault(fragmento, 0L) - antes.getOrDefault(fragmento, 0L));
+        }
+        return reparto;
+    }
+
+    /**
+     * Arranca un {@link MemoryServer} en otro proceso con la misma JVM y el mismo module path que este,
+     * en un puerto libre, y devuelve su dirección cuando ya acepta conexiones.
+     */
+    private static String lanzarFragmento(List<Process> procesos, int filas, int columnas, long revelado) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String modulePath = System.getProperty("jdk.module.path");
+        List<String> comando = new ArrayList<>(List.of(java));
+        if (modulePath != null) {
+            comando.addAll(List.of("-p", modulePath, "-m", "org.example.memoryfx.server/" + MemoryServer.class.getName()));
+        } else {
+            comando.addAll(List.of("-cp", System.getProperty("java.class.path"), MemoryServer.class.getName()));
+        }
+        // Los bots no piden tamaño: juegan con el del servidor
+        comando.addAll(List.of("puerto=0", "tablero=" + filas + "x" + columnas, "revelado=" + revelado, "comandosPorSegundo=0",
+                "fragmento=true"));
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        procesos.add(proceso);
+
+        BufferedReader salida = new BufferedReader(new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8));
+        String linea;
+        String prefijo = "Servidor iniciado en el puerto ";
+        while ((linea = salida.readLine()) != null && !linea.startsWith(prefijo)) {
+            System.out.println("  [fragmento] " + linea);
+        }
+        if (linea == null) {
+            throw new IOException("El fragmento terminó sin llegar a escuchar");
+        }
+        // El resto de su salida se descarta para que no se llene el pipe
+        Thread.ofVirtual().start(() -> {
+            try {
+                while (salida.readLine() != null) {
+                }
+            } catch (IOException e) {
+                // Proceso terminado
+            }
+        });
+        return "localhost:" + linea.substring(prefijo.length()).trim();
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+}
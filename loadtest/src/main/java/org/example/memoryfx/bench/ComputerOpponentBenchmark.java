@@ -0,0 +1,123 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.server.MemoryServer;
+import org.example.memoryfx.server.ServerMetrics;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Juega muchas partidas de un {@link Bot} (memoria perfecta) contra el ordenador del servidor, sin
+ * pausas, para cada nivel de memoria del ordenador. Cuenta partidas por segundo y cuántas gana el
+ * ordenador, y mide con las métricas del servidor cuánto tarda en decidir cada carta.
+ *
+ * Opciones ({@code clave=valor}): {@code partidas=1000} (por nivel), {@code concurrentes=200},
+ * {@code tablero=8x8}, {@code memorias=0,40,75,100}, {@code maxp99us=1000} (decisión admitida).
+ */
+public class ComputerOpponentBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int partidas = 1000;
+        int concurrentes = 200;
+        String[] tablero = {"8", "8"};
+        String[] memorias = {"0", "40", "75", "100"};
+        double maxP99Us = 1000;
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "partidas" -> partidas = Integer.parseInt(valor);
+                case "concurrentes" -> concurrentes = Integer.parseInt(valor);
+                case "tablero" -> tablero = valor.split("x");
+                case "memorias" -> memorias = valor.split(",");
+                case "maxp99us" -> maxP99Us = Double.parseDouble(valor);
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        int filas = Integer.parseInt(tablero[0]);
+        int columnas = Integer.parseInt(tablero[1]);
+
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setTiempoRevelado(0);
+        server.setPausaOrdenador(0);
+        server.setLimiteComandos(0, 1);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            Thread.sleep(10);
+        }
+
+        boolean ok = true;
+        // Calentamiento con el nivel más alto, sin informar
+        ronda(server.getLocalPort(), filas, columnas, 100, Math.min(partidas, 200), concurrentes);
+        for (String memoria : memorias) {
+            int m = Integer.parseInt(memoria.trim());
+            long inicio = System.nanoTime();
+            Resultado r = ronda(server.getLocalPort(), filas, columnas, m, partidas, concurrentes);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("memoria %3d%%: %d/%d partidas en %.2f s (%.0f partidas/s), el ordenador gana %.1f %%, empata %.1f %%%n",
+                    m, r.terminadas, partidas, segundos, r.terminadas / segundos,
+                    100.0 * r.ganadas / partidas, 100.0 * r.empatadas / partidas);
+            ok &= comprobar("todas las partidas terminan", r.terminadas == partidas);
+        }
+
+        ServerMetrics metricas = server.getMetricas();
+        System.out.printf("Decisión del ordenador: p50 %.2f µs  p99 %.2f µs; latencia de jugada p99 %.1f µs%n",
+                metricas.getDecisionOrdenadorP50Micros(), metricas.getDecisionOrdenadorP99Micros(),
+                metricas.getLatenciaJugadaP99Micros());
+        ok &= comprobar("decisión p99 <= " + maxP99Us + " µs", metricas.getDecisionOrdenadorP99Micros() <= maxP99Us);
+        server.stop();
+
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private record Resultado(long terminadas, long ganadas, long empatadas) {
+    }
+
+    private static Resultado ronda(int puerto, int filas, int columnas, int memoria, int partidas, int concurrentes)
+            throws InterruptedException {
+        Semaphore plazas = new Semaphore(concurrentes);
+        LongAdder terminadas = new LongAdder();
+        LongAdder ganadas = new LongAdder();
+        LongAdder empatadas = new LongAdder();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < partidas; i++) {
+                plazas.acquire();
+                ejecutor.execute(() -> {
+                    try (Bot bot = new Bot("localhost", puerto, filas, columnas, true, 0, null, () -> { })) {
+                        bot.getCliente().setTablero(filas, columnas);
+                        bot.getCliente().setContraOrdenador(memoria);
+                        bot.jugar();
+                        if (bot.isTerminada()) {
+                            terminadas.increment();
+                            // El bot siempre es el Jugador 1; el ordenador, el 2
+                            if (bot.getGanador() == 1) ganadas.increment();
+                            if (bot.getGanador() == 2) empatadas.increment();
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } finally {
+                        plazas.release();
+                    }
+                });
+            }
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(5, TimeUnit.MINUTES);
+        }
+        return new Resultado(terminadas.sum(), ganadas.sum(), empatadas.sum());
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+}
@@ -0,0 +1,224 @@
+package org.example.memoryfx.bench;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.stage.Stage;
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.server.MemoryServer;
+import org.example.memoryfx.MemoryClient;
+import org.example.memoryfx.TableroCanvasFX;
+import org.example.memoryfx.TableroCartasFX;
+import org.example.memoryfx.VistaTablero;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Mide cuánto tarda una carta en empezar a voltearse desde que se pulsa, con y sin volteo optimista.
+ * Arranca un servidor local y, delante, un proxy que retrasa cada sentido de la conexión; en cada modo
+ * se juega una partida contra el ordenador pulsando cartas ocultas al azar en nuestro turno.
+ * Necesita pantalla.
+ *
+ * Opciones ({@code clave=valor}): {@code tablero=6x6}, {@code vista=botones|canvas},
+ * {@code retardo=80} (ms en cada sentido), {@code jugadas=30} (por modo), {@code modos=ambos|optimista|servidor}.
+ */
+public class FlipLatencyBenchmark extends Application {
+
+    private int filas;
+    private int columnas;
+    private String vista;
+    private int jugadas;
+    private int puertoProxy;
+    private final Map<String, Histograma[]> resultados = new HashMap<>();
+
+    @Override
+    public void start(Stage stage) throws IOException {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : getParameters().getRaw()) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+        String[] tablero = opciones.getOrDefault("tablero", "6x6").split("x");
+        filas = Integer.parseInt(tablero[0]);
+        columnas = Integer.parseInt(tablero[1]);
+        vista = opciones.getOrDefault("vista", "botones");
+        jugadas = Integer.parseInt(opciones.getOrDefault("jugadas", "30"));
+        long retardo = Long.parseLong(opciones.getOrDefault("retardo", "80"));
+
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setPausaOrdenador(300);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        puertoProxy = arrancarProxy(server.getLocalPort(), retardo * 1_000_000L);
+        System.out.printf("Retardo del proxy: %d ms por sentido (ida y vuelta %d ms)%n", retardo, 2 * retardo);
+
+        Queue<String> modos = new ArrayDeque<>();
+        String modo = opciones.getOrDefault("modos", "ambos");
+        if (!modo.equals("servidor")) modos.add("optimista");
+        if (!modo.equals("optimista")) modos.add("servidor");
+        siguiente(stage, modos);
+    }
+
+    private void siguiente(Stage stage, Queue<String> modos) {
+        String modo = modos.poll();
+        if (modo == null) {
+            Histograma[] optimista = resultados.get("optimista");
+            Histograma[] servidor = resultados.get("servidor");
+            if (optimista != null && servidor != null) {
+                comprobar("el volteo optimista empieza antes que el que espera al servidor",
+                        optimista[0].percentil(0.5) < servidor[0].percentil(0.5));
+            }
+            Platform.exit();
+            return;
+        }
+        VistaTablero tablero = vista.equals("canvas") ? new TableroCanvasFX(filas, columnas) : new TableroCartasFX(filas, columnas);
+        stage.setTitle("FlipLatencyBenchmark - " + modo);
+        stage.setScene(new Scene((Parent) tablero, 900, 800));
+        stage.show();
+
+        MemoryClient client = new MemoryClient("localhost", puertoProxy, tablero, new Label(), new Label(), new Label());
+        client.setTablero(filas, columnas);
+        client.setOptimista(modo.equals("optimista"));
+        client.setContraOrdenador(0);
+        tablero.setClient(client);
+        client.connect();
+
+        Random random = new Random(11);
+        new AnimationTimer() {
+            private int pulsadas;
+
+            @Override
+            public void handle(long now) {
+                boolean terminado = client.isPartidaTerminada() || pulsadas >= jugadas;
+                if (terminado && client.getJugadasSinRespuesta() == 0) {
+                    stop();
+                    Histograma respuesta = client.getLatenciaRespuesta();
+                    Histograma confirmacion = client.getLatenciaConfirmacion();
+                    System.out.printf("%s: %d jugadas; pulsar -> empieza el volteo p50 %.1f  p99 %.1f ms;"
+                                    + " pulsar -> valor del servidor p50 %.1f  p99 %.1f ms%n",
+                            modo, confirmacion.getTotal(), respuesta.percentil(0.5) / 1e6, respuesta.percentil(0.99) / 1e6,
+                            confirmacion.percentil(0.5) / 1e6, confirmacion.percentil(0.99) / 1e6);
+                    resultados.put(modo, new Histograma[]{respuesta, confirmacion});
+                    siguiente(stage, modos);
+                    return;
+                }
+                if (terminado || !client.puedeVoltear() || client.getJugadasSinRespuesta() > 0) {
+                    return;
+                }
+                int celda = celdaOculta(client, random);
+                if (celda >= 0) {
+                    client.pulsar(celda / columnas, celda % columnas);
+                    pulsadas++;
+                }
+            }
+        }.start();
+    }
+
+    private int celdaOculta(MemoryClient client, Random random) {
+        int total = filas * columnas;
+        int inicio = random.nextInt(total);
+        for (int i = 0; i < total; i++) {
+            int celda = (inicio + i) % total;
+            if (client.getValor(celda) == BoardCodec.OCULTA) {
+                return celda;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Proxy TCP que entrega cada trozo leído con el retardo indicado, en ambos sentidos.
+     */
+    private static int arrancarProxy(int puertoServidor, long retardoNanos) throws IOException {
+        ServerSocket escucha = new ServerSocket(0);
+        Thread aceptador = new Thread(() -> {
+            while (true) {
+                try {
+                    Socket cliente = escucha.accept();
+                    Socket servidor = new Socket("localhost", puertoServidor);
+                    cliente.setTcpNoDelay(true);
+                    servidor.setTcpNoDelay(true);
+                    retrasar(cliente.getInputStream(), servidor.getOutputStream(), retardoNanos);
+                    retrasar(servidor.getInputStream(), cliente.getOutputStream(), retardoNanos);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return;
+                }
+            }
+        }, "proxy-aceptador");
+        aceptador.setDaemon(true);
+        aceptador.start();
+        return escucha.getLocalPort();
+    }
+
+    private static void retrasar(InputStream entrada, OutputStream salida, long retardoNanos) {
+        // Cada trozo lleva el instante en que se leyó; el escritor lo suelta cuando ha pasado el retardo
+        BlockingQueue<Object[]> cola = new LinkedBlockingQueue<>();
+        Thread lector = new Thread(() -> {
+            byte[] buffer = new byte[8192];
+            try {
+                int n;
+                while ((n = entrada.read(buffer)) > 0) {
+                    cola.put(new Object[]{System.nanoTime() + retardoNanos, Arrays.copyOf(buffer, n)});
+                }
+            } catch (IOException | InterruptedException e) {
+                // Conexión cerrada
+            }
+        }, "proxy-lector");
+        Thread escritor = new Thread(() -> {
+            try {
+                while (true) {
+                    Object[] trozo = cola.take();
+                    long espera = (long) trozo[0] - System.nanoTime();
+                    if (espera > 0) {
+                        Thread.sleep(espera / 1_000_000, (int) (espera % 1_000_000));
+                    }
+                    salida.write((byte[]) trozo[1]);
+                    salida.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Conexión cerrada
+            }
+        }, "proxy-escritor");
+        lector.setDaemon(true);
+        escritor.setDaemon(true);
+        lector.start();
+        escritor.start();
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.server.MemoryServer;
+import org.example.memoryfx.server.ServerMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comprueba el límite de comandos por conexión. Mientras varias parejas de bots juegan con normalidad,
+ * unos clientes "inundadores" se emparejan entre sí y mandan durante unos segundos todas las líneas que
+ * pueden, jugadas fuera de turno y líneas mal formadas mezcladas. El servidor debe leerles solo lo que
+ * permite el límite, no cerrarles la conexión por la basura y que el resto de partidas no lo note.
+ *
+ * Opciones ({@code clave=valor}): {@code pares=20}, {@code inundadores=4}, {@code segundos=5},
+ * {@code limite=100} (comandos por segundo por conexión), {@code rafaga=50}, {@code pensar=20},
+ * {@code p99max=50} (milisegundos de latencia p99 admitidos en las partidas normales).
+ */
+public class FloodCheck {
+
+    public static void main(String[] args) throws Exception {
+        int pares = 20;
+        int inundadores = 4;
+        int segundos = 5;
+        double limite = 100;
+        int rafaga = 50;
+        long pensar = 20;
+        double p99Max = 50;
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "pares" -> pares = Integer.parseInt(valor);
+                case "inundadores" -> inundadores = Integer.parseInt(valor);
+                case "segundos" -> segundos = Integer.parseInt(valor);
+                case "limite" -> limite = Double.parseDouble(valor);
+                case "rafaga" -> rafaga = Integer.parseInt(valor);
+                case "pensar" -> pensar = Long.parseLong(valor);
+                case "p99max" -> p99Max = Double.parseDouble(valor);
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        // Tablero de los bots; los inundadores piden 6x6 para no mezclarse con ellos en el lobby ni acabar su partida
+        int filas = 4;
+        int columnas = 4;
+
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setTiempoRevelado(20);
+        server.setLimiteComandos(limite, rafaga);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            Thread.sleep(5);
+        }
+        int port = server.getLocalPort();
+
+        Histograma latencias = new Histograma();
+        CountDownLatch iniciadas = new CountDownLatch(pares * 2);
+        List<Bot> bots = new ArrayList<>();
+        for (int i = 0; i < pares * 2; i++) {
+            bots.add(new Bot("localhost", port, filas, columnas, true, pensar, latencias, iniciadas::countDown));
+        }
+        long[] enviadas = new long[inundadores];
+        boolean[] cerradas = new boolean[inundadores];
+        long duracion = TimeUnit.SECONDS.toNanos(segundos);
+        long inicio = System.nanoTime();
+        long leidas;
+        long malformadas;
+        long frenadas;
+        double transcurrido;
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < inundadores; i++) {
+                int n = i;
+                ejecutor.execute(() -> inundar(port, duracion, enviadas, cerradas, n));
+            }
+            for (Bot bot : bots) {
+                ejecutor.execute(() -> jugar(bot));
+            }
+            iniciadas.await();
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(5, TimeUnit.MINUTES);
+            // Lo que queda en los buffers de los inundadores se sigue leyendo al ritmo del límite hasta
+            // que se para el servidor, así que se toma una sola foto de los contadores
+            ServerMetrics m = server.getMetricas();
+            malformadas = m.getComandosMalformados();
+            frenadas = m.getComandosFrenados();
+            // Lo que el servidor ha llegado a interpretar de los inundadores: sus jugadas rechazadas y la basura
+            leidas = m.getJugadasFueraDeTurno() + m.getJugadasInvalidas() + malformadas;
+            transcurrido = (System.nanoTime() - inicio) / 1e9;
+        } finally {
+            server.stop();
+        }
+
+        long terminadas = bots.stream().filter(Bot::isTerminada).count();
+        long totalEnviadas = 0;
+        for (long e : enviadas) {
+            totalEnviadas += e;
+        }
+        double p99 = latencias.percentil(0.99) / 1e6;
+        double permitidas = inundadores * (limite * transcurrido + rafaga);
+        System.out.printf("Partidas normales terminadas: %d de %d%n", terminadas / 2, pares);
+        System.out.printf("Latencia jugada (ms): p50 %.3f  p99 %.3f  max %.3f%n",
+                latencias.percentil(0.5) / 1e6, p99, latencias.percentil(1.0) / 1e6);
+        System.out.printf("Líneas enviadas por los inundadores: %d; interpretadas: %d (límite %.0f); mal formadas: %d; frenadas: %d%n",
+                totalEnviadas, leidas, permitidas, malformadas, frenadas);
+
+        boolean ok = true;
+        ok &= comprobar("todas las partidas normales terminan", terminadas == pares * 2L);
+        ok &= comprobar("p99 de las partidas normales por debajo de " + p99Max + " ms", p99 <= p99Max);
+        // Los bots también fallan alguna jugada; un 20 % de margen sobre lo que permite el límite
+        ok &= comprobar("a los inundadores solo se les lee lo que permite el límite", leidas <= permitidas * 1.2);
+        ok &= comprobar("se descartan líneas mal formadas", malformadas > 0);
+        boolean ningunaCerrada = true;
+        for (boolean c : cerradas) {
+            ningunaCerrada &= !c;
+        }
+        ok &= comprobar("la basura no cierra la conexión", ningunaCerrada);
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static void jugar(Bot bot) {
+        try (bot) {
+            bot.jugar();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Manda líneas sin parar durante {@code duracion} y lee (y tira) lo que conteste el servidor para que
+     * no le cierre por lento. Como el servidor le lee despacio, la escritura se queda bloqueada en cuanto
+     * se llenan los buffers del socket; al acabar el tiempo se cierra desde fuera. Deja en {@code cerradas}
+     * si fue el servidor quien cortó la conexión antes de tiempo.
+     */
+    private static void inundar(int port, long duracion, long[] enviadas, boolean[] cerradas, int n) {
+        byte[] rafaga = ("MOVE 0 0\nMOVE 1 1\nMOVE x 2\nMOVE 99999999999 0\nMOVE 3\nMOVE 2 2\n")
+                .repeat(64).getBytes(StandardCharsets.UTF_8);
+        long fin = System.nanoTime() + duracion;
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write("PLAY 6x6\n".getBytes(StandardCharsets.UTF_8));
+            InputStream in = socket.getInputStream();
+            Thread.ofVirtual().start(() -> {
+                byte[] buffer = new byte[8192];
+                try {
+                    while (in.read(buffer) >= 0) {
+                    }
+                } catch (IOException e) {
+                    // Cerrado al terminar
+                }
+            });
+            Thread.ofVirtual().start(() -> {
+                try {
+                    Thread.sleep(Duration.ofNanos(duracion));
+                    socket.close();
+                } catch (InterruptedException | IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            while (System.nanoTime() < fin) {
+                out.write(rafaga);
+                enviadas[n] += 6 * 64;
+            }
+        } catch (IOException e) {
+            cerradas[n] = System.nanoTime() < fin;
+        }
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+}
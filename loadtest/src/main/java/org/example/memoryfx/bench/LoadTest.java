@@ -0,0 +1,124 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.server.MemoryServer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generador de carga: lanza N parejas de bots contra un servidor, juegan partidas completas con
+ * tiempos de reflexión realistas y al final se informa de la latencia de ida y vuelta de cada jugada
+ * (p50/p99/p99.9), mensajes por segundo y bytes por segundo recibidos por los clientes.
+ *
+ * Opciones ({@code clave=valor}):
+ * <ul>
+ *   <li>{@code pares=100}: parejas de bots (partidas simultáneas)</li>
+ *   <li>{@code tablero=4x8}: tamaño del tablero del servidor local</li>
+ *   <li>{@code pensar=300}: milisegundos medios de reflexión antes de cada jugada</li>
+ *   <li>{@code revelado=1000}: milisegundos que el servidor local deja a la vista un fallo</li>
+ *   <li>{@code protocolo=binario|texto}</li>
+ *   <li>{@code metricas=puerto}: abrir el endpoint HTTP de métricas del servidor local</li>
+ *   <li>{@code diario=directorio}: guardar el diario de partidas del servidor local</li>
+ *   <li>{@code host=...} y {@code port=...}: usar un servidor ya arrancado en lugar de uno local</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+        int pares = Integer.parseInt(opciones.getOrDefault("pares", "100"));
+        String[] tablero = opciones.getOrDefault("tablero", "4x8").split("x");
+        int filas = Integer.parseInt(tablero[0]);
+        int columnas = Integer.parseInt(tablero[1]);
+        long pensar = Long.parseLong(opciones.getOrDefault("pensar", "300"));
+        long revelado = Long.parseLong(opciones.getOrDefault("revelado", "1000"));
+        boolean binario = !opciones.getOrDefault("protocolo", "binario").equals("texto");
+        String host = opciones.getOrDefault("host", "localhost");
+
+        MemoryServer server = null;
+        int port;
+        if (opciones.containsKey("port")) {
+            port = Integer.parseInt(opciones.get("port"));
+        } else {
+            server = new MemoryServer(0, filas, columnas);
+            server.setTiempoRevelado(revelado);
+            if (opciones.containsKey("metricas")) {
+                server.setPuertoMetricas(Integer.parseInt(opciones.get("metricas")));
+            }
+            if (opciones.containsKey("diario")) {
+                server.setDirectorioDiario(Path.of(opciones.get("diario")));
+            }
+            Thread serverThread = new Thread(server::start, "memory-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+            while (server.getLocalPort() < 0) {
+                Thread.sleep(5);
+            }
+            port = server.getLocalPort();
+        }
+
+        Histograma latencias = new Histograma();
+        CountDownLatch iniciadas = new CountDownLatch(pares * 2);
+        List<Bot> bots = new ArrayList<>();
+        for (int i = 0; i < pares * 2; i++) {
+            bots.add(new Bot(host, port, filas, columnas, binario, pensar, latencias, iniciadas::countDown));
+        }
+
+        System.out.printf("Lanzando %d partidas de %dx%d (%s, %d ms de reflexión) contra %s:%d%n",
+                pares, filas, columnas, binario ? "binario" : "texto", pensar, host, port);
+        long inicio = System.nanoTime();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Bot bot : bots) {
+                ejecutor.execute(() -> {
+                    try (bot) {
+                        bot.jugar();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(1, TimeUnit.HOURS);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long jugadas = 0, mensajes = 0, bytes = 0, terminadas = 0;
+        for (Bot bot : bots) {
+            jugadas += bot.getJugadas();
+            mensajes += bot.getCliente().getMensajesRecibidos();
+            bytes += bot.getCliente().getBytesRecibidos();
+            if (bot.isTerminada()) terminadas++;
+        }
+        System.out.printf("Partidas terminadas: %d de %d en %.2f s%n", terminadas / 2, pares, segundos);
+        System.out.printf("Jugadas: %d (%.1f/s)%n", jugadas, jugadas / segundos);
+        System.out.printf("Mensajes recibidos: %d (%.1f/s)%n", mensajes, mensajes / segundos);
+        System.out.printf("Bytes recibidos: %d (%.1f KB/s)%n", bytes, bytes / segundos / 1024);
+        System.out.printf("Latencia jugada (ms): media %.3f  p50 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%n",
+                latencias.getMedia() / 1e6, latencias.percentil(0.50) / 1e6, latencias.percentil(0.99) / 1e6,
+                latencias.percentil(0.999) / 1e6, latencias.percentil(1.0) / 1e6);
+        if (server != null) {
+            System.out.println();
+            System.out.println("Métricas del servidor:");
+            System.out.print(server.getMetricas().comoTexto());
+        }
+    }
+}
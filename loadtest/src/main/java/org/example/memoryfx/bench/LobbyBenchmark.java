@@ -0,0 +1,134 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.server.Lobby;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide el emparejamiento del {@link Lobby} sin red: decenas de miles de jugadores (un hilo virtual cada
+ * uno) llegan a la vez pidiendo uno de varios tamaños de tablero. Se cuenta cuántas parejas salen por
+ * segundo y cuánto espera el primero de cada pareja a su rival. Para comparar, se repite con un
+ * emparejador con un único monitor, como el que tenía el servidor antes del lobby.
+ *
+ * Opciones ({@code clave=valor}): {@code jugadores=50000}, {@code tamanos=4}, {@code rondas=3},
+ * {@code modo=ambos|lobby|monitor}.
+ */
+public class LobbyBenchmark {
+
+    private interface Emparejador {
+        Sala emparejar(int filas, int columnas);
+    }
+
+    private static final class Sala {
+        final long creada = System.nanoTime();
+        final AtomicInteger jugadores = new AtomicInteger();
+    }
+
+    /**
+     * El emparejamiento de antes: un monitor para todos los tamaños y la sala en espera de cada uno.
+     */
+    private static final class EmparejadorMonitor implements Emparejador {
+        private final Map<Integer, Sala> esperas = new HashMap<>();
+
+        @Override
+        public synchronized Sala emparejar(int filas, int columnas) {
+            Sala sala = esperas.remove(filas << 16 | columnas);
+            if (sala == null) {
+                sala = new Sala();
+                esperas.put(filas << 16 | columnas, sala);
+            }
+            return sala;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int jugadores = 50_000;
+        int tamanos = 4;
+        int rondas = 3;
+        String modo = "ambos";
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "jugadores" -> jugadores = Integer.parseInt(valor);
+                case "tamanos" -> tamanos = Integer.parseInt(valor);
+                case "rondas" -> rondas = Integer.parseInt(valor);
+                case "modo" -> modo = valor;
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+
+        boolean ok = true;
+        for (int r = 1; r <= rondas; r++) {
+            // La primera ronda sirve de calentamiento
+            if (!modo.equals("monitor")) {
+                Lobby<Sala> lobby = new Lobby<>((f, c) -> new Sala());
+                ok &= ronda("lobby", lobby::emparejar, jugadores, tamanos, r > 1);
+            }
+            if (!modo.equals("lobby")) {
+                ok &= ronda("monitor", new EmparejadorMonitor(), jugadores, tamanos, r > 1);
+            }
+        }
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean ronda(String nombre, Emparejador emparejador, int jugadores, int tamanos, boolean informar)
+            throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        CountDownLatch listos = new CountDownLatch(jugadores);
+        LongAdder parejas = new LongAdder();
+        LongAdder excesos = new LongAdder();
+        Histograma esperas = new Histograma();
+        long inicio;
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < jugadores; i++) {
+                int lado = 4 + 2 * (i % tamanos);
+                ejecutor.execute(() -> {
+                    listos.countDown();
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    Sala sala = emparejador.emparejar(lado, lado);
+                    int n = sala.jugadores.incrementAndGet();
+                    if (n == 2) {
+                        parejas.increment();
+                        esperas.registrar(System.nanoTime() - sala.creada);
+                    } else if (n > 2) {
+                        excesos.increment();
+                    }
+                });
+            }
+            listos.await();
+            inicio = System.nanoTime();
+            salida.countDown();
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(5, TimeUnit.MINUTES);
+        }
+        long nanos = System.nanoTime() - inicio;
+        if (informar) {
+            System.out.printf("%-8s %d jugadores, %d tamaños: %d parejas en %.1f ms (%.0f parejas/s), espera del primero p50 %.3f  p99 %.3f ms%n",
+                    nombre, jugadores, tamanos, parejas.sum(), nanos / 1e6, parejas.sum() / (nanos / 1e9),
+                    esperas.percentil(0.5) / 1e6, esperas.percentil(0.99) / 1e6);
+        }
+        // Con un número impar de llegadas a un tamaño queda un jugador esperando
+        boolean completas = parejas.sum() >= (jugadores - tamanos) / 2 && excesos.sum() == 0;
+        if (!completas) {
+            System.out.printf("  FALLO %s: %d parejas, %d jugadores en salas llenas%n", nombre, parejas.sum(), excesos.sum());
+        }
+        return completas;
+    }
+}
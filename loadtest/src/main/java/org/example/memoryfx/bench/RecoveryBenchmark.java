@@ -0,0 +1,207 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.server.AlmacenPartidas;
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+import org.example.memoryfx.core.HeadlessClient;
+import org.example.memoryfx.server.MemoryServer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cuánto tarda el servidor en recuperar partidas tras una caída. Genera una instantánea con
+ * muchas partidas a medias, arranca un servidor sobre ella y comprueba que los dos jugadores de una
+ * sala vuelven con sus tokens y ven el tablero y el turno que tenían. Al pararlo, la instantánea que
+ * deja debe contener el resto de partidas.
+ *
+ * Opciones ({@code clave=valor}): {@code salas=10000}, {@code tablero=16x16},
+ * {@code dir=directorio} (por defecto uno temporal), {@code maxms=5000} (tiempo de recuperación admitido).
+ */
+public class RecoveryBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int numSalas = 10_000;
+        String[] tablero = {"16", "16"};
+        Path directorio = null;
+        double maxMs = 5000;
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "salas" -> numSalas = Integer.parseInt(valor);
+                case "tablero" -> tablero = valor.split("x");
+                case "dir" -> directorio = Path.of(valor);
+                case "maxms" -> maxMs = Double.parseDouble(valor);
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        int filas = Integer.parseInt(tablero[0]);
+        int columnas = Integer.parseInt(tablero[1]);
+        if (directorio == null) {
+            directorio = Files.createTempDirectory("memory-recuperacion");
+        }
+
+        List<AlmacenPartidas.EstadoSala> estados = generar(numSalas, filas, columnas);
+        long inicio = System.nanoTime();
+        AlmacenPartidas.guardar(directorio, estados, numSalas);
+        long nanosGuardar = System.nanoTime() - inicio;
+        long tamano = Files.size(directorio.resolve("partidas.snap"));
+        System.out.printf("Instantánea de %d salas %dx%d: %.1f KiB (%.0f bytes por sala), guardada en %.1f ms%n",
+                numSalas, filas, columnas, tamano / 1024.0, (double) tamano / numSalas, nanosGuardar / 1e6);
+
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setDirectorioRecuperacion(directorio);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getNanosRestauracion() < 0) {
+            Thread.sleep(5);
+        }
+        double msRestauracion = server.getNanosRestauracion() / 1e6;
+        System.out.printf("Recuperación: %.1f ms (%.1f µs por sala), %d salas activas%n",
+                msRestauracion, server.getNanosRestauracion() / 1e3 / numSalas, server.getSalasActivas());
+
+        AlmacenPartidas.EstadoSala elegida = estados.get(numSalas / 2);
+        Reincorporado[] jugadores = {
+                new Reincorporado(server.getLocalPort(), elegida.tokens()[0]),
+                new Reincorporado(server.getLocalPort(), elegida.tokens()[1])
+        };
+        long inicioReincorporar = System.nanoTime();
+        for (Reincorporado j : jugadores) {
+            j.conectar();
+        }
+        boolean recuperada = true;
+        for (Reincorporado j : jugadores) {
+            recuperada &= j.recuperada.await(10, TimeUnit.SECONDS);
+        }
+        System.out.printf("Reincorporación a la sala %d: %.1f ms%n", elegida.id(), (System.nanoTime() - inicioReincorporar) / 1e6);
+        boolean tableroIgual = recuperada && jugadores[0].tableroIgualA(elegida) && jugadores[1].tableroIgualA(elegida);
+        String turnoEsperado = "¡Partida recuperada! Turno del Jugador " + (elegida.turno() + 1);
+        boolean turnoIgual = recuperada && turnoEsperado.equals(jugadores[0].mensaje) && turnoEsperado.equals(jugadores[1].mensaje);
+        for (Reincorporado j : jugadores) {
+            j.cliente.close();
+        }
+
+        server.stop();
+        serverThread.join(10_000);
+        int[] contador = new int[1];
+        int guardadas = AlmacenPartidas.cargar(directorio, contador).size();
+
+        boolean ok = true;
+        ok &= comprobar("se recuperan las " + numSalas + " salas", server.getSalasCreadas() == numSalas
+                && server.getSalasActivas() >= numSalas - 1);
+        ok &= comprobar("recuperación por debajo de " + maxMs + " ms", msRestauracion <= maxMs);
+        ok &= comprobar("los dos jugadores vuelven con su token", recuperada);
+        ok &= comprobar("ven el tablero que tenían", tableroIgual);
+        ok &= comprobar("y el turno que tenían", turnoIgual);
+        // La sala de la prueba se cierra al desconectarse sus jugadores
+        ok &= comprobar("la instantánea al parar conserva las otras partidas", guardadas == numSalas - 1);
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Partidas a medias: en cada una se han encontrado unas cuantas parejas, repartidas entre los dos jugadores.
+     */
+    private static List<AlmacenPartidas.EstadoSala> generar(int numSalas, int filas, int columnas) {
+        Random random = new Random(42);
+        HexFormat hex = HexFormat.of();
+        List<AlmacenPartidas.EstadoSala> estados = new ArrayList<>(numSalas);
+        byte[] bytesToken = new byte[16];
+        for (int id = 1; id <= numSalas; id++) {
+            long semilla = random.nextLong();
+            GameLogic logica = new GameLogic(filas, columnas, semilla);
+            int parejas = random.nextInt(filas * columnas / 2);
+            for (int i = 0; i < filas; i++) {
+                for (int j = 0; j < columnas; j++) {
+                    if (logica.getIdCarta(i, j) <= parejas) {
+                        logica.voltearCarta(i, j);
+                    }
+                }
+            }
+            int puntos1 = random.nextInt(parejas + 1);
+            String[] tokens = new String[2];
+            for (int t = 0; t < 2; t++) {
+                random.nextBytes(bytesToken);
+                tokens[t] = hex.formatHex(bytesToken);
+            }
+            estados.add(new AlmacenPartidas.EstadoSala(id, filas, columnas, semilla, logica.getReveladas(),
+                    puntos1, parejas - puntos1, random.nextInt(2), 0, -1, -1, tokens));
+        }
+        return estados;
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+
+    /**
+     * Jugador que vuelve a su sala con el token y espera el aviso de partida recuperada.
+     */
+    private static class Reincorporado implements HeadlessClient.Listener {
+        final HeadlessClient cliente;
+        final CountDownLatch recuperada = new CountDownLatch(1);
+        volatile String mensaje;
+        private volatile boolean conTablero;
+
+        Reincorporado(int port, String token) {
+            cliente = new HeadlessClient("localhost", port, true, this);
+            cliente.setToken(token);
+        }
+
+        void conectar() throws IOException {
+            cliente.connect();
+            Thread hilo = new Thread(() -> {
+                try {
+                    cliente.escuchar();
+                } catch (IOException e) {
+                    // Se cierra al terminar la prueba
+                }
+            }, "memory-reincorporado");
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+
+        @Override
+        public void onMensaje(String msg) {
+            if (msg.startsWith("¡Partida recuperada!")) {
+                mensaje = msg;
+            }
+        }
+
+        @Override
+        public void onTablero(int[] celdas, int n) {
+            // El tablero completo llega justo después del aviso
+            if (mensaje != null && !conTablero) {
+                conTablero = true;
+                recuperada.countDown();
+            }
+        }
+
+        boolean tableroIgualA(AlmacenPartidas.EstadoSala estado) {
+            GameLogic logica = new GameLogic(estado.filas(), estado.columnas(), estado.semilla());
+            logica.setReveladas(estado.reveladas());
+            for (int i = 0; i < estado.filas(); i++) {
+                for (int j = 0; j < estado.columnas(); j++) {
+                    int esperado = logica.isRevelada(i, j) ? logica.getIdCarta(i, j) : BoardCodec.OCULTA;
+                    if (cliente.getValor(i * estado.columnas() + j) != esperado) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.memoryfx.bench;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.TableroCanvasFX;
+import org.example.memoryfx.TableroCartasFX;
+import org.example.memoryfx.VistaTablero;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+
+/**
+ * Compara las dos vistas del tablero: abre una ventana con cada una y, durante unos segundos, en cada
+ * frame esconde las cartas del frame anterior y levanta otras tantas al azar. Se mide el intervalo entre
+ * pulsos de JavaFX (16,7 ms a 60 fps) y el tiempo que cuesta construir la vista y mostrarla por primera vez.
+ * Necesita pantalla.
+ *
+ * Opciones ({@code clave=valor}): {@code tablero=64x64}, {@code vista=ambas|botones|canvas},
+ * {@code segundos=10}, {@code volteos=4} (cartas levantadas por frame).
+ */
+public class RenderBenchmark extends Application {
+
+    private static final long CALENTAMIENTO = 1_000_000_000L;
+
+    private int filas;
+    private int columnas;
+    private long duracion;
+    private int volteos;
+    private GameLogic logica;
+
+    @Override
+    public void start(Stage stage) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : getParameters().getRaw()) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+        String[] tablero = opciones.getOrDefault("tablero", "64x64").split("x");
+        filas = Integer.parseInt(tablero[0]);
+        columnas = Integer.parseInt(tablero[1]);
+        duracion = Long.parseLong(opciones.getOrDefault("segundos", "10")) * 1_000_000_000L;
+        volteos = Integer.parseInt(opciones.getOrDefault("volteos", "4"));
+        logica = new GameLogic(filas, columnas, 42);
+
+        Queue<String> vistas = new ArrayDeque<>();
+        String vista = opciones.getOrDefault("vista", "ambas");
+        if (!vista.equals("canvas")) vistas.add("botones");
+        if (!vista.equals("botones")) vistas.add("canvas");
+        siguiente(stage, vistas);
+    }
+
+    private void siguiente(Stage stage, Queue<String> vistas) {
+        String nombre = vistas.poll();
+        if (nombre == null) {
+            Platform.exit();
+            return;
+        }
+        long inicio = System.nanoTime();
+        VistaTablero vista = nombre.equals("botones") ? new TableroCartasFX(filas, columnas) : new TableroCanvasFX(filas, columnas);
+        stage.setTitle("RenderBenchmark - " + nombre + " " + filas + "x" + columnas);
+        stage.setScene(new Scene((Parent) vista, 1080, 925));
+        stage.show();
+
+        Histograma frames = new Histograma();
+        Random random = new Random(7);
+        int[] celdas = new int[volteos];
+        int[] valores = new int[volteos];
+        new AnimationTimer() {
+            private long primero = -1;
+            private long anterior = -1;
+            private int levantadas;
+
+            @Override
+            public void handle(long now) {
+                if (primero < 0) {
+                    primero = now;
+                    System.out.printf("%s %dx%d: construir y mostrar %.1f ms%n", nombre, filas, columnas,
+                            (System.nanoTime() - inicio) / 1e6);
+                }
+                if (now - primero > CALENTAMIENTO && anterior >= 0) {
+                    frames.registrar(now - anterior);
+                }
+                anterior = now;
+
+                for (int i = 0; i < levantadas; i++) {
+                    valores[i] = BoardCodec.OCULTA;
+                }
+                vista.aplicarCambios(celdas, valores, levantadas);
+                for (int i = 0; i < volteos; i++) {
+                    celdas[i] = random.nextInt(filas * columnas);
+                    valores[i] = logica.getIdCarta(celdas[i] / columnas, celdas[i] % columnas);
+                }
+                levantadas = volteos;
+                vista.aplicarCambios(celdas, valores, levantadas);
+
+                if (now - primero > CALENTAMIENTO + duracion) {
+                    stop();
+                    informar(nombre, frames);
+                    siguiente(stage, vistas);
+                }
+            }
+        }.start();
+    }
+
+    private void informar(String nombre, Histograma frames) {
+        System.out.printf("%s %dx%d: %d frames, media %.2f ms (%.1f fps), p50 %.2f  p99 %.2f  max %.2f ms%n",
+                nombre, filas, columnas, frames.getTotal(), frames.getMedia() / 1e6, 1e9 / frames.getMedia(),
+                frames.percentil(0.5) / 1e6, frames.percentil(0.99) / 1e6, frames.percentil(1.0) / 1e6);
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.server.MemoryServer;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide el rendimiento del servidor por salas: salas creadas por segundo y jugadas procesadas
+ * por segundo a medida que crece el número de partidas simultáneas.
+ *
+ * Uso: {@code RoomThroughputBenchmark [partidas,partidas,...] [filas] [columnas] [tiempoRevelado]}
+ * (por defecto 10,100,1000 partidas en tableros de 3x4 con 1000 ms de revelado). Cada partida la juegan dos bots
+ * con memoria perfecta conectados por socket a un servidor local en un puerto libre.
+ */
+public class RoomThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String[] niveles = (args.length > 0 ? args[0] : "10,100,1000").split(",");
+        int filas = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int columnas = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long tiempoRevelado = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+        System.out.printf("%10s %12s %12s %14s %10s%n", "partidas", "salas/s", "jugadas", "jugadas/s", "tiempo(s)");
+        for (String nivel : niveles) {
+            Resultado r = ejecutar(Integer.parseInt(nivel.trim()), filas, columnas, tiempoRevelado);
+            System.out.printf("%10d %12.1f %12d %14.1f %10.2f%n",
+                    r.partidas, r.salasPorSegundo, r.jugadas, r.jugadasPorSegundo, r.segundos);
+        }
+    }
+
+    record Resultado(int partidas, double salasPorSegundo, long jugadas, double jugadasPorSegundo, double segundos) {
+    }
+
+    static Resultado ejecutar(int partidas, int filas, int columnas, long tiempoRevelado) throws Exception {
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setTiempoRevelado(tiempoRevelado);
+        // Los bots juegan sin pausas: se mide el servidor, no el límite por conexión
+        server.setLimiteComandos(0, 1);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            Thread.sleep(5);
+        }
+        int port = server.getLocalPort();
+
+        CountDownLatch iniciadas = new CountDownLatch(partidas * 2);
+        CountDownLatch terminadas = new CountDownLatch(partidas * 2);
+        LongAdder jugadas = new LongAdder();
+        Runnable alIniciar = iniciadas::countDown;
+
+        long inicio = System.nanoTime();
+        try (ExecutorService bots = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < partidas * 2; i++) {
+                bots.execute(() -> {
+                    Bot bot = new Bot("localhost", port, filas, columnas, false, 0, null, alIniciar);
+                    try (bot) {
+                        bot.jugar();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    } finally {
+                        jugadas.add(bot.getJugadas());
+                        terminadas.countDown();
+                    }
+                });
+            }
+            iniciadas.await();
+            long salasListas = System.nanoTime();
+            terminadas.await(10, TimeUnit.MINUTES);
+            long fin = System.nanoTime();
+
+            double segundosSalas = (salasListas - inicio) / 1e9;
+            double segundos = (fin - inicio) / 1e9;
+            return new Resultado(partidas, partidas / segundosSalas, jugadas.sum(), jugadas.sum() / segundos, segundos);
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.server.MemoryServer;
+import org.example.memoryfx.server.ServerMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comprueba el comportamiento con un cliente que no lee. Mientras varias parejas de bots juegan con
+ * normalidad, un cliente "estrangulado" (búfer de recepción mínimo, nunca lee) se empareja con otro bot
+ * y manda jugadas sin parar. El servidor debe descartar sus tableros obsoletos, acabar desconectándolo
+ * y que el resto de partidas no lo note.
+ *
+ * Opciones ({@code clave=valor}): {@code pares=20}, {@code tablero=16x16}, {@code pensar=20},
+ * {@code p99max=50} (milisegundos de latencia p99 admitidos en las partidas normales).
+ */
+public class SlowConsumerCheck {
+
+    public static void main(String[] args) throws Exception {
+        int pares = 20;
+        String[] tablero = {"16", "16"};
+        long pensar = 20;
+        double p99Max = 50;
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "pares" -> pares = Integer.parseInt(valor);
+                case "tablero" -> tablero = valor.split("x");
+                case "pensar" -> pensar = Long.parseLong(valor);
+                case "p99max" -> p99Max = Double.parseDouble(valor);
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        int filas = Integer.parseInt(tablero[0]);
+        int columnas = Integer.parseInt(tablero[1]);
+
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setTiempoRevelado(20);
+        server.setLimitesCola(64, 64 * 1024);
+        // El cliente lento tiene que poder llenar su cola de salida; el límite de entrada lo comprueba FloodCheck
+        server.setLimiteComandos(0, 1);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            Thread.sleep(5);
+        }
+        int port = server.getLocalPort();
+
+        Histograma latencias = new Histograma();
+        CountDownLatch iniciadas = new CountDownLatch(pares * 2);
+        List<Bot> bots = new ArrayList<>();
+        for (int i = 0; i < pares * 2; i++) {
+            bots.add(new Bot("localhost", port, filas, columnas, true, pensar, latencias, iniciadas::countDown));
+        }
+        Bot companero = new Bot("localhost", port, filas, columnas, true, pensar, null, () -> { });
+        long[] desconectadoTras = {-1};
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Bot bot : bots) {
+                ejecutor.execute(() -> jugar(bot));
+            }
+            iniciadas.await();
+
+            // Las salas se llenan en orden de llegada: el compañero entra primero y el lento ocupa su hueco
+            ejecutor.execute(() -> jugar(companero));
+            Thread.sleep(200);
+            ejecutor.execute(() -> desconectadoTras[0] = clienteLento(port, filas, columnas));
+
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(5, TimeUnit.MINUTES);
+        } finally {
+            server.stop();
+        }
+
+        long terminadas = bots.stream().filter(Bot::isTerminada).count();
+        double p99 = latencias.percentil(0.99) / 1e6;
+        ServerMetrics m = server.getMetricas();
+        System.out.printf("Partidas normales terminadas: %d de %d%n", terminadas / 2, pares);
+        System.out.printf("Latencia jugada (ms): p50 %.3f  p99 %.3f  max %.3f%n",
+                latencias.percentil(0.5) / 1e6, p99, latencias.percentil(1.0) / 1e6);
+        System.out.printf("Cliente lento desconectado tras %d ms%n", desconectadoTras[0]);
+        System.out.printf("Tableros descartados: %d, clientes lentos desconectados: %d, mensajes por escritura: %.2f%n",
+                m.getMensajesDescartados(), m.getClientesLentosDesconectados(), m.getMensajesPorEscritura());
+
+        boolean ok = true;
+        ok &= comprobar("todas las partidas normales terminan", terminadas == pares * 2L);
+        ok &= comprobar("p99 de las partidas normales por debajo de " + p99Max + " ms", p99 <= p99Max);
+        ok &= comprobar("el cliente lento es desconectado", desconectadoTras[0] >= 0 && m.getClientesLentosDesconectados() >= 1);
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static void jugar(Bot bot) {
+        try (bot) {
+            bot.jugar();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Cliente que no lee nunca y manda jugadas a ciegas hasta que el servidor le cierra la conexión.
+     * Devuelve los milisegundos que tardó en ser desconectado, o -1 si no lo fue en un minuto.
+     */
+    private static long clienteLento(int port, int filas, int columnas) {
+        long inicio = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(1024);
+            socket.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = socket.getOutputStream();
+            // Con su PLAY el servidor no espera a ver si es un cliente antiguo
+            out.write((BoardCodec.JUGAR + "\n").getBytes(StandardCharsets.UTF_8));
+            long limite = inicio + TimeUnit.MINUTES.toNanos(1);
+            while (System.nanoTime() < limite) {
+                for (int i = 0; i < filas; i++) {
+                    for (int j = 0; j < columnas; j++) {
+                        out.write(("MOVE " + i + " " + j + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                out.flush();
+                Thread.sleep(1);
+            }
+            return -1;
+        } catch (IOException e) {
+            // El servidor ha cerrado la conexión
+            return (System.nanoTime() - inicio) / 1_000_000;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.memoryfx.bench;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.HeadlessClient;
+import org.example.memoryfx.core.Histograma;
+import org.example.memoryfx.server.MemoryServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide lo que cuestan los espectadores a los jugadores. Juega dos rondas de partidas entre bots, la
+ * primera sin público y la segunda con muchos espectadores repartidos entre las salas; la mitad entra
+ * al empezar y la otra mitad con la partida ya avanzada. Compara la latencia de las jugadas en las dos
+ * rondas y comprueba que todos los espectadores acaban viendo el tablero completo.
+ *
+ * Opciones ({@code clave=valor}): {@code pares=4}, {@code espectadores=1000}, {@code tablero=8x8},
+ * {@code pensar=10}, {@code tardios=200} (ms que esperan los espectadores tardíos).
+ */
+public class SpectatorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int pares = 4;
+        int numEspectadores = 1000;
+        String[] tablero = {"8", "8"};
+        long pensar = 10;
+        long tardios = 200;
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) continue;
+            String valor = arg.substring(igual + 1);
+            switch (arg.substring(0, igual)) {
+                case "pares" -> pares = Integer.parseInt(valor);
+                case "espectadores" -> numEspectadores = Integer.parseInt(valor);
+                case "tablero" -> tablero = valor.split("x");
+                case "pensar" -> pensar = Long.parseLong(valor);
+                case "tardios" -> tardios = Long.parseLong(valor);
+                default -> System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        int filas = Integer.parseInt(tablero[0]);
+        int columnas = Integer.parseInt(tablero[1]);
+
+        MemoryServer server = new MemoryServer(0, filas, columnas);
+        server.setTiempoRevelado(20);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            Thread.sleep(5);
+        }
+        int port = server.getLocalPort();
+
+        try {
+            Histograma sinPublico = new Histograma();
+            ronda(port, filas, columnas, pares, pensar, sinPublico, 0, 0, new ArrayList<>());
+            Histograma conPublico = new Histograma();
+            List<Espectador> espectadores = new ArrayList<>();
+            ronda(port, filas, columnas, pares, pensar, conPublico, numEspectadores, tardios, espectadores);
+
+            // Las bajas las procesa el hilo difusor después de que se cierren las conexiones
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getMetricas().getEspectadoresActivos() > 0 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            long completos = espectadores.stream().filter(e -> e.vioTableroCompleto(filas * columnas)).count();
+            long fin = espectadores.stream().filter(e -> e.vioFin).count();
+            long bytes = espectadores.stream().mapToLong(e -> e.cliente.getBytesRecibidos()).sum();
+            System.out.printf("Latencia jugada sin espectadores (ms): p50 %.3f  p99 %.3f%n",
+                    sinPublico.percentil(0.5) / 1e6, sinPublico.percentil(0.99) / 1e6);
+            System.out.printf("Latencia jugada con %d espectadores (ms): p50 %.3f  p99 %.3f%n", numEspectadores,
+                    conPublico.percentil(0.5) / 1e6, conPublico.percentil(0.99) / 1e6);
+            System.out.printf("Espectadores: %d vieron el final, %d el tablero completo, %.0f bytes recibidos de media%n",
+                    fin, completos, espectadores.isEmpty() ? 0.0 : (double) bytes / espectadores.size());
+
+            boolean ok = true;
+            ok &= comprobar("todos los espectadores ven el final de su partida", fin == numEspectadores);
+            ok &= comprobar("y el tablero completo y coherente", completos == numEspectadores);
+            ok &= comprobar("ningún espectador sigue contado al terminar", server.getMetricas().getEspectadoresActivos() == 0);
+            System.out.println(ok ? "PASS" : "FAIL");
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void ronda(int port, int filas, int columnas, int pares, long pensar, Histograma latencias,
+                              int numEspectadores, long tardios, List<Espectador> espectadores)
+            throws Exception {
+        CountDownLatch iniciadas = new CountDownLatch(pares * 2);
+        List<Bot> bots = new ArrayList<>();
+        for (int i = 0; i < pares * 2; i++) {
+            bots.add(new Bot("localhost", port, filas, columnas, true, pensar, latencias, iniciadas::countDown));
+        }
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Bot bot : bots) {
+                ejecutor.execute(() -> {
+                    try (bot) {
+                        bot.jugar();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+            iniciadas.await();
+            int[] salas = bots.stream().mapToInt(Bot::getSala).distinct().toArray();
+            for (int i = 0; i < numEspectadores; i++) {
+                espectadores.add(new Espectador(port, salas[i % salas.length]));
+            }
+            for (int i = 0; i < espectadores.size(); i++) {
+                if (i == espectadores.size() / 2) {
+                    Thread.sleep(tardios);
+                }
+                Espectador e = espectadores.get(i);
+                ejecutor.execute(e::mirar);
+            }
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(5, TimeUnit.MINUTES);
+        }
+    }
+
+    private static boolean comprobar(String descripcion, boolean resultado) {
+        System.out.println((resultado ? "  OK    " : "  FALLO ") + descripcion);
+        return resultado;
+    }
+
+    private static class Espectador implements HeadlessClient.Listener {
+        final HeadlessClient cliente;
+        volatile boolean vioFin;
+
+        Espectador(int port, int sala) {
+            cliente = new HeadlessClient("localhost", port, true, this);
+            cliente.setSalaMirada(sala);
+        }
+
+        void mirar() {
+            try {
+                cliente.connect();
+                cliente.escuchar();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                cliente.close();
+            }
+        }
+
+        @Override
+        public void onMensaje(String msg) {
+            if (msg.equals("¡Juego terminado!")) {
+                vioFin = true;
+            }
+        }
+
+        @Override
+        public void onTablero(int[] celdas, int n) {
+        }
+
+        /**
+         * Todas las cartas a la vista y cada id exactamente dos veces: no se ha perdido ningún cambio.
+         */
+        boolean vioTableroCompleto(int celdas) {
+            int[] vistas = new int[celdas / 2 + 1];
+            for (int i = 0; i < celdas; i++) {
+                int valor = cliente.getValor(i);
+                if (valor == BoardCodec.OCULTA || valor >= vistas.length || ++vistas[valor] > 2) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
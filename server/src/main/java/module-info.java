@@ -0,0 +1,7 @@
+module org.example.memoryfx.server {
+    requires transitive org.example.memoryfx.core;
+    requires java.management;
+    requires jdk.httpserver;
+
+    exports org.example.memoryfx.server;
+}
@@ -0,0 +1,109 @@
+package org.example.memoryfx.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instantáneas de las partidas en curso para recuperarlas si el servidor se cae. Cada sala ocupa unas
+ * decenas de bytes: el tablero no se guarda, se vuelve a repartir con la semilla, y de él solo hace falta
+ * el bitset de cartas descubiertas.
+ *
+ * El fichero se escribe entero en uno temporal y se renombra, así que en disco siempre hay una
+ * instantánea completa.
+ */
+public final class AlmacenPartidas {
+
+    static final String FICHERO = "partidas.snap";
+    private static final int MAGIA = 0x4D465853; // "MFXS"
+    private static final int VERSION = 1;
+
+    /**
+     * Estado de una sala en el momento de la instantánea. Si había dos cartas sin pareja a la vista se
+     * guarda como si ya se hubieran escondido y hubiera cambiado el turno.
+     *
+     * @param jugada      0 si le toca levantar la primera carta, 1 si ya levantó {@code filaPrimera, colPrimera}
+     * @param tokens      tokens con los que cada jugador puede volver a su sala
+     */
+    public record EstadoSala(int id, int filas, int columnas, long semilla, long[] reveladas,
+                             int puntos1, int puntos2, int turno, int jugada, int filaPrimera, int colPrimera,
+                             String[] tokens) {
+    }
+
+    private AlmacenPartidas() {
+    }
+
+    public static void guardar(Path directorio, List<EstadoSala> salas, int contadorSalas) throws IOException {
+        Files.createDirectories(directorio);
+        Path temporal = directorio.resolve(FICHERO + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024))) {
+            out.writeInt(MAGIA);
+            out.writeInt(VERSION);
+            out.writeInt(contadorSalas);
+            out.writeInt(salas.size());
+            for (EstadoSala e : salas) {
+                out.writeInt(e.id());
+                out.writeShort(e.filas());
+                out.writeShort(e.columnas());
+                out.writeLong(e.semilla());
+                out.writeShort(e.puntos1());
+                out.writeShort(e.puntos2());
+                out.writeByte(e.turno());
+                out.writeByte(e.jugada());
+                out.writeShort(e.filaPrimera());
+                out.writeShort(e.colPrimera());
+                out.writeUTF(e.tokens()[0]);
+                out.writeUTF(e.tokens()[1]);
+                for (long palabra : e.reveladas()) {
+                    out.writeLong(palabra);
+                }
+            }
+        }
+        Files.move(temporal, directorio.resolve(FICHERO), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee la última instantánea del directorio; lista vacía si no hay ninguna.
+     */
+    public static List<EstadoSala> cargar(Path directorio, int[] contadorSalas) throws IOException {
+        Path fichero = directorio.resolve(FICHERO);
+        List<EstadoSala> salas = new ArrayList<>();
+        if (!Files.exists(fichero)) {
+            return salas;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichero), 64 * 1024))) {
+            if (in.readInt() != MAGIA || in.readInt() != VERSION) {
+                throw new IOException("Instantánea de partidas no válida: " + fichero);
+            }
+            contadorSalas[0] = in.readInt();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                int id = in.readInt();
+                int filas = in.readShort();
+                int columnas = in.readShort();
+                long semilla = in.readLong();
+                int puntos1 = in.readShort();
+                int puntos2 = in.readShort();
+                int turno = in.readByte();
+                int jugada = in.readByte();
+                int filaPrimera = in.readShort();
+                int colPrimera = in.readShort();
+                String[] tokens = {in.readUTF(), in.readUTF()};
+                long[] reveladas = new long[(filas * columnas + 63) >>> 6];
+                for (int j = 0; j < reveladas.length; j++) {
+                    reveladas[j] = in.readLong();
+                }
+                salas.add(new EstadoSala(id, filas, columnas, semilla, reveladas, puntos1, puntos2, turno, jugada,
+                        filaPrimera, colPrimera, tokens));
+            }
+        }
+        return salas;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.memoryfx.server;
+
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Hash consistente de salas a fragmentos del clúster. Cada fragmento ocupa {@code nodosVirtuales} puntos
+ * del anillo y una sala va al primer punto a partir del hash de su id, así que al añadir o quitar un
+ * fragmento solo cambian de sitio las salas de los tramos que ganó o perdió (~1/n). Es inmutable: la
+ * {@link Pasarela} construye uno nuevo cada vez que cambia el conjunto de fragmentos.
+ */
+final class AnilloFragmentos {
+
+    private final TreeMap<Long, String> puntos = new TreeMap<>();
+    private final List<String> fragmentos;
+
+    AnilloFragmentos(List<String> fragmentos, int nodosVirtuales) {
+        if (fragmentos.isEmpty()) {
+            throw new IllegalArgumentException("El anillo necesita al menos un fragmento");
+        }
+        this.fragmentos = List.copyOf(fragmentos);
+        for (String fragmento : fragmentos) {
+            long base = fragmento.hashCode();
+            for (int i = 0; i < nodosVirtuales; i++) {
+                puntos.put(mezclar(base << 32 | i), fragmento);
+            }
+        }
+    }
+
+    String fragmentoDe(long clave) {
+        Long punto = puntos.ceilingKey(mezclar(clave));
+        return puntos.get(punto != null ? punto : puntos.firstKey());
+    }
+
+    List<String> getFragmentos() {
+        return fragmentos;
+    }
+
+    /**
+     * Finalizador de SplitMix64: ids consecutivos quedan repartidos por todo el anillo.
+     */
+    private static long mezclar(long x) {
+        x += 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
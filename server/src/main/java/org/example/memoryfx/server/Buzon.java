@@ -0,0 +1,72 @@
+package org.example.memoryfx.server;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Buzón de órdenes de una sala: las órdenes se ejecutan de una en una y en orden de llegada, así que el
+ * estado que solo tocan ellas no necesita locks. Enviar una orden es añadirla a una cola sin locks; si el
+ * buzón no estaba programado se programa en el ejecutor compartido por todas las salas, que procesa como
+ * mucho {@value #LOTE} órdenes seguidas antes de dejar paso a otras salas.
+ *
+ * Cada orden ve todo lo que escribieron las anteriores aunque corran en otro hilo del ejecutor: entre
+ * una y otra hay siempre el {@code compareAndSet} de {@code programado} y el paso por el ejecutor.
+ */
+final class Buzon {
+
+    private static final int LOTE = 64;
+
+    private final Executor ejecutor;
+    private final Queue<Runnable> ordenes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean programado = new AtomicBoolean();
+
+    Buzon(Executor ejecutor) {
+        this.ejecutor = ejecutor;
+    }
+
+    void enviar(Runnable orden) {
+        ordenes.add(orden);
+        if (programado.compareAndSet(false, true)) {
+            ejecutor.execute(this::procesar);
+        }
+    }
+
+    /**
+     * Envía una orden que devuelve un resultado. Quien espera el resultado no debe ser otra orden de este
+     * mismo buzón. Si la orden falla, el fallo solo se entrega en el futuro: es quien lo espera quien lo trata.
+     */
+    <T> CompletableFuture<T> pedir(Supplier<T> orden) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        enviar(() -> {
+            try {
+                resultado.complete(orden.get());
+            } catch (RuntimeException e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        return resultado;
+    }
+
+    private void procesar() {
+        for (int i = 0; i < LOTE; i++) {
+            Runnable orden = ordenes.poll();
+            if (orden == null) {
+                break;
+            }
+            try {
+                orden.run();
+            } catch (RuntimeException e) {
+                // Una orden que falla no debe dejar la sala sin procesar las siguientes
+                e.printStackTrace();
+            }
+        }
+        programado.set(false);
+        if (!ordenes.isEmpty() && programado.compareAndSet(false, true)) {
+            ejecutor.execute(this::procesar);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+import org.example.memoryfx.core.LectorComandos;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Conexión de un jugador (o de un espectador) con el servidor. Cada handler se ejecuta en su propio hilo virtual,
+ * así que bloquear leyendo no ocupa un hilo del sistema. Lo que se envía pasa por una
+ * {@link ColaSalida} con su propio hilo escritor, de modo que la sala nunca espera a un cliente lento.
+ * Lo que llega se interpreta con un {@link LectorComandos} y pasa por un {@link LimitadorComandos}: un
+ * cliente que inunda al servidor con líneas solo consigue que se le lea más despacio.
+ */
+class ClientHandler implements Runnable {
+    // Lo que espera un cliente antiguo, que no manda primera línea, antes de entrar en el lobby
+    private static final int ESPERA_PRIMERA_LINEA_MS = 1000;
+    // Ninguna línea del protocolo se acerca a esto; las más largas se descartan enteras
+    private static final int TAM_LINEA = 1024;
+    private static final String SIN_PARTIDA = "No hay ninguna partida que recuperar con ese token.";
+
+    private final Socket socket;
+    private final MemoryServer server;
+    private final ServerMetrics metricas;
+    private final ColaSalida salida;
+    private final LectorComandos lector;
+    private final LimitadorComandos limitador;
+    private boolean binario; // protegido por el monitor del handler
+    private GameRoom room;
+    private int playerId;
+
+    ClientHandler(Socket socket, MemoryServer server, ServerMetrics metricas) throws IOException {
+        this.socket = socket;
+        this.server = server;
+        this.metricas = metricas;
+        this.salida = server.crearColaSalida(socket);
+        this.lector = new LectorComandos(socket.getInputStream(), TAM_LINEA);
+        this.limitador = server.crearLimitador();
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public synchronized void sendMessage(String msg) {
+        if (binario) {
+            salida.encolar(BoardCodec.codificarTexto(msg), ColaSalida.MENSAJE);
+        } else {
+            salida.encolar((msg + "\n").getBytes(StandardCharsets.UTF_8), ColaSalida.MENSAJE);
+        }
+    }
+
+    /**
+     * Envía un mensaje ya codificado en los dos formatos; así una difusión lo codifica una sola vez.
+     * Solo hace falta el del modo en que esté el cliente.
+     */
+    public synchronized void sendMessage(byte[] linea, byte[] trama) {
+        salida.encolar(binario ? trama : linea, ColaSalida.MENSAJE);
+    }
+
+    /**
+     * Envía un tablero ya codificado (línea de texto o trama, según {@link #isBinario()}).
+     * Si el cliente va retrasado, los tableros anteriores a uno {@code completo} se pueden descartar.
+     */
+    public synchronized void sendTablero(byte[] datos, boolean completo) {
+        salida.encolar(datos, completo ? ColaSalida.TABLERO_COMPLETO : ColaSalida.TABLERO_PARCIAL);
+    }
+
+    public synchronized boolean isBinario() {
+        return binario;
+    }
+
+    /**
+     * Confirma la negociación del protocolo binario; lo que se envíe después ya va en tramas.
+     */
+    synchronized void activarBinario() {
+        if (!binario) {
+            sendMessage(BoardCodec.ACEPTADO);
+            binario = true;
+        }
+    }
+
+    /**
+     * Cierra la conexión en cuanto se haya enviado lo que queda en la cola.
+     */
+    public void close() {
+        salida.cerrarTrasVaciar();
+    }
+
+    @Override
+    public void run() {
+        metricas.conexionAbierta();
+        Thread.ofVirtual().name("memory-salida").start(salida::escribir);
+        // El cliente dice a qué viene en su primera línea: mirar una sala, volver a su partida o jugar
+        String primeraLinea = leerPrimeraLinea();
+        if (primeraLinea != null && primeraLinea.startsWith(BoardCodec.MIRAR)) {
+            mirar(primeraLinea.substring(BoardCodec.MIRAR.length()).trim());
+            return;
+        }
+        if (primeraLinea != null && primeraLinea.startsWith(BoardCodec.REINCORPORAR)) {
+            reincorporar(primeraLinea.substring(BoardCodec.REINCORPORAR.length()).trim());
+            if (room == null) {
+                // Quien vuelve con un token quiere su partida, no otra con un desconocido
+                close();
+                metricas.conexionCerrada();
+                return;
+            }
+            primeraLinea = null;
+        }
+        // Detrás de una pasarela la sala ya viene elegida
+        int salaPedida = -1;
+        if (primeraLinea != null && primeraLinea.startsWith(BoardCodec.SALA)) {
+            try {
+                salaPedida = Integer.parseInt(primeraLinea.substring(BoardCodec.SALA.length()).trim());
+            } catch (NumberFormatException e) {
+                // Se empareja como cualquier otro
+            }
+            primeraLinea = leerPrimeraLinea();
+        }
+        int filas = server.getFilas();
+        int columnas = server.getColumnas();
+        int memoriaOrdenador = -1;
+        if (primeraLinea != null && primeraLinea.startsWith(BoardCodec.JUGAR)) {
+            String pedido = primeraLinea.substring(BoardCodec.JUGAR.length()).trim();
+            int ordenador = pedido.indexOf(BoardCodec.CONTRA_ORDENADOR);
+            if (ordenador >= 0) {
+                memoriaOrdenador = leerMemoria(pedido.substring(ordenador + BoardCodec.CONTRA_ORDENADOR.length()).trim());
+                pedido = pedido.substring(0, ordenador).trim();
+            }
+            int[] tamano = leerTamano(pedido);
+            if (tamano != null) {
+                filas = tamano[0];
+                columnas = tamano[1];
+            } else if (!pedido.isEmpty()) {
+                sendMessage("Tamaño de tablero no válido; se juega en " + filas + "x" + columnas + ".");
+            }
+            primeraLinea = null;
+        }
+
+        try {
+            if (room == null && !entrarEnSala(salaPedida, filas, columnas, memoriaOrdenador)) {
+                return;
+            }
+            if (primeraLinea != null) {
+                byte[] bytes = primeraLinea.getBytes(StandardCharsets.UTF_8);
+                procesarComando(lector.clasificar(bytes, 0, bytes.length));
+            }
+            int comando;
+            while (!room.isTerminada() && (comando = lector.siguiente()) != LectorComandos.FIN) {
+                frenar();
+                procesarComando(comando);
+            }
+        } catch (IOException e) {
+            // El cierre del socket por fin de partida o por el otro jugador también acaba aquí
+            if (!socket.isClosed()) {
+                e.printStackTrace();
+            }
+        } finally {
+            if (room != null) {
+                room.abandonar(this).join();
+                server.liberarSala(room);
+            }
+            close();
+            metricas.conexionCerrada();
+        }
+    }
+
+    /**
+     * Busca sala al jugador y la deja en {@code room}. Devuelve false, después de decirle por qué, si no se
+     * le puede dar ninguna: el id que trae de la pasarela ya no sirve o, en un fragmento, no trae ninguno.
+     */
+    private boolean entrarEnSala(int salaPedida, int filas, int columnas, int memoriaOrdenador) {
+        if (salaPedida <= 0 && server.isFragmento()) {
+            sendMessage("Este servidor solo admite jugadores a través de la pasarela.");
+            return false;
+        }
+        if (memoriaOrdenador >= 0) {
+            // La sala es solo suya: no pasa por el lobby y no hay que esperar a nadie
+            GameRoom sala = salaPedida > 0
+                    ? server.crearSalaContraOrdenador(salaPedida, filas, columnas, memoriaOrdenador / 100.0)
+                    : server.crearSalaContraOrdenador(filas, columnas, memoriaOrdenador / 100.0);
+            if (sala == null) {
+                return rechazarSala(salaPedida);
+            }
+            return ocupar(sala);
+        }
+        if (salaPedida > 0) {
+            // Con un id de la pasarela no se empareja por otro lado: su pareja va a esa misma sala
+            GameRoom sala = server.asignarSala(salaPedida, filas, columnas);
+            if (sala == null || !ocupar(sala)) {
+                return rechazarSala(salaPedida);
+            }
+            return true;
+        }
+        while (!ocupar(server.asignarSala(filas, columnas))) {
+            // Su primer jugador se fue antes de que llegáramos: se pide otra
+        }
+        return true;
+    }
+
+    private boolean ocupar(GameRoom sala) {
+        int id = sala.unirse(this).join();
+        if (id < 0) {
+            server.liberarSala(sala);
+            return false;
+        }
+        playerId = id;
+        room = sala;
+        return true;
+    }
+
+    private boolean rechazarSala(int sala) {
+        sendMessage("La sala " + sala + " no está disponible.");
+        return false;
+    }
+
+    private void procesarComando(int comando) {
+        switch (comando) {
+            case LectorComandos.MOVIMIENTO -> room.procesarMovimiento(this, lector.getFila(), lector.getColumna());
+            case LectorComandos.BINARIO -> room.activarBinario(this);
+            // No se contesta: a quien manda basura no le sirve de nada la respuesta
+            case LectorComandos.MALFORMADO -> metricas.comandoMalformado();
+            default -> { }
+        }
+    }
+
+    /**
+     * Cada línea leída gasta una ficha; si no quedan, el hilo deja de leer hasta que la haya.
+     */
+    private void frenar() {
+        long espera = limitador.reservar(System.nanoTime());
+        if (espera > 0) {
+            metricas.comandoFrenado();
+            try {
+                Thread.sleep(Duration.ofNanos(espera));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Los clientes antiguos no mandan nada hasta su primera jugada: si no llega nada en
+     * {@code ESPERA_PRIMERA_LINEA_MS} se sigue sin línea y entran como jugadores. Es el precio de la
+     * compatibilidad y lo pagan solo ellos: cada uno espera ese segundo antes de que se le busque pareja.
+     * Todos los clientes de este repositorio empiezan con {@link BoardCodec#JUGAR},
+     * {@link BoardCodec#REINCORPORAR} o {@link BoardCodec#MIRAR} y no esperan nada.
+     */
+    private String leerPrimeraLinea() {
+        try {
+            socket.setSoTimeout(ESPERA_PRIMERA_LINEA_MS);
+            return lector.leerLinea();
+        } catch (IOException e) {
+            return null;
+        } finally {
+            try { socket.setSoTimeout(0); } catch (IOException e) { e.printStackTrace(); }
+        }
+    }
+
+    /**
+     * Lee un tamaño "filas x columnas" pedido por el cliente. Devuelve null si falta o no es válido.
+     */
+    static int[] leerTamano(String texto) {
+        int x = texto.indexOf('x');
+        if (x <= 0) {
+            return null;
+        }
+        try {
+            int filas = Integer.parseInt(texto.substring(0, x));
+            int columnas = Integer.parseInt(texto.substring(x + 1));
+            if (filas > BoardCodec.LADO_MAXIMO || columnas > BoardCodec.LADO_MAXIMO || !GameLogic.esTamanoValido(filas, columnas)) {
+                return null;
+            }
+            return new int[]{filas, columnas};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Memoria del ordenador en tanto por ciento; sin número, memoria perfecta.
+     */
+    private static int leerMemoria(String texto) {
+        if (texto.isEmpty()) {
+            return 100;
+        }
+        try {
+            return Math.clamp(Integer.parseInt(texto), 0, 100);
+        } catch (NumberFormatException e) {
+            return 100;
+        }
+    }
+
+    private void mirar(String numero) {
+        GameRoom sala = null;
+        try {
+            sala = server.buscarSala(Integer.parseInt(numero));
+        } catch (NumberFormatException e) {
+            // Sala no válida: se contesta igual que si no existiera
+        }
+        try {
+            if (sala == null || !sala.mirar(this).join()) {
+                sendMessage("No hay ninguna partida en curso en la sala " + numero + ".");
+                return;
+            }
+            // Lo que mande un espectador no cuenta; se lee solo para saber cuándo se va
+            while (lector.siguiente() != LectorComandos.FIN) {
+                frenar();
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                e.printStackTrace();
+            }
+        } finally {
+            if (sala != null) {
+                sala.dejarDeMirar(this);
+            }
+            close();
+            metricas.conexionCerrada();
+        }
+    }
+
+    private void reincorporar(String token) {
+        GameRoom sala = server.buscarPorToken(token);
+        if (sala == null) {
+            sendMessage(SIN_PARTIDA);
+            return;
+        }
+        int id = sala.reincorporar(this, token).join();
+        if (id < 0) {
+            sendMessage(SIN_PARTIDA);
+            return;
+        }
+        // Hasta aquí el token no se gasta: si la sala no lo admite, sigue valiendo
+        server.tokenUsado(token, sala);
+        playerId = id;
+        room = sala;
+    }
+}
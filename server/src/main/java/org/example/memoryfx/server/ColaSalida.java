@@ -0,0 +1,196 @@
+package org.example.memoryfx.server;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de salida acotada de una conexión. Quien difunde solo encola (nunca bloquea en el socket) y un
+ * hilo escritor propio de la conexión vacía la cola: todo lo pendiente se escribe de una vez y con un
+ * único flush, así que varios mensajes seguidos cuestan una sola llamada al sistema.
+ *
+ * Si el cliente no lee y la cola pasa de sus límites, primero se descartan los tableros que ya
+ * no sirven (todo lo del tablero anterior al último tablero completo encolado); si aun así no cabe,
+ * se desconecta al cliente. Un cliente lento nunca frena la partida del otro jugador.
+ */
+class ColaSalida {
+
+    /** Mensaje normal: nunca se descarta. */
+    static final int MENSAJE = 0;
+    /** Cambio parcial del tablero (delta binario). */
+    static final int TABLERO_PARCIAL = 1;
+    /** Tablero completo (línea de texto o snapshot binario): deja obsoleto todo el tablero anterior. */
+    static final int TABLERO_COMPLETO = 2;
+
+    /** Tiempo que se espera a vaciar la cola al cerrar antes de cortar la conexión. */
+    private static final long PLAZO_CIERRE_MS = 5000;
+
+    private record Entrada(byte[] datos, int tipo) {
+    }
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final ServerMetrics metricas;
+    private final ScheduledExecutorService temporizador;
+    private final int maxMensajes;
+    private final int maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayDatos = lock.newCondition();
+    private final ArrayDeque<Entrada> cola = new ArrayDeque<>();
+    private int bytesEnCola;
+    private boolean cerrando;
+    private boolean cerrada;
+    private long bytesEnviados;
+
+    ColaSalida(Socket socket, ServerMetrics metricas, ScheduledExecutorService temporizador,
+               int maxMensajes, int maxBytes) throws IOException {
+        this.socket = socket;
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+        this.metricas = metricas;
+        this.temporizador = temporizador;
+        this.maxMensajes = maxMensajes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Encola datos ya codificados. Devuelve false si la conexión está cerrada o si, por no caber,
+     * se ha desconectado al cliente.
+     */
+    boolean encolar(byte[] datos, int tipo) {
+        lock.lock();
+        try {
+            if (cerrando || cerrada) {
+                return false;
+            }
+            cola.addLast(new Entrada(datos, tipo));
+            bytesEnCola += datos.length;
+            if (cola.size() > maxMensajes || bytesEnCola > maxBytes) {
+                descartarTablerosObsoletos();
+                if (cola.size() > maxMensajes || bytesEnCola > maxBytes) {
+                    metricas.clienteLentoDesconectado();
+                    cerrarYa();
+                    return false;
+                }
+            }
+            hayDatos.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void descartarTablerosObsoletos() {
+        int ultimoCompleto = -1;
+        int i = 0;
+        for (Entrada e : cola) {
+            if (e.tipo == TABLERO_COMPLETO) {
+                ultimoCompleto = i;
+            }
+            i++;
+        }
+        Iterator<Entrada> it = cola.iterator();
+        for (i = 0; i < ultimoCompleto; i++) {
+            Entrada e = it.next();
+            if (e.tipo != MENSAJE) {
+                it.remove();
+                bytesEnCola -= e.datos.length;
+                metricas.mensajeDescartado();
+            }
+        }
+    }
+
+    /**
+     * Cierra la conexión cuando se haya enviado todo lo pendiente. Si el cliente no lee, el escritor
+     * se quedaría bloqueado para siempre, así que pasado un plazo se corta sin más.
+     */
+    void cerrarTrasVaciar() {
+        lock.lock();
+        try {
+            if (cerrando || cerrada) {
+                return;
+            }
+            cerrando = true;
+            hayDatos.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            temporizador.schedule(this::cerrarYa, PLAZO_CIERRE_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // El servidor se está parando
+            cerrarYa();
+        }
+    }
+
+    /**
+     * Cierra ya, descartando lo pendiente.
+     */
+    void cerrarYa() {
+        lock.lock();
+        try {
+            cerrada = true;
+            cola.clear();
+            bytesEnCola = 0;
+            hayDatos.signal();
+        } finally {
+            lock.unlock();
+        }
+        try { socket.close(); } catch (IOException e) { e.printStackTrace(); }
+    }
+
+    /**
+     * Bucle del hilo escritor: espera datos, los toma todos y los escribe con un solo flush.
+     */
+    void escribir() {
+        List<Entrada> lote = new ArrayList<>();
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    while (cola.isEmpty() && !cerrando && !cerrada) {
+                        hayDatos.awaitUninterruptibly();
+                    }
+                    if (cerrada) {
+                        return;
+                    }
+                    if (cola.isEmpty()) {
+                        // cerrando y ya no queda nada por enviar
+                        break;
+                    }
+                    lote.addAll(cola);
+                    cola.clear();
+                    bytesEnCola = 0;
+                } finally {
+                    lock.unlock();
+                }
+
+                int bytes = 0;
+                for (Entrada e : lote) {
+                    out.write(e.datos);
+                    bytes += e.datos.length;
+                }
+                out.flush();
+                bytesEnviados += bytes;
+                metricas.escritura(lote.size(), bytes);
+                lote.clear();
+            }
+            socket.close();
+        } catch (IOException e) {
+            // El cliente se ha ido: el hilo lector se encargará de cerrar la partida
+            cerrarYa();
+        } finally {
+            metricas.salidaCerrada(bytesEnviados);
+        }
+    }
+}
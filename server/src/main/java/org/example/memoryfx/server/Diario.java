@@ -0,0 +1,231 @@
+package org.example.memoryfx.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Diario de partidas: todas las salas añaden sus eventos (reparto, volteos, parejas, cartas
+ * escondidas, cambios de turno y fin) a ficheros de solo-añadir proyectados en memoria. Escribir un
+ * evento es copiar unos bytes bajo un lock; un hilo aparte lleva a disco lo acumulado cada
+ * {@code intervaloCommit} ms de una vez (commit en grupo), así que la jugada no espera al disco.
+ *
+ * Cada arranque del servidor empieza un segmento nuevo ({@code diario-NNNNNN.mfx}, de
+ * {@value #TAM_SEGMENTO} bytes). Un registro es: tipo (1 byte), sala (int), instante en ms (long)
+ * y los datos del tipo. El tipo se escribe el último, así que un registro a medias se lee como el final
+ * del diario. Se lee con {@link LectorDiario}.
+ */
+public final class Diario implements Closeable {
+
+    static final int PARTIDA = 1;
+    static final int VOLTEO = 2;
+    static final int PAREJA = 3;
+    static final int ESCONDER = 4;
+    static final int TURNO = 5;
+    static final int FIN = 6;
+
+    static final int MAGIA = 0x4D465844; // "MFXD"
+    static final int VERSION = 1;
+    /** Magia, versión e id de ejecución. */
+    static final int CABECERA = 16;
+    static final int TAM_SEGMENTO = 64 * 1024 * 1024;
+    private static final int TAM_MAXIMO_REGISTRO = 13 + 16;
+
+    /** Diario que no guarda nada, para servidores sin directorio de diario. */
+    static final Diario DESACTIVADO = new Diario();
+
+    private final Path directorio;
+    private final long ejecucion;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService commit;
+    private MappedByteBuffer segmento;
+    private int numSegmento;
+    private int posicion;
+    private int posicionEnDisco;
+    private long registros;
+
+    private Diario() {
+        directorio = null;
+        ejecucion = 0;
+        commit = null;
+    }
+
+    /**
+     * @param intervaloCommit milisegundos entre escrituras a disco de lo acumulado
+     */
+    public Diario(Path directorio, long intervaloCommit) throws IOException {
+        this.directorio = directorio;
+        this.ejecucion = System.currentTimeMillis();
+        Files.createDirectories(directorio);
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            numSegmento = ficheros.map(LectorDiario::numeroSegmento).max(Integer::compare).orElse(0);
+        }
+        abrirSegmento();
+        commit = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "memory-diario");
+            t.setDaemon(true);
+            return t;
+        });
+        commit.scheduleWithFixedDelay(this::forzar, intervaloCommit, intervaloCommit, TimeUnit.MILLISECONDS);
+    }
+
+    // Llamar con el lock tomado
+    private void abrirSegmento() throws IOException {
+        if (segmento != null) {
+            segmento.force();
+        }
+        numSegmento++;
+        Path fichero = directorio.resolve(LectorDiario.nombreSegmento(numSegmento));
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // La proyección sigue siendo válida después de cerrar el canal
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAM_SEGMENTO);
+        }
+        segmento.putInt(0, MAGIA);
+        segmento.putInt(4, VERSION);
+        segmento.putLong(8, ejecucion);
+        posicion = CABECERA;
+        posicionEnDisco = 0;
+    }
+
+    void partida(int sala, int filas, int columnas, long semilla) {
+        if (segmento == null) return;
+        lock.lock();
+        try {
+            int p = reservar();
+            segmento.putInt(p + 13, filas);
+            segmento.putInt(p + 17, columnas);
+            segmento.putLong(p + 21, semilla);
+            cerrar(p, PARTIDA, sala, 29);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void volteo(int sala, int jugador, int fila, int col) {
+        if (segmento == null) return;
+        lock.lock();
+        try {
+            int p = reservar();
+            segmento.put(p + 13, (byte) jugador);
+            segmento.putInt(p + 14, fila);
+            segmento.putInt(p + 18, col);
+            cerrar(p, VOLTEO, sala, 22);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void pareja(int sala, int jugador) {
+        registrarJugador(PAREJA, sala, jugador);
+    }
+
+    void turno(int sala, int jugador) {
+        registrarJugador(TURNO, sala, jugador);
+    }
+
+    /**
+     * @param abandono true si la partida acabó porque un jugador se marchó
+     */
+    void fin(int sala, boolean abandono) {
+        registrarJugador(FIN, sala, abandono ? 1 : 0);
+    }
+
+    void esconder(int sala, int fila1, int col1, int fila2, int col2) {
+        if (segmento == null) return;
+        lock.lock();
+        try {
+            int p = reservar();
+            segmento.putInt(p + 13, fila1);
+            segmento.putInt(p + 17, col1);
+            segmento.putInt(p + 21, fila2);
+            segmento.putInt(p + 25, col2);
+            cerrar(p, ESCONDER, sala, 29);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void registrarJugador(int tipo, int sala, int jugador) {
+        if (segmento == null) return;
+        lock.lock();
+        try {
+            int p = reservar();
+            segmento.put(p + 13, (byte) jugador);
+            cerrar(p, tipo, sala, 14);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve dónde empieza el siguiente registro, pasando a otro segmento si ya no cabe.
+     */
+    private int reservar() {
+        if (posicion + TAM_MAXIMO_REGISTRO + 1 > TAM_SEGMENTO) {
+            try {
+                abrirSegmento();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo abrir un segmento nuevo del diario", e);
+            }
+        }
+        return posicion;
+    }
+
+    private void cerrar(int p, int tipo, int sala, int longitud) {
+        segmento.putInt(p + 1, sala);
+        segmento.putLong(p + 5, System.currentTimeMillis());
+        segmento.put(p, (byte) tipo);
+        posicion = p + longitud;
+        registros++;
+    }
+
+    /**
+     * Lleva a disco lo escrito desde el último commit.
+     */
+    void forzar() {
+        MappedByteBuffer buffer;
+        int desde;
+        int hasta;
+        lock.lock();
+        try {
+            buffer = segmento;
+            desde = posicionEnDisco;
+            hasta = posicion;
+            posicionEnDisco = posicion;
+        } finally {
+            lock.unlock();
+        }
+        if (buffer != null && hasta > desde) {
+            buffer.force(desde, hasta - desde);
+        }
+    }
+
+    public long getRegistros() {
+        lock.lock();
+        try {
+            return registros;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (commit == null) {
+            return;
+        }
+        commit.shutdown();
+        forzar();
+    }
+}
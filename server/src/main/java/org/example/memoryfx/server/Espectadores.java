@@ -0,0 +1,140 @@
+package org.example.memoryfx.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Espectadores de una sala. La sala solo codifica cada mensaje o tablero una vez y lo deja en una cola;
+ * el reparto a cada espectador lo hace el hilo difusor compartido, fuera del buzón de la sala y con
+ * {@value #RETARDO_MS} ms de retraso, así que tener miles de espectadores no retrasa las jugadas. Los bytes publicados no se vuelven a tocar: la misma
+ * trama va a la cola de salida de todos.
+ *
+ * Las altas pasan por la misma cola que las tramas, en el orden en que las publica la sala: el espectador
+ * recibe primero el snapshot tomado al entrar y después solo los cambios posteriores.
+ * Los espectadores van siempre en binario.
+ */
+final class Espectadores {
+
+    /**
+     * Lo publicado se reparte con este retraso: los espectadores no juegan, y así cada uno recibe de golpe
+     * todo lo de ese intervalo en una sola escritura en lugar de despertar su hilo escritor por cada trama.
+     */
+    static final long RETARDO_MS = 50;
+
+    private static final int ALTA = 1;
+    private static final int BAJA = 2;
+    private static final int MENSAJE = 3;
+    private static final int TABLERO = 4;
+    private static final int TABLERO_COMPLETO = 5;
+    private static final int FIN = 6;
+
+    private record Evento(int tipo, byte[] datos, ClientHandler handler) {
+    }
+
+    private final ScheduledExecutorService difusor;
+    private final ServerMetrics metricas;
+    private final Queue<Evento> eventos = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean repartoProgramado = new AtomicBoolean();
+    // Solo los toca el hilo difusor
+    private final List<ClientHandler> conectados = new ArrayList<>();
+    private boolean cerrada;
+    // Altas publicadas menos bajas: la sala no codifica nada para espectadores mientras sea 0
+    private final AtomicInteger numEspectadores = new AtomicInteger();
+
+    Espectadores(ScheduledExecutorService difusor, ServerMetrics metricas) {
+        this.difusor = difusor;
+        this.metricas = metricas;
+    }
+
+    boolean isVacia() {
+        return numEspectadores.get() == 0;
+    }
+
+    /**
+     * @param inicio tramas que recibe solo el nuevo espectador antes de las siguientes (snapshot, marcador...)
+     */
+    void alta(ClientHandler handler, byte[]... inicio) {
+        numEspectadores.incrementAndGet();
+        publicar(new Evento(ALTA, null, handler));
+        for (byte[] trama : inicio) {
+            publicar(new Evento(MENSAJE, trama, handler));
+        }
+    }
+
+    void baja(ClientHandler handler) {
+        publicar(new Evento(BAJA, null, handler));
+    }
+
+    void mensaje(byte[] trama) {
+        publicar(new Evento(MENSAJE, trama, null));
+    }
+
+    void tablero(byte[] trama, boolean completo) {
+        publicar(new Evento(completo ? TABLERO_COMPLETO : TABLERO, trama, null));
+    }
+
+    /**
+     * La partida ha terminado: se cierra cada espectador cuando haya recibido lo publicado hasta ahora.
+     */
+    void cerrar() {
+        publicar(new Evento(FIN, null, null));
+    }
+
+    private void publicar(Evento evento) {
+        eventos.add(evento);
+        if (repartoProgramado.compareAndSet(false, true)) {
+            difusor.schedule(this::repartir, RETARDO_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void repartir() {
+        repartoProgramado.set(false);
+        Evento e;
+        while ((e = eventos.poll()) != null) {
+            switch (e.tipo) {
+                case ALTA -> {
+                    if (cerrada) {
+                        numEspectadores.decrementAndGet();
+                        e.handler.close();
+                    } else {
+                        conectados.add(e.handler);
+                        metricas.espectadorConectado();
+                    }
+                }
+                case BAJA -> {
+                    if (conectados.remove(e.handler)) {
+                        metricas.espectadorDesconectado();
+                        numEspectadores.decrementAndGet();
+                    }
+                }
+                case MENSAJE -> {
+                    if (e.handler != null) {
+                        e.handler.sendMessage(null, e.datos);
+                    } else {
+                        for (ClientHandler handler : conectados) {
+                            handler.sendMessage(null, e.datos);
+                        }
+                    }
+                }
+                case TABLERO, TABLERO_COMPLETO -> {
+                    for (ClientHandler handler : conectados) {
+                        handler.sendTablero(e.datos, e.tipo == TABLERO_COMPLETO);
+                    }
+                }
+                case FIN -> {
+                    cerrada = true;
+                    for (ClientHandler handler : conectados) {
+                        handler.close();
+                    }
+                }
+                default -> { }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.GameLogic;
+
+/**
+ * Forma de jugar una partida de memoria sin interfaz: la usan el oponente del ordenador de las salas y el
+ * {@link Simulador}. Quien la usa le cuenta cada carta que se levanta, la juegue quien la juegue, y le pide
+ * casillas cuando le toca; del tablero solo debe mirar qué cartas están boca arriba.
+ *
+ * Las casillas se numeran {@code fila * columnas + columna}.
+ */
+public interface Estrategia {
+
+    /**
+     * Empieza una partida nueva sobre un tablero del mismo tamaño: se olvida todo lo visto.
+     */
+    void nuevaPartida();
+
+    /**
+     * Se ha levantado la carta {@code id} en la casilla {@code celda}.
+     */
+    void recordar(int celda, int id);
+
+    /**
+     * Primera carta del turno. Debe ser una casilla boca abajo.
+     */
+    int elegirPrimera(GameLogic tablero);
+
+    /**
+     * Segunda carta del turno, sabiendo qué carta salió en la primera. Debe ser una casilla boca abajo.
+     */
+    int elegirSegunda(GameLogic tablero, int primera, int idPrimera);
+}
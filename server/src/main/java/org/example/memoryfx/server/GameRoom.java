@@ -0,0 +1,597 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.example.memoryfx.core.GameLogic;
+
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sala de juego: una partida de dos jugadores con su propio {@link GameLogic}.
+ * Los dos {@link ClientHandler} de la sala, el temporizador y el servidor llaman a sus métodos desde
+ * hilos distintos, pero ninguno toca el estado de la partida: cada llamada deja una orden en el
+ * {@link Buzon} de la sala y las órdenes se procesan de una en una en el ejecutor compartido. Así el
+ * estado no necesita locks ni volatile (salvo {@code juegoTerminado}, que se consulta desde fuera) y
+ * muchas salas se reparten unos pocos hilos. Lo que devuelve un resultado lo hace con un
+ * {@link CompletableFuture}.
+ */
+class GameRoom {
+
+    /** Cada cuántos deltas se envía un tablero completo a los clientes binarios, por si alguno se desincroniza. */
+    static final int SNAPSHOT_CADA = 64;
+
+    // El volcado de cada tablero es opcional (nivel DEBUG): por defecto no cuesta E/S en cada jugada
+    private static final System.Logger LOG = System.getLogger(GameRoom.class.getName());
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private final int id;
+    private final GameLogic gameLogic;
+    private final Buzon buzon;
+    private final ScheduledExecutorService temporizador;
+    private final long tiempoRevelado;
+    private final ServerMetrics metricas;
+    private final Diario diario;
+    private final ClientHandler[] jugadores = new ClientHandler[2];
+    private int numJugadores = 0;
+    private int turnoActual = 0; // 0 = Jugador 1, 1 = Jugador 2
+    private volatile boolean juegoTerminado = false; // se lee desde fuera del buzón
+    private int scorePlayer1 = 0;
+    private int scorePlayer2 = 0;
+    private int jugadaActual = 0;
+    private int filaPrimera = -1, colPrimera = -1;
+    private int filaSegunda = -1, colSegunda = -1;
+    private boolean esperandoOcultar = false;
+    private int deltasDesdeSnapshot = 0;
+    private final int[] celdasCambiadas = new int[2];
+    private final int[] valoresCambiados = new int[2];
+    private final Espectadores espectadores;
+    // Con el token un jugador puede volver a su sala tras una caída del servidor
+    private final String[] tokens = new String[2];
+    private boolean restaurada = false;
+    // Creada con el id que eligió la pasarela; solo a estas salas se puede entrar con ese id
+    private boolean dePasarela = false;
+    // Con oponente del ordenador, este ocupa la plaza del Jugador 2 y no tiene ClientHandler
+    private OponenteIA ia;
+    private long pausaIA;
+    private boolean iaPensando = false;
+
+    /**
+     * @param ejecutor       hilos compartidos por todas las salas en los que se procesa su buzón
+     * @param temporizador   planificador compartido por todas las salas para esconder las cartas
+     * @param tiempoRevelado milisegundos que quedan visibles dos cartas que no coinciden
+     * @param difusor        hilo compartido que reparte lo que pasa en las salas a sus espectadores
+     */
+    GameRoom(int id, GameLogic gameLogic, Executor ejecutor, ScheduledExecutorService temporizador,
+             long tiempoRevelado, ScheduledExecutorService difusor, ServerMetrics metricas, Diario diario) {
+        this.id = id;
+        this.gameLogic = gameLogic;
+        this.buzon = new Buzon(ejecutor);
+        this.temporizador = temporizador;
+        this.tiempoRevelado = tiempoRevelado;
+        this.espectadores = new Espectadores(difusor, metricas);
+        this.metricas = metricas;
+        this.diario = diario;
+    }
+
+    /**
+     * Sala recuperada de una instantánea: la partida sigue donde estaba en cuanto vuelvan los dos
+     * jugadores con sus tokens ({@link #reincorporar}).
+     */
+    GameRoom(AlmacenPartidas.EstadoSala estado, Executor ejecutor, ScheduledExecutorService temporizador,
+             long tiempoRevelado, ScheduledExecutorService difusor, ServerMetrics metricas, Diario diario) {
+        this(estado.id(), new GameLogic(estado.filas(), estado.columnas(), estado.semilla()), ejecutor, temporizador,
+                tiempoRevelado, difusor, metricas, diario);
+        gameLogic.setReveladas(estado.reveladas());
+        scorePlayer1 = estado.puntos1();
+        scorePlayer2 = estado.puntos2();
+        turnoActual = estado.turno();
+        jugadaActual = estado.jugada();
+        filaPrimera = estado.filaPrimera();
+        colPrimera = estado.colPrimera();
+        tokens[0] = estado.tokens()[0];
+        tokens[1] = estado.tokens()[1];
+        restaurada = true;
+
+        // En el diario la partida recuperada empieza con lo que ya estaba descubierto y el marcador
+        diario.partida(id, gameLogic.getFilas(), gameLogic.getColumnas(), gameLogic.getSemilla());
+        for (int i = 0; i < gameLogic.getFilas(); i++) {
+            for (int j = 0; j < gameLogic.getColumnas(); j++) {
+                if (gameLogic.isRevelada(i, j)) {
+                    diario.volteo(id, -1, i, j);
+                }
+            }
+        }
+        for (int i = 0; i < scorePlayer1; i++) diario.pareja(id, 0);
+        for (int i = 0; i < scorePlayer2; i++) diario.pareja(id, 1);
+        diario.turno(id, turnoActual);
+    }
+
+    String[] getTokens() {
+        return tokens.clone();
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getFilas() {
+        return gameLogic.getFilas();
+    }
+
+    int getColumnas() {
+        return gameLogic.getColumnas();
+    }
+
+    boolean isTerminada() {
+        return juegoTerminado;
+    }
+
+    /**
+     * Marca la sala como creada con el id de una {@link Pasarela}. Se llama antes de publicarla en el servidor.
+     */
+    void marcarDePasarela() {
+        dePasarela = true;
+    }
+
+    boolean isDePasarela() {
+        return dePasarela;
+    }
+
+    /**
+     * Deja la plaza del Jugador 2 al ordenador. Se llama antes de que entre nadie en la sala.
+     *
+     * @param memoria probabilidad de que recuerde cada carta vista (1 = memoria perfecta)
+     * @param pausa   milisegundos que "piensa" antes de cada carta, para que se le vea jugar
+     */
+    void contraOrdenador(double memoria, long pausa, Random random) {
+        ia = new OponenteIA(gameLogic.getFilas(), gameLogic.getColumnas(), memoria, random);
+        pausaIA = pausa;
+    }
+
+    /**
+     * Añade un jugador a la sala y devuelve su identificador (0 o 1), o -1 si la sala ya está llena, es una
+     * partida recuperada (a esas solo se vuelve con token) o se cerró mientras tanto porque el primer
+     * jugador se marchó. Cuando entra el segundo jugador la partida empieza.
+     */
+    CompletableFuture<Integer> unirse(ClientHandler handler) {
+        return buzon.pedir(() -> procesarUnirse(handler));
+    }
+
+    private int procesarUnirse(ClientHandler handler) {
+        if (juegoTerminado || restaurada || numJugadores == 2) {
+            return -1;
+        }
+        int playerId = numJugadores++;
+        if (ia != null) {
+            numJugadores++;
+        }
+        if (playerId == 0) {
+            // El lobby puede crear una sala que al final no usa; al diario solo llegan las que tienen jugadores
+            diario.partida(id, gameLogic.getFilas(), gameLogic.getColumnas(), gameLogic.getSemilla());
+        }
+        jugadores[playerId] = handler;
+        handler.sendMessage("Bienvenido, eres el Jugador " + (playerId + 1) + " (sala " + id + ")");
+        if (ia != null) {
+            // Estas partidas no se guardan en las instantáneas, así que no hay token con el que volver
+            handler.sendMessage("Juegas contra el ordenador.");
+        } else {
+            tokens[playerId] = nuevoToken(id);
+            handler.sendMessage("TOKEN " + tokens[playerId]);
+        }
+        if (numJugadores == 2) {
+            broadcast("¡Juego iniciado! Turno del Jugador 1");
+            broadcastTablero(-1, -1, -1, -1);
+        } else {
+            handler.sendMessage("Esperando al otro jugador...");
+        }
+        return playerId;
+    }
+
+    /**
+     * El token empieza por el id de la sala para que una {@link Pasarela} sepa a qué fragmento llevarlo.
+     */
+    private static String nuevoToken(int sala) {
+        byte[] bytes = new byte[16];
+        ALEATORIO.nextBytes(bytes);
+        return sala + "-" + HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * Devuelve a su plaza al jugador de una sala recuperada. Devuelve su identificador (0 o 1), o -1 si
+     * el token no es de esta sala o la sala ya se cerró. Cuando están los dos, la partida continúa.
+     */
+    CompletableFuture<Integer> reincorporar(ClientHandler handler, String token) {
+        return buzon.pedir(() -> procesarReincorporar(handler, token));
+    }
+
+    private int procesarReincorporar(ClientHandler handler, String token) {
+        if (juegoTerminado || !restaurada) {
+            return -1;
+        }
+        int playerId = token.equals(tokens[0]) ? 0 : token.equals(tokens[1]) ? 1 : -1;
+        if (playerId < 0 || jugadores[playerId] != null) {
+            return -1;
+        }
+        jugadores[playerId] = handler;
+        numJugadores++;
+        handler.sendMessage("Bienvenido, eres el Jugador " + (playerId + 1) + " (sala " + id + ")");
+        handler.sendMessage("TOKEN " + tokens[playerId]);
+        if (numJugadores == 2) {
+            broadcast("¡Partida recuperada! Turno del Jugador " + (turnoActual + 1));
+            broadcastTablero(-1, -1, -1, -1);
+            broadcastScore();
+            if (jugadaActual == 1) {
+                jugadores[turnoActual].sendMessage("Esperando tu segunda jugada.");
+            }
+        } else {
+            handler.sendMessage("Esperando al otro jugador...");
+        }
+        return playerId;
+    }
+
+    /**
+     * Cierra una sala recuperada a la que no han vuelto los dos jugadores a tiempo.
+     */
+    CompletableFuture<Void> caducar() {
+        return buzon.pedir(() -> {
+            procesarCaducar();
+            return null;
+        });
+    }
+
+    private void procesarCaducar() {
+        if (juegoTerminado || numJugadores == 2) {
+            return;
+        }
+        juegoTerminado = true;
+        diario.fin(id, true);
+        for (ClientHandler handler : jugadores) {
+            if (handler != null) {
+                handler.sendMessage("El otro jugador no ha vuelto. Partida terminada.");
+                handler.close();
+            }
+        }
+        espectadores.cerrar();
+    }
+
+    /**
+     * Estado de la partida para la instantánea, o null si la sala no tiene una partida en curso
+     * (las partidas contra el ordenador no se guardan).
+     */
+    CompletableFuture<AlmacenPartidas.EstadoSala> capturarEstado() {
+        return buzon.pedir(this::procesarCaptura);
+    }
+
+    private AlmacenPartidas.EstadoSala procesarCaptura() {
+        if (juegoTerminado || ia != null || (numJugadores < 2 && !restaurada)) {
+            return null;
+        }
+        long[] reveladas = gameLogic.getReveladas();
+        int turno = turnoActual;
+        int jugada = jugadaActual;
+        int fila = filaPrimera;
+        int col = colPrimera;
+        if (esperandoOcultar) {
+            // Se guarda como si ya se hubieran escondido las dos cartas
+            int celda1 = filaPrimera * gameLogic.getColumnas() + colPrimera;
+            int celda2 = filaSegunda * gameLogic.getColumnas() + colSegunda;
+            reveladas[celda1 >>> 6] &= ~(1L << celda1);
+            reveladas[celda2 >>> 6] &= ~(1L << celda2);
+            turno = (turnoActual + 1) % 2;
+            jugada = 0;
+            fila = col = -1;
+        }
+        return new AlmacenPartidas.EstadoSala(id, gameLogic.getFilas(), gameLogic.getColumnas(), gameLogic.getSemilla(),
+                reveladas, scorePlayer1, scorePlayer2, turno, jugada, fila, col, tokens.clone());
+    }
+
+    /**
+     * Procesa una jugada. Si las dos cartas levantadas no coinciden, se programa en el temporizador
+     * compartido el paso de esconderlas y cambiar de turno, así ningún hilo de E/S se queda dormido.
+     */
+    void procesarMovimiento(ClientHandler handler, int fila, int col) {
+        buzon.enviar(() -> procesarJugada(handler, handler.getPlayerId(), fila, col));
+    }
+
+    /**
+     * @param handler null cuando juega el ordenador
+     */
+    private void procesarJugada(ClientHandler handler, int playerId, int fila, int col) {
+        long inicio = System.nanoTime();
+        if (juegoTerminado || numJugadores < 2) {
+            return;
+        }
+        if (playerId != turnoActual) {
+            metricas.jugadaFueraDeTurno();
+            if (handler != null) handler.sendMessage("No es tu turno.");
+            return;
+        }
+        if (esperandoOcultar) {
+            metricas.jugadaFueraDeTurno();
+            if (handler != null) handler.sendMessage("Espera a que se escondan las cartas.");
+            return;
+        }
+
+        if (!gameLogic.voltearCarta(fila, col)) {
+            metricas.jugadaInvalida();
+            if (handler != null) handler.sendMessage("Movimiento inválido o carta ya revelada. Intenta otra vez.");
+            return;
+        }
+        try {
+            aplicarJugada(handler, playerId, fila, col);
+        } finally {
+            metricas.jugada(System.nanoTime() - inicio);
+        }
+        moverOrdenadorSiLeToca();
+    }
+
+    private void aplicarJugada(ClientHandler handler, int playerId, int fila, int col) {
+        diario.volteo(id, playerId, fila, col);
+        broadcastTablero(fila, col, -1, -1);
+        if (ia != null) {
+            ia.recordar(fila * gameLogic.getColumnas() + col, gameLogic.getIdCarta(fila, col));
+        }
+
+        if (jugadaActual == 0) {
+            filaPrimera = fila;
+            colPrimera = col;
+            jugadaActual = 1;
+            if (handler != null) {
+                handler.sendMessage("Esperando tu segunda jugada.");
+            }
+            return;
+        }
+
+        jugadaActual = 0;
+        if (!gameLogic.comprobarSiCoinciden(filaPrimera, colPrimera, fila, col)) {
+            // filaPrimera/colPrimera se conservan hasta que se escondan las cartas
+            filaSegunda = fila;
+            colSegunda = col;
+            esperandoOcultar = true;
+            temporizador.schedule(() -> buzon.enviar(this::esconderYCambiarTurno), tiempoRevelado, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        if (playerId == 0) {
+            scorePlayer1++;
+        } else {
+            scorePlayer2++;
+        }
+        diario.pareja(id, playerId);
+        broadcast("¡Jugador " + (playerId + 1) + " encontró una pareja!");
+        broadcastScore();
+        filaPrimera = -1;
+        colPrimera = -1;
+        comprobarFinDePartida();
+    }
+
+    private void esconderYCambiarTurno() {
+        esperandoOcultar = false;
+        if (juegoTerminado || filaSegunda < 0) {
+            return;
+        }
+        gameLogic.esconderCartas(filaPrimera, colPrimera, filaSegunda, colSegunda);
+        diario.esconder(id, filaPrimera, colPrimera, filaSegunda, colSegunda);
+        broadcastTablero(filaPrimera, colPrimera, filaSegunda, colSegunda);
+        filaPrimera = colPrimera = filaSegunda = colSegunda = -1;
+        turnoActual = (turnoActual + 1) % 2;
+        diario.turno(id, turnoActual);
+        broadcast("Turno del Jugador " + (turnoActual + 1));
+        moverOrdenadorSiLeToca();
+    }
+
+    /**
+     * Si es el turno del ordenador, programa su siguiente carta tras la pausa. La jugada entra en el
+     * buzón como la de cualquier jugador, así que pasa por las mismas comprobaciones, métricas y diario.
+     */
+    private void moverOrdenadorSiLeToca() {
+        if (ia == null || iaPensando || juegoTerminado || esperandoOcultar || turnoActual != 1) {
+            return;
+        }
+        iaPensando = true;
+        if (pausaIA > 0) {
+            temporizador.schedule(() -> buzon.enviar(this::jugarOrdenador), pausaIA, TimeUnit.MILLISECONDS);
+        } else {
+            buzon.enviar(this::jugarOrdenador);
+        }
+    }
+
+    private void jugarOrdenador() {
+        iaPensando = false;
+        if (juegoTerminado || esperandoOcultar || turnoActual != 1) {
+            return;
+        }
+        int columnas = gameLogic.getColumnas();
+        long inicio = System.nanoTime();
+        int celda = jugadaActual == 0
+                ? ia.elegirPrimera(gameLogic)
+                : ia.elegirSegunda(gameLogic, filaPrimera * columnas + colPrimera, gameLogic.getIdCarta(filaPrimera, colPrimera));
+        metricas.decisionOrdenador(System.nanoTime() - inicio);
+        procesarJugada(null, 1, celda / columnas, celda % columnas);
+    }
+
+    /**
+     * El cliente ha pedido el protocolo binario: se le confirma y se le manda el tablero completo.
+     */
+    void activarBinario(ClientHandler handler) {
+        buzon.enviar(() -> {
+            handler.activarBinario();
+            handler.sendTablero(BoardCodec.codificarSnapshot(gameLogic), true);
+        });
+    }
+
+    /**
+     * Añade un espectador: recibe el tablero y el marcador actuales y, a partir de ahí, lo mismo que los
+     * jugadores salvo los mensajes dirigidos a uno solo. Devuelve false si la partida ya terminó.
+     */
+    CompletableFuture<Boolean> mirar(ClientHandler handler) {
+        return buzon.pedir(() -> procesarMirar(handler));
+    }
+
+    private boolean procesarMirar(ClientHandler handler) {
+        if (juegoTerminado) {
+            return false;
+        }
+        handler.activarBinario();
+        String estado = numJugadores < 2 ? "Esperando al otro jugador..." : "Turno del Jugador " + (turnoActual + 1);
+        espectadores.alta(handler,
+                BoardCodec.codificarTexto("Estás mirando la sala " + id + ". " + estado),
+                BoardCodec.codificarTexto("SCORE: Jugador 1: " + scorePlayer1 + " | Jugador 2: " + scorePlayer2),
+                BoardCodec.codificarSnapshot(gameLogic));
+        return true;
+    }
+
+    void dejarDeMirar(ClientHandler handler) {
+        espectadores.baja(handler);
+    }
+
+    /**
+     * Un jugador ha cerrado la conexión: si la partida seguía en curso se avisa al otro y se da por terminada.
+     */
+    CompletableFuture<Void> abandonar(ClientHandler handler) {
+        return buzon.pedir(() -> {
+            procesarAbandono(handler);
+            return null;
+        });
+    }
+
+    private void procesarAbandono(ClientHandler handler) {
+        if (juegoTerminado) {
+            return;
+        }
+        juegoTerminado = true;
+        diario.fin(id, true);
+        for (ClientHandler otro : jugadores) {
+            if (otro != null && otro != handler) {
+                otro.sendMessage("El otro jugador se ha desconectado. Partida terminada.");
+                otro.close();
+            }
+        }
+        if (!espectadores.isVacia()) {
+            espectadores.mensaje(BoardCodec.codificarTexto("El Jugador " + (handler.getPlayerId() + 1)
+                    + " se ha desconectado. Partida terminada."));
+        }
+        espectadores.cerrar();
+    }
+
+    private void comprobarFinDePartida() {
+        if (!gameLogic.verificarJuegoTerminado()) {
+            return;
+        }
+        broadcast("¡Juego terminado!");
+        String resultado;
+        if (scorePlayer1 > scorePlayer2) {
+            resultado = "Ganador: Jugador 1";
+        } else if (scorePlayer2 > scorePlayer1) {
+            resultado = "Ganador: Jugador 2";
+        } else {
+            resultado = "Empate";
+        }
+        String mensajeFinal = resultado + "\nMarcador final: Jugador 1: " + scorePlayer1 + " | Jugador 2: " + scorePlayer2;
+        broadcast(mensajeFinal);
+        juegoTerminado = true;
+        diario.fin(id, false);
+        for (ClientHandler handler : jugadores) {
+            if (handler != null) {
+                handler.close();
+            }
+        }
+        espectadores.cerrar();
+    }
+
+    /**
+     * Envía un mensaje a los jugadores y a los espectadores, codificándolo una sola vez por formato.
+     */
+    private void broadcast(String message) {
+        byte[] linea = null;
+        byte[] trama = null;
+        for (ClientHandler handler : jugadores) {
+            if (handler == null) continue;
+            // El modo de un jugador solo cambia en activarBinario, que también es una orden de este buzón
+            if (handler.isBinario()) {
+                if (trama == null) trama = BoardCodec.codificarTexto(message);
+            } else if (linea == null) {
+                linea = (message + "\n").getBytes(StandardCharsets.UTF_8);
+            }
+            handler.sendMessage(linea, trama);
+        }
+        if (!espectadores.isVacia()) {
+            espectadores.mensaje(trama != null ? trama : BoardCodec.codificarTexto(message));
+        }
+    }
+
+    /**
+     * Difunde el estado del tablero tras el cambio de hasta dos celdas (fila -1 = sin celda).
+     * Los clientes en texto reciben el tablero entero; los binarios solo el delta, codificado una
+     * vez para todos, salvo cada {@link #SNAPSHOT_CADA} cambios en que se manda un snapshot.
+     * Sin celdas cambiadas se manda siempre el snapshot.
+     */
+    private void broadcastTablero(int fila1, int col1, int fila2, int col2) {
+        long inicio = System.nanoTime();
+        String boardStr = null;
+        byte[] linea = null;
+        byte[] trama = null;
+        boolean tramaCompleta = false;
+        for (ClientHandler handler : jugadores) {
+            if (handler == null) continue;
+            if (!handler.isBinario()) {
+                if (linea == null) {
+                    boardStr = BoardCodec.codificarTableroTexto(gameLogic);
+                    linea = (boardStr + "\n").getBytes(StandardCharsets.UTF_8);
+                }
+                handler.sendTablero(linea, true);
+                continue;
+            }
+            if (trama == null) {
+                trama = codificarCambios(fila1, col1, fila2, col2);
+                // codificarCambios reinicia la cuenta cuando lo que devuelve es un snapshot
+                tramaCompleta = deltasDesdeSnapshot == 0;
+            }
+            handler.sendTablero(trama, tramaCompleta);
+        }
+        if (!espectadores.isVacia()) {
+            if (trama == null) {
+                trama = codificarCambios(fila1, col1, fila2, col2);
+                tramaCompleta = deltasDesdeSnapshot == 0;
+            }
+            espectadores.tablero(trama, tramaCompleta);
+        }
+        metricas.difusion(System.nanoTime() - inicio);
+        if (LOG.isLoggable(Level.DEBUG)) {
+            LOG.log(Level.DEBUG, "Tablero actualizado (sala " + id + "): "
+                    + (boardStr != null ? boardStr : BoardCodec.codificarTableroTexto(gameLogic)));
+        }
+    }
+
+    private byte[] codificarCambios(int fila1, int col1, int fila2, int col2) {
+        if (fila1 < 0 || ++deltasDesdeSnapshot >= SNAPSHOT_CADA) {
+            deltasDesdeSnapshot = 0;
+            return BoardCodec.codificarSnapshot(gameLogic);
+        }
+        int n = 0;
+        n = anotarCambio(n, fila1, col1);
+        n = anotarCambio(n, fila2, col2);
+        return BoardCodec.codificarDelta(celdasCambiadas, valoresCambiados, n);
+    }
+
+    private int anotarCambio(int n, int fila, int col) {
+        if (fila < 0) {
+            return n;
+        }
+        celdasCambiadas[n] = fila * gameLogic.getColumnas() + col;
+        valoresCambiados[n] = BoardCodec.valorCelda(gameLogic, fila, col);
+        return n + 1;
+    }
+
+    private void broadcastScore() {
+        String scoreMsg = "SCORE: Jugador 1: " + scorePlayer1 + " | Jugador 2: " + scorePlayer2;
+        broadcast(scoreMsg);
+    }
+}
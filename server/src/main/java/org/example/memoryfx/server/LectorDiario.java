@@ -0,0 +1,198 @@
+package org.example.memoryfx.server;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Recorre en orden todos los registros de un directorio de {@link Diario}, segmento a segmento.
+ * Tras cada {@link #siguiente()} los getters describen el registro actual; los que no aplican a su
+ * tipo valen -1.
+ */
+public class LectorDiario {
+
+    public static final int PARTIDA = Diario.PARTIDA;
+    public static final int VOLTEO = Diario.VOLTEO;
+    public static final int PAREJA = Diario.PAREJA;
+    public static final int ESCONDER = Diario.ESCONDER;
+    public static final int TURNO = Diario.TURNO;
+    public static final int FIN = Diario.FIN;
+
+    private final List<Path> segmentos;
+    private int indiceSegmento = -1;
+    private MappedByteBuffer segmento;
+    private int posicion;
+    private long ejecucion;
+
+    private int tipo;
+    private int sala;
+    private long instante;
+    private int jugador;
+    private int fila1, col1, fila2, col2;
+    private int filas, columnas;
+    private long semilla;
+
+    public LectorDiario(Path directorio) throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            segmentos = ficheros.filter(f -> numeroSegmento(f) > 0)
+                    .sorted((a, b) -> Integer.compare(numeroSegmento(a), numeroSegmento(b)))
+                    .toList();
+        }
+    }
+
+    static String nombreSegmento(int numero) {
+        return String.format("diario-%06d.mfx", numero);
+    }
+
+    /**
+     * Número del segmento según el nombre del fichero, o 0 si no es un segmento del diario.
+     */
+    static int numeroSegmento(Path fichero) {
+        String nombre = fichero.getFileName().toString();
+        if (!nombre.startsWith("diario-") || !nombre.endsWith(".mfx")) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(nombre.substring("diario-".length(), nombre.length() - ".mfx".length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Avanza al siguiente registro. Devuelve false al llegar al final del diario.
+     */
+    public boolean siguiente() throws IOException {
+        while (segmento == null || !leerRegistro()) {
+            if (!abrirSiguienteSegmento()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean abrirSiguienteSegmento() throws IOException {
+        while (++indiceSegmento < segmentos.size()) {
+            try (FileChannel canal = FileChannel.open(segmentos.get(indiceSegmento), StandardOpenOption.READ)) {
+                if (canal.size() < Diario.CABECERA) continue;
+                segmento = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            }
+            if (segmento.getInt(0) != Diario.MAGIA || segmento.getInt(4) != Diario.VERSION) {
+                System.err.println("Segmento de diario no válido: " + segmentos.get(indiceSegmento));
+                continue;
+            }
+            ejecucion = segmento.getLong(8);
+            posicion = Diario.CABECERA;
+            return true;
+        }
+        segmento = null;
+        return false;
+    }
+
+    private boolean leerRegistro() {
+        if (posicion + 13 > segmento.limit()) {
+            return false;
+        }
+        int p = posicion;
+        tipo = segmento.get(p);
+        if (tipo == 0) {
+            // Resto del segmento sin usar (o un registro que no llegó a completarse)
+            return false;
+        }
+        sala = segmento.getInt(p + 1);
+        instante = segmento.getLong(p + 5);
+        jugador = fila1 = col1 = fila2 = col2 = filas = columnas = -1;
+        semilla = -1;
+        switch (tipo) {
+            case Diario.PARTIDA -> {
+                filas = segmento.getInt(p + 13);
+                columnas = segmento.getInt(p + 17);
+                semilla = segmento.getLong(p + 21);
+                posicion = p + 29;
+            }
+            case Diario.VOLTEO -> {
+                jugador = segmento.get(p + 13);
+                fila1 = segmento.getInt(p + 14);
+                col1 = segmento.getInt(p + 18);
+                posicion = p + 22;
+            }
+            case Diario.ESCONDER -> {
+                fila1 = segmento.getInt(p + 13);
+                col1 = segmento.getInt(p + 17);
+                fila2 = segmento.getInt(p + 21);
+                col2 = segmento.getInt(p + 25);
+                posicion = p + 29;
+            }
+            case Diario.PAREJA, Diario.TURNO, Diario.FIN -> {
+                jugador = segmento.get(p + 13);
+                posicion = p + 14;
+            }
+            default -> {
+                System.err.println("Tipo de registro desconocido " + tipo + " en " + segmentos.get(indiceSegmento));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Instante (ms desde la época) en que arrancó el servidor que escribió el registro. Junto con
+     * la sala identifica una partida: los ids de sala vuelven a empezar en cada arranque.
+     */
+    public long getEjecucion() {
+        return ejecucion;
+    }
+
+    public int getSala() {
+        return sala;
+    }
+
+    public long getInstante() {
+        return instante;
+    }
+
+    /**
+     * Jugador (0 o 1) en VOLTEO, PAREJA y TURNO; en FIN, 1 si la partida acabó por abandono. Un VOLTEO
+     * con -1 es una carta que ya estaba descubierta al recuperar la partida.
+     */
+    public int getJugador() {
+        return jugador;
+    }
+
+    public int getFila1() {
+        return fila1;
+    }
+
+    public int getCol1() {
+        return col1;
+    }
+
+    public int getFila2() {
+        return fila2;
+    }
+
+    public int getCol2() {
+        return col2;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    public long getSemilla() {
+        return semilla;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.memoryfx.server;
+
+/**
+ * Cubo de fichas por conexión: se rellena a {@code porSegundo} fichas por segundo hasta {@code rafaga}
+ * y cada línea que manda el cliente gasta una. Si no quedan, {@link #reservar(long)} dice cuánto hay que
+ * esperar: el handler deja de leer ese tiempo y el exceso se queda en el socket, así que un cliente que
+ * inunda se frena a sí mismo por TCP sin gastar CPU del servidor. Solo lo usa el hilo de su conexión.
+ */
+final class LimitadorComandos {
+
+    private final double fichasPorNano;
+    private final double rafaga;
+    private double fichas;
+    private long ultimo;
+
+    /**
+     * @param porSegundo 0 o menos para no limitar
+     */
+    LimitadorComandos(double porSegundo, int rafaga, long ahora) {
+        this.fichasPorNano = porSegundo / 1e9;
+        this.rafaga = Math.max(1, rafaga);
+        this.fichas = this.rafaga;
+        this.ultimo = ahora;
+    }
+
+    /**
+     * Gasta una ficha. Devuelve 0 si había, o los nanosegundos que faltan para que la haya; en ese caso
+     * la ficha ya queda reservada y basta con esperar ese tiempo.
+     */
+    long reservar(long ahora) {
+        if (fichasPorNano <= 0) {
+            return 0;
+        }
+        fichas = Math.min(rafaga, fichas + (ahora - ultimo) * fichasPorNano);
+        ultimo = ahora;
+        fichas -= 1;
+        if (fichas >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-fichas / fichasPorNano);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.memoryfx.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sala de espera: empareja a los jugadores que piden el mismo tamaño de tablero. Cada tamaño tiene un
+ * único hueco con la sala que espera a su segundo jugador; quien llega y lo encuentra ocupado se lleva esa
+ * sala con un compareAndSet, y si está vacío deja en él una sala nueva. No se toma ningún lock, así que
+ * las llegadas a tamaños distintos no compiten entre sí y las del mismo tamaño solo reintentan un CAS.
+ *
+ * La sala que se devuelve puede haberse cerrado mientras esperaba (su primer jugador se fue): quien la
+ * recibe lo nota al unirse y vuelve a pedir sala.
+ *
+ * @param <S> tipo de sala; el servidor usa {@link GameRoom}
+ */
+public final class Lobby<S> {
+
+    public interface Fabrica<S> {
+        S crear(int filas, int columnas);
+    }
+
+    private final Fabrica<S> fabrica;
+    private final Map<Integer, AtomicReference<S>> esperas = new ConcurrentHashMap<>();
+
+    public Lobby(Fabrica<S> fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    /**
+     * Sala para un jugador que quiere un tablero de ese tamaño: la que estaba esperando, o una nueva en la
+     * que será el primero. Nunca bloquea.
+     */
+    public S emparejar(int filas, int columnas) {
+        AtomicReference<S> espera = hueco(filas, columnas);
+        S nueva = null;
+        while (true) {
+            S sala = espera.get();
+            if (sala != null) {
+                if (espera.compareAndSet(sala, null)) {
+                    return sala;
+                }
+            } else {
+                // Si otro deja su sala antes, la nueva se guarda para el siguiente intento
+                if (nueva == null) {
+                    nueva = fabrica.crear(filas, columnas);
+                }
+                if (espera.compareAndSet(null, nueva)) {
+                    return nueva;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Quita la sala del hueco si sigue esperando en él (por ejemplo, porque se ha cerrado).
+     */
+    public void retirar(int filas, int columnas, S sala) {
+        AtomicReference<S> espera = esperas.get(clave(filas, columnas));
+        if (espera != null) {
+            espera.compareAndSet(sala, null);
+        }
+    }
+
+    private AtomicReference<S> hueco(int filas, int columnas) {
+        int clave = clave(filas, columnas);
+        AtomicReference<S> espera = esperas.get(clave);
+        if (espera == null) {
+            espera = esperas.computeIfAbsent(clave, k -> new AtomicReference<>());
+        }
+        return espera;
+    }
+
+    private static int clave(int filas, int columnas) {
+        return filas << 16 | columnas;
+    }
+}
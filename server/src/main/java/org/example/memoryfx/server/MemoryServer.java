@@ -0,0 +1,488 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.GameLogic;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor de partidas por salas. Acepta conexiones indefinidamente en un único puerto y
+ * empareja a los clientes de dos en dos según el tamaño de tablero que pidan ({@link Lobby}), cada
+ * pareja en una {@link GameRoom} con su propio tablero. Quien no pide tamaño juega con el del servidor.
+ * Cada conexión se atiende en un hilo virtual, de modo que una sola JVM puede mantener
+ * miles de partidas simultáneas.
+ *
+ * Se puede arrancar solo, sin JavaFX:
+ * <pre>
+ * MemoryServer [puerto=12345] [tablero=4x8] [revelado=1000] [pausaOrdenador=700] [metricas=-1]
+ *              [diario=directorio] [recuperacion=directorio] [colaMensajes=1024] [colaBytes=4194304]
+ *              [comandosPorSegundo=100] [rafagaComandos=50] [fragmento=false]
+ * </pre>
+ * Los clientes empiezan diciendo a qué vienen ({@code PLAY}, {@code REJOIN} o {@code WATCH}). Los antiguos,
+ * que no mandan nada hasta su primera jugada, se siguen admitiendo a costa de esperar un segundo antes de
+ * entrar en el lobby.
+ *
+ * Con {@code fragmento=true} el servidor es un fragmento de un clúster y solo admite los jugadores que le
+ * manda la {@link Pasarela}: los ids de sala los pone ella, así que no numera salas por su cuenta.
+ */
+public class MemoryServer {
+
+    /** Cada cuánto se guarda la instantánea de las partidas en curso. */
+    private static final long INTERVALO_INSTANTANEAS_MS = 2000;
+    /** Tiempo que tienen los jugadores de una partida recuperada para volver con su token. */
+    private static final long PLAZO_REINCORPORACION_MS = 5 * 60 * 1000;
+
+    private final int port;
+    private final int filas;
+    private final int columnas;
+    private final Map<Integer, GameRoom> salas = new ConcurrentHashMap<>();
+    private final AtomicInteger contadorSalas = new AtomicInteger();
+    private final Lobby<GameRoom> lobby = new Lobby<>(this::crearSala);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Un único hilo basta para todas las salas: las tareas solo esconden dos cartas y cambian el turno
+    private final ScheduledExecutorService temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "memory-temporizador");
+        t.setDaemon(true);
+        return t;
+    });
+    // Hilos en los que se procesan los buzones de todas las salas, uno por núcleo
+    private final ForkJoinPool ejecutorSalas = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        t.setName("memory-salas-" + t.getPoolIndex());
+        t.setDaemon(true);
+        return t;
+    }, null, true);
+    // Reparte a los espectadores lo que publican las salas; con prioridad baja para no quitar CPU a las jugadas
+    private final ScheduledExecutorService difusor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "memory-espectadores");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private volatile long tiempoRevelado = 1000;
+    private volatile long pausaOrdenador = 700;
+    private volatile int maxMensajesEnCola = 1024;
+    private volatile int maxBytesEnCola = 4 * 1024 * 1024;
+    private volatile double comandosPorSegundo = 100;
+    private volatile int rafagaComandos = 50;
+    private final ServerMetrics metricas = new ServerMetrics(salas::size);
+    private int puertoMetricas = -1;
+    private Path directorioDiario;
+    private volatile Diario diario = Diario.DESACTIVADO;
+    private Path directorioRecuperacion;
+    // Salas recuperadas de una instantánea, por token de jugador, hasta que ese jugador vuelve
+    private final Map<String, GameRoom> porToken = new ConcurrentHashMap<>();
+    private ScheduledExecutorService instantaneas;
+    private volatile long nanosRestauracion = -1;
+    private volatile ServerSocket serverSocket;
+    private volatile boolean fragmento;
+
+    public MemoryServer(int port, int filas, int columnas) {
+        // Se valida aquí el tamaño para fallar antes de aceptar a nadie
+        new GameLogic(filas, columnas);
+        this.port = port;
+        this.filas = filas;
+        this.columnas = columnas;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            } else {
+                System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        String[] tablero = opciones.getOrDefault("tablero", "4x8").split("x");
+        MemoryServer server = new MemoryServer(Integer.parseInt(opciones.getOrDefault("puerto", "12345")),
+                Integer.parseInt(tablero[0]), Integer.parseInt(tablero[1]));
+        server.setTiempoRevelado(Long.parseLong(opciones.getOrDefault("revelado", "1000")));
+        server.setPausaOrdenador(Long.parseLong(opciones.getOrDefault("pausaOrdenador", "700")));
+        server.setPuertoMetricas(Integer.parseInt(opciones.getOrDefault("metricas", "-1")));
+        server.setLimitesCola(Integer.parseInt(opciones.getOrDefault("colaMensajes", "1024")),
+                Integer.parseInt(opciones.getOrDefault("colaBytes", String.valueOf(4 * 1024 * 1024))));
+        server.setLimiteComandos(Double.parseDouble(opciones.getOrDefault("comandosPorSegundo", "100")),
+                Integer.parseInt(opciones.getOrDefault("rafagaComandos", "50")));
+        server.setFragmento(Boolean.parseBoolean(opciones.getOrDefault("fragmento", "false")));
+        if (opciones.containsKey("diario")) {
+            server.setDirectorioDiario(Path.of(opciones.get("diario")));
+        }
+        if (opciones.containsKey("recuperacion")) {
+            server.setDirectorioRecuperacion(Path.of(opciones.get("recuperacion")));
+        }
+
+        // Con Ctrl+C o un kill se cierra el puerto y se espera a que start() guarde la instantánea
+        Thread principal = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            try {
+                principal.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "memory-parada"));
+        server.start();
+    }
+
+    /**
+     * Abre el puerto y atiende conexiones hasta que se llame a {@link #stop()}. Bloquea el hilo llamante.
+     */
+    public void start() {
+        try (ServerSocket ss = new ServerSocket(port, 4096)) {
+            serverSocket = ss;
+            System.out.println("Servidor iniciado en el puerto " + ss.getLocalPort());
+            metricas.registrarJmx(ss.getLocalPort());
+            if (puertoMetricas >= 0) {
+                metricas.iniciarHttp(puertoMetricas);
+            }
+            temporizador.scheduleAtFixedRate(metricas::muestrear, 1, 1, TimeUnit.SECONDS);
+            if (directorioDiario != null) {
+                diario = new Diario(directorioDiario, 10);
+                System.out.println("Diario de partidas en " + directorioDiario.toAbsolutePath());
+            }
+            if (directorioRecuperacion != null) {
+                restaurarPartidas();
+                instantaneas = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "memory-instantaneas");
+                    t.setDaemon(true);
+                    return t;
+                });
+                instantaneas.scheduleWithFixedDelay(this::guardarPartidas, INTERVALO_INSTANTANEAS_MS,
+                        INTERVALO_INSTANTANEAS_MS, TimeUnit.MILLISECONDS);
+            }
+
+            while (!ss.isClosed()) {
+                Socket clientSocket = ss.accept();
+                clientSocket.setTcpNoDelay(true);
+                executor.execute(() -> {
+                    try {
+                        new ClientHandler(clientSocket, this, metricas).run();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+        } catch (IOException e) {
+            if (serverSocket == null || !serverSocket.isClosed()) {
+                e.printStackTrace();
+            }
+        } finally {
+            if (instantaneas != null) {
+                // La última instantánea no puede cruzarse con una periódica que ya esté escribiendo
+                instantaneas.shutdown();
+                try {
+                    instantaneas.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                guardarPartidas();
+            }
+            executor.shutdownNow();
+            temporizador.shutdownNow();
+            ejecutorSalas.shutdown();
+            difusor.shutdownNow();
+            metricas.detener();
+            diario.close();
+        }
+    }
+
+    public void stop() {
+        ServerSocket ss = serverSocket;
+        if (ss != null) {
+            try { ss.close(); } catch (IOException e) { e.printStackTrace(); }
+        }
+    }
+
+    /**
+     * Puerto real en el que escucha el servidor (útil si se arrancó con el puerto 0), o -1 si aún no ha arrancado.
+     */
+    public int getLocalPort() {
+        ServerSocket ss = serverSocket;
+        return ss == null ? -1 : ss.getLocalPort();
+    }
+
+    /**
+     * Milisegundos que quedan a la vista dos cartas que no coinciden. Se aplica a las salas que se creen a partir de ahora.
+     */
+    public void setTiempoRevelado(long millis) {
+        this.tiempoRevelado = millis;
+    }
+
+    /**
+     * Milisegundos que espera el ordenador antes de levantar cada carta; 0 para que juegue sin pausa.
+     * Se aplica a las salas que se creen a partir de ahora.
+     */
+    public void setPausaOrdenador(long millis) {
+        this.pausaOrdenador = millis;
+    }
+
+    /**
+     * Puerto local del endpoint HTTP de métricas: 0 para uno libre, -1 (por defecto) para no abrirlo.
+     * Debe fijarse antes de {@link #start()}.
+     */
+    public void setPuertoMetricas(int puerto) {
+        this.puertoMetricas = puerto;
+    }
+
+    /**
+     * Límites de la cola de salida de cada conexión. Un cliente que no lee y los supera pierde primero
+     * los tableros obsoletos y, si aun así no caben, la conexión. Se aplica a las conexiones nuevas.
+     */
+    public void setLimitesCola(int maxMensajes, int maxBytes) {
+        if (maxMensajes <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Los límites de la cola deben ser positivos");
+        }
+        this.maxMensajesEnCola = maxMensajes;
+        this.maxBytesEnCola = maxBytes;
+    }
+
+    /**
+     * Líneas por segundo que se leen como mucho de cada conexión, con ráfagas de hasta {@code rafaga};
+     * lo que pase de ahí espera en el socket (ver {@link LimitadorComandos}). {@code porSegundo} 0 para no
+     * limitar. Se aplica a las conexiones nuevas.
+     */
+    public void setLimiteComandos(double porSegundo, int rafaga) {
+        if (porSegundo < 0 || rafaga <= 0) {
+            throw new IllegalArgumentException("El límite de comandos no puede ser negativo y la ráfaga debe ser positiva");
+        }
+        this.comandosPorSegundo = porSegundo;
+        this.rafagaComandos = rafaga;
+    }
+
+    /**
+     * true si el servidor es un fragmento de un clúster: solo entran los jugadores que llegan por la
+     * {@link Pasarela} con su id de sala, y los demás se rechazan.
+     */
+    public void setFragmento(boolean fragmento) {
+        this.fragmento = fragmento;
+    }
+
+    boolean isFragmento() {
+        return fragmento;
+    }
+
+    /**
+     * Directorio donde guardar el diario de todas las partidas (ver {@link Diario}); null (por defecto)
+     * para no guardarlo. Debe fijarse antes de {@link #start()}.
+     */
+    public void setDirectorioDiario(Path directorio) {
+        this.directorioDiario = directorio;
+    }
+
+    /**
+     * Directorio para las instantáneas de las partidas en curso; null (por defecto) para no guardarlas.
+     * Al arrancar se recuperan las partidas de la última instantánea y sus jugadores pueden volver con
+     * su token. Debe fijarse antes de {@link #start()}.
+     */
+    public void setDirectorioRecuperacion(Path directorio) {
+        this.directorioRecuperacion = directorio;
+    }
+
+    /**
+     * Nanosegundos que tardó en recuperar las partidas al arrancar, o -1 si no lo hizo.
+     */
+    public long getNanosRestauracion() {
+        return nanosRestauracion;
+    }
+
+    public ServerMetrics getMetricas() {
+        return metricas;
+    }
+
+    public int getSalasActivas() {
+        return salas.size();
+    }
+
+    public int getSalasCreadas() {
+        return contadorSalas.get();
+    }
+
+    /**
+     * Sala para un jugador que quiere un tablero de ese tamaño: la que espera a su segundo jugador o una nueva.
+     */
+    GameRoom asignarSala(int filas, int columnas) {
+        GameRoom sala = lobby.emparejar(filas, columnas);
+        if (!sala.isTerminada() && salas.putIfAbsent(sala.getId(), sala) == null) {
+            metricas.salaCreada();
+        }
+        return sala;
+    }
+
+    /**
+     * Sala nueva en la que el Jugador 2 es el ordenador. No pasa por el lobby: su único jugador humano
+     * entra directamente.
+     *
+     * @param memoria probabilidad de que el ordenador recuerde cada carta vista
+     * @return la sala, o null si ya hay otra con el id que ha elegido la pasarela
+     */
+    GameRoom crearSalaContraOrdenador(int filas, int columnas, double memoria) {
+        return crearSalaContraOrdenador(contadorSalas.incrementAndGet(), filas, columnas, memoria);
+    }
+
+    GameRoom crearSalaContraOrdenador(int id, int filas, int columnas, double memoria) {
+        GameRoom sala = crearSala(id, filas, columnas);
+        sala.contraOrdenador(memoria, pausaOrdenador, new Random());
+        // Un id repetido no sustituye a la sala que ya lo tiene
+        if (salas.putIfAbsent(id, sala) != null) {
+            return null;
+        }
+        contadorSalas.accumulateAndGet(id, Math::max);
+        metricas.salaCreada();
+        return sala;
+    }
+
+    /**
+     * Sala con el id que ha elegido la pasarela de un clúster ({@link Pasarela}): los dos jugadores de la
+     * pareja llegan con el mismo id y el primero la crea. Devuelve null si ese id ya lo tiene una sala que no
+     * se creó así (recuperada, contra el ordenador o numerada por este servidor) o una de otro tamaño.
+     */
+    GameRoom asignarSala(int id, int filas, int columnas) {
+        boolean[] creada = new boolean[1];
+        GameRoom sala = salas.computeIfAbsent(id, k -> {
+            creada[0] = true;
+            GameRoom nueva = crearSala(k, filas, columnas);
+            nueva.marcarDePasarela();
+            return nueva;
+        });
+        if (creada[0]) {
+            contadorSalas.accumulateAndGet(id, Math::max);
+            metricas.salaCreada();
+        }
+        return sala.isDePasarela() && sala.getFilas() == filas && sala.getColumnas() == columnas ? sala : null;
+    }
+
+    private GameRoom crearSala(int filas, int columnas) {
+        return crearSala(contadorSalas.incrementAndGet(), filas, columnas);
+    }
+
+    private GameRoom crearSala(int id, int filas, int columnas) {
+        return new GameRoom(id, new GameLogic(filas, columnas), ejecutorSalas, temporizador,
+                tiempoRevelado, difusor, metricas, diario);
+    }
+
+    int getFilas() {
+        return filas;
+    }
+
+    int getColumnas() {
+        return columnas;
+    }
+
+    ColaSalida crearColaSalida(Socket socket) throws IOException {
+        return new ColaSalida(socket, metricas, temporizador, maxMensajesEnCola, maxBytesEnCola);
+    }
+
+    LimitadorComandos crearLimitador() {
+        return new LimitadorComandos(comandosPorSegundo, rafagaComandos, System.nanoTime());
+    }
+
+    /**
+     * Se llama antes de empezar a aceptar conexiones, así que nadie entra a medias de la recuperación.
+     */
+    private void restaurarPartidas() throws IOException {
+        long inicio = System.nanoTime();
+        int[] contador = new int[1];
+        List<AlmacenPartidas.EstadoSala> estados = AlmacenPartidas.cargar(directorioRecuperacion, contador);
+        contadorSalas.set(Math.max(contadorSalas.get(), contador[0]));
+        for (AlmacenPartidas.EstadoSala estado : estados) {
+            GameRoom sala = new GameRoom(estado, ejecutorSalas, temporizador, tiempoRevelado, difusor, metricas, diario);
+            salas.put(sala.getId(), sala);
+            for (String token : estado.tokens()) {
+                porToken.put(token, sala);
+            }
+            temporizador.schedule(() -> caducar(sala), PLAZO_REINCORPORACION_MS, TimeUnit.MILLISECONDS);
+        }
+        nanosRestauracion = System.nanoTime() - inicio;
+        if (!estados.isEmpty()) {
+            System.out.printf("Recuperadas %d partidas en %.1f ms%n", estados.size(), nanosRestauracion / 1e6);
+        }
+    }
+
+    private void caducar(GameRoom sala) {
+        sala.caducar().thenRun(() -> {
+            for (String token : sala.getTokens()) {
+                porToken.remove(token, sala);
+            }
+            liberarSala(sala);
+        }).exceptionally(e -> {
+            // Nadie espera este futuro: si no se imprime aquí, el fallo se pierde
+            e.printStackTrace();
+            return null;
+        });
+    }
+
+    /**
+     * Guarda la instantánea de todas las salas. Sincronizado: dos guardados a la vez compartirían el
+     * temporal de {@link AlmacenPartidas} y el más antiguo podría quedar como definitivo.
+     */
+    synchronized void guardarPartidas() {
+        // Se piden todas las capturas a la vez: cada sala la hace en su buzón, entre dos jugadas
+        List<CompletableFuture<AlmacenPartidas.EstadoSala>> capturas = new ArrayList<>(salas.size());
+        for (GameRoom sala : salas.values()) {
+            capturas.add(sala.capturarEstado());
+        }
+        List<AlmacenPartidas.EstadoSala> estados = new ArrayList<>(capturas.size());
+        for (CompletableFuture<AlmacenPartidas.EstadoSala> captura : capturas) {
+            AlmacenPartidas.EstadoSala estado = captura.join();
+            if (estado != null) {
+                estados.add(estado);
+            }
+        }
+        try {
+            AlmacenPartidas.guardar(directorioRecuperacion, estados, contadorSalas.get());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    boolean hayPartidasPorRecuperar() {
+        return !porToken.isEmpty();
+    }
+
+    /**
+     * Sala recuperada a la que pertenece el token, o null. El token sigue valiendo hasta que se llame a
+     * {@link #tokenUsado}.
+     */
+    GameRoom buscarPorToken(String token) {
+        return porToken.get(token);
+    }
+
+    /**
+     * El jugador ya ha vuelto a su sala con el token: no sirve otra vez.
+     */
+    void tokenUsado(String token, GameRoom sala) {
+        porToken.remove(token, sala);
+    }
+
+    /**
+     * Sala con ese id si sigue abierta, o null.
+     */
+    GameRoom buscarSala(int id) {
+        return salas.get(id);
+    }
+
+    void liberarSala(GameRoom sala) {
+        if (sala.isTerminada()) {
+            salas.remove(sala.getId());
+            lobby.retirar(sala.getFilas(), sala.getColumnas(), sala);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.GameLogic;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Jugador del ordenador. Vive dentro de su {@link GameRoom}, sin socket: la sala le cuenta cada carta
+ * que se levanta ({@link #recordar}) y le pide la jugada cuando le toca. Del tablero solo mira qué
+ * cartas están boca arriba, igual que un jugador humano. El {@link Simulador} la usa como {@link Estrategia}.
+ *
+ * Recuerda cada carta vista con probabilidad {@code memoria}: con 1 no olvida nada y con 0 juega al azar.
+ * Lo recordado ocupa dos enteros por pareja y un entero por casilla, y las parejas conocidas se apilan al
+ * descubrirse, así que elegir jugada no recorre el tablero salvo cuando quedan muy pocas cartas sin ver.
+ */
+final class OponenteIA implements Estrategia {
+
+    private static final int SONDEOS = 16;
+
+    private final double memoria;
+    private final RandomGenerator random;
+    private final int celdas;
+    // Id recordado en cada casilla (0 = no recordada) y, por id, las dos casillas donde se vio (+1; 0 = ninguna)
+    private final int[] recuerdo;
+    private final int[] casillaA;
+    private final int[] casillaB;
+    // Ids con las dos casillas recordadas, pendientes de levantar
+    private int[] parejasConocidas = new int[16];
+    private int numParejasConocidas;
+
+    /**
+     * @param memoria probabilidad, entre 0 y 1, de recordar cada carta vista
+     */
+    OponenteIA(int filas, int columnas, double memoria, RandomGenerator random) {
+        this.memoria = memoria;
+        this.random = random;
+        this.celdas = filas * columnas;
+        this.recuerdo = new int[celdas];
+        this.casillaA = new int[celdas / 2 + 1];
+        this.casillaB = new int[celdas / 2 + 1];
+    }
+
+    @Override
+    public void nuevaPartida() {
+        Arrays.fill(recuerdo, 0);
+        Arrays.fill(casillaA, 0);
+        Arrays.fill(casillaB, 0);
+        numParejasConocidas = 0;
+    }
+
+    @Override
+    public void recordar(int celda, int id) {
+        if (recuerdo[celda] == id || random.nextDouble() >= memoria) {
+            return;
+        }
+        recuerdo[celda] = id;
+        if (casillaA[id] == 0) {
+            casillaA[id] = celda + 1;
+        } else if (casillaA[id] != celda + 1 && casillaB[id] == 0) {
+            casillaB[id] = celda + 1;
+            if (numParejasConocidas == parejasConocidas.length) {
+                parejasConocidas = Arrays.copyOf(parejasConocidas, parejasConocidas.length * 2);
+            }
+            parejasConocidas[numParejasConocidas++] = id;
+        }
+    }
+
+    /**
+     * Primera carta del turno: una de una pareja ya localizada o, si no conoce ninguna, una sin ver.
+     */
+    @Override
+    public int elegirPrimera(GameLogic tablero) {
+        while (numParejasConocidas > 0) {
+            int id = parejasConocidas[--numParejasConocidas];
+            int a = casillaA[id] - 1;
+            int b = casillaB[id] - 1;
+            if (!revelada(tablero, a) && !revelada(tablero, b)) {
+                // Se deja apilada por si el turno se interrumpe antes de la segunda carta
+                parejasConocidas[numParejasConocidas++] = id;
+                return a;
+            }
+        }
+        return desconocida(tablero, -1);
+    }
+
+    /**
+     * Segunda carta: la pareja de la primera si la recuerda, si no una sin ver.
+     */
+    @Override
+    public int elegirSegunda(GameLogic tablero, int primera, int idPrimera) {
+        int a = casillaA[idPrimera] - 1;
+        int b = casillaB[idPrimera] - 1;
+        int pareja = a == primera ? b : a;
+        if (pareja >= 0 && pareja != primera && !revelada(tablero, pareja) && recuerdo[pareja] == idPrimera) {
+            return pareja;
+        }
+        return desconocida(tablero, primera);
+    }
+
+    private int desconocida(GameLogic tablero, int excluida) {
+        for (int i = 0; i < SONDEOS; i++) {
+            int celda = random.nextInt(celdas);
+            if (celda != excluida && recuerdo[celda] == 0 && !revelada(tablero, celda)) {
+                return celda;
+            }
+        }
+        // Quedan pocas: se recorre desde una posición al azar, primero buscando una sin ver
+        int inicio = random.nextInt(celdas);
+        int cualquiera = -1;
+        for (int i = 0; i < celdas; i++) {
+            int celda = (inicio + i) % celdas;
+            if (celda == excluida || revelada(tablero, celda)) continue;
+            if (recuerdo[celda] == 0) {
+                return celda;
+            }
+            cualquiera = celda;
+        }
+        return cualquiera;
+    }
+
+    private static boolean revelada(GameLogic tablero, int celda) {
+        return tablero.isRevelada(celda / tablero.getColumnas(), celda % tablero.getColumnas());
+    }
+}
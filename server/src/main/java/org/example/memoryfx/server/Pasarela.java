@@ -0,0 +1,420 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.BoardCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pasarela de un clúster de {@link MemoryServer}: los clientes se conectan a ella como a un servidor
+ * normal y ella reparte las salas entre varios procesos servidor (fragmentos), en la misma máquina o en
+ * otras. Solo lee la primera línea de cada conexión para decidir a qué fragmento va; después copia los
+ * bytes en los dos sentidos sin mirarlos, así que el protocolo binario pasa igual.
+ *
+ * <ul>
+ *     <li>{@code PLAY}: la pasarela empareja por tamaño de tablero, da a la pareja un id de sala nuevo y
+ *     la manda al fragmento que le toca a ese id en el anillo ({@link AnilloFragmentos}), precedida de
+ *     {@link BoardCodec#SALA}. Las partidas contra el ordenador llevan id propio sin emparejar.</li>
+ *     <li>{@code WATCH <sala>} y {@code REJOIN <token>}: al fragmento de esa sala (el token empieza por ella).</li>
+ * </ul>
+ *
+ * Añadir o drenar un fragmento solo afecta a las salas nuevas: cada cambio abre una época que empieza
+ * en el siguiente id, y una sala se busca siempre con el anillo de su época. Un fragmento drenado deja de
+ * recibir salas, pero sigue atendiendo las que ya tenía hasta que se apague.
+ *
+ * La pasarela es la única que numera salas: los fragmentos se arrancan con {@code fragmento=true} y así
+ * rechazan a quien no llegue a través de ella. Con {@code contador=fichero} los ids repartidos se apartan
+ * por bloques en ese fichero y un reinicio de la pasarela sigue por encima de todos ellos; sin él vuelve a
+ * empezar en 1 y los fragmentos rechazan a las parejas cuyo id siga en uso.
+ *
+ * <pre>
+ * Pasarela [puerto=12300] fragmentos=host:puerto,host:puerto,... [contador=fichero]
+ * </pre>
+ * Por la entrada estándar acepta {@code añadir host:puerto}, {@code drenar host:puerto} y {@code estado}.
+ */
+public class Pasarela {
+
+    private static final int NODOS_VIRTUALES = 160;
+    private static final int ESPERA_PRIMERA_LINEA_MS = 1000;
+    private static final int LINEA_MAXIMA = 256;
+    /** Ids de sala que se apartan cada vez que se escribe el fichero del contador. */
+    private static final int BLOQUE_SALAS = 1000;
+
+    private record Epoca(int primeraSala, AnilloFragmentos anillo) {
+    }
+
+    private final int port;
+    // Orden creciente de primeraSala; se sustituye entera en cada cambio (protegido por el monitor al escribir)
+    private volatile Epoca[] epocas;
+    private final List<String> activos = new ArrayList<>();
+    // Id de la última sala repartida y sala que espera a su segundo jugador por tamaño; protegidos por el monitor
+    private int contadorSalas;
+    // Último id apartado en el fichero del contador; tampoco se repartirá después de un reinicio
+    private int salasApartadas;
+    private Path ficheroContador;
+    private final Map<String, Integer> esperas = new HashMap<>();
+    private final Map<String, LongAdder> salasPorFragmento = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ServerSocket serverSocket;
+
+    public Pasarela(int port, List<String> fragmentos) {
+        this.port = port;
+        for (String fragmento : fragmentos) {
+            direccion(fragmento);
+            activos.add(fragmento);
+        }
+        epocas = new Epoca[]{new Epoca(1, new AnilloFragmentos(activos, NODOS_VIRTUALES))};
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            } else {
+                System.err.println("Opción desconocida: " + arg);
+            }
+        }
+        if (!opciones.containsKey("fragmentos")) {
+            System.err.println("Falta fragmentos=host:puerto,host:puerto,...");
+            return;
+        }
+        Pasarela pasarela = new Pasarela(Integer.parseInt(opciones.getOrDefault("puerto", "12300")),
+                Arrays.asList(opciones.get("fragmentos").split(",")));
+        if (opciones.containsKey("contador")) {
+            pasarela.setFicheroContador(Path.of(opciones.get("contador")));
+        }
+        Thread consola = new Thread(() -> leerOrdenes(pasarela), "pasarela-consola");
+        consola.setDaemon(true);
+        consola.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(pasarela::stop, "pasarela-parada"));
+        pasarela.start();
+    }
+
+    private static void leerOrdenes(Pasarela pasarela) {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        try {
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                String[] partes = linea.trim().split("\\s+");
+                try {
+                    switch (partes[0]) {
+                        case "añadir" -> pasarela.anadirFragmento(partes[1]);
+                        case "drenar" -> pasarela.drenarFragmento(partes[1]);
+                        case "estado" -> { }
+                        default -> {
+                            System.out.println("Órdenes: añadir host:puerto, drenar host:puerto, estado");
+                            continue;
+                        }
+                    }
+                    System.out.println("Fragmentos activos: " + pasarela.getFragmentosActivos()
+                            + "; salas repartidas: " + pasarela.getSalasPorFragmento());
+                } catch (IllegalArgumentException | IllegalStateException | ArrayIndexOutOfBoundsException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Abre el puerto y atiende conexiones hasta que se llame a {@link #stop()}. Bloquea el hilo llamante.
+     */
+    public void start() {
+        try (ServerSocket ss = new ServerSocket(port, 4096)) {
+            if (ficheroContador != null) {
+                cargarContador();
+            }
+            serverSocket = ss;
+            System.out.println("Pasarela iniciada en el puerto " + ss.getLocalPort() + " con " + getFragmentosActivos());
+            while (!ss.isClosed()) {
+                Socket cliente = ss.accept();
+                cliente.setTcpNoDelay(true);
+                executor.execute(() -> atender(cliente));
+            }
+        } catch (IOException e) {
+            if (serverSocket == null || !serverSocket.isClosed()) {
+                e.printStackTrace();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void stop() {
+        ServerSocket ss = serverSocket;
+        if (ss != null) {
+            try { ss.close(); } catch (IOException e) { e.printStackTrace(); }
+        }
+    }
+
+    /**
+     * Fichero en el que se guarda hasta qué id de sala se ha repartido, para no repetirlos si la pasarela
+     * se reinicia; null (por defecto) para no guardarlo. Debe fijarse antes de {@link #start()}.
+     */
+    public void setFicheroContador(Path fichero) {
+        this.ficheroContador = fichero;
+    }
+
+    /**
+     * Puerto real en el que escucha la pasarela, o -1 si aún no ha arrancado.
+     */
+    public int getLocalPort() {
+        ServerSocket ss = serverSocket;
+        return ss == null ? -1 : ss.getLocalPort();
+    }
+
+    /**
+     * Las salas que se creen a partir de ahora se reparten también en este fragmento.
+     */
+    public synchronized void anadirFragmento(String fragmento) {
+        direccion(fragmento);
+        if (activos.contains(fragmento)) {
+            throw new IllegalStateException("El fragmento " + fragmento + " ya está activo");
+        }
+        activos.add(fragmento);
+        nuevaEpoca();
+    }
+
+    /**
+     * El fragmento deja de recibir salas nuevas; las que ya tiene siguen en él hasta que terminen.
+     */
+    public synchronized void drenarFragmento(String fragmento) {
+        if (!activos.contains(fragmento)) {
+            throw new IllegalStateException("El fragmento " + fragmento + " no está activo");
+        }
+        if (activos.size() == 1) {
+            throw new IllegalStateException("No se puede drenar el último fragmento activo");
+        }
+        activos.remove(fragmento);
+        nuevaEpoca();
+    }
+
+    public synchronized List<String> getFragmentosActivos() {
+        return List.copyOf(activos);
+    }
+
+    /**
+     * Salas nuevas que la pasarela ha mandado a cada fragmento desde que arrancó.
+     */
+    public Map<String, Long> getSalasPorFragmento() {
+        Map<String, Long> copia = new LinkedHashMap<>();
+        salasPorFragmento.forEach((fragmento, n) -> copia.put(fragmento, n.sum()));
+        return copia;
+    }
+
+    // Llamar con el monitor tomado: así ningún id se reparte con el anillo viejo después de abrir la época
+    private void nuevaEpoca() {
+        Epoca[] actuales = epocas;
+        Epoca[] nuevas = Arrays.copyOf(actuales, actuales.length + 1);
+        nuevas[actuales.length] = new Epoca(contadorSalas + 1, new AnilloFragmentos(activos, NODOS_VIRTUALES));
+        epocas = nuevas;
+    }
+
+    /**
+     * Fragmento en el que está (o estará) la sala con ese id.
+     */
+    String fragmentoDeSala(int sala) {
+        Epoca[] actuales = epocas;
+        for (int i = actuales.length - 1; i > 0; i--) {
+            if (sala >= actuales[i].primeraSala()) {
+                return actuales[i].anillo().fragmentoDe(sala);
+            }
+        }
+        return actuales[0].anillo().fragmentoDe(sala);
+    }
+
+    /**
+     * Id de sala para un jugador nuevo: la que espera con ese tamaño o una nueva. {@code emparejar} false
+     * para una sala que no espera a nadie (contra el ordenador).
+     */
+    private synchronized int asignarSala(String tamano, boolean emparejar) throws IOException {
+        if (emparejar) {
+            Integer esperando = esperas.remove(tamano);
+            if (esperando != null) {
+                return esperando;
+            }
+        }
+        if (ficheroContador != null && contadorSalas == salasApartadas) {
+            // Primero se guarda y luego se reparte: un id que no llegó al fichero no sale de aquí
+            guardarContador(salasApartadas + BLOQUE_SALAS);
+        }
+        int sala = ++contadorSalas;
+        if (emparejar) {
+            esperas.put(tamano, sala);
+        }
+        salasPorFragmento.computeIfAbsent(fragmentoDeSala(sala), k -> new LongAdder()).increment();
+        return sala;
+    }
+
+    private synchronized void cargarContador() throws IOException {
+        if (Files.exists(ficheroContador)) {
+            try {
+                contadorSalas = Math.max(contadorSalas, Integer.parseInt(Files.readString(ficheroContador).trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Contador de salas no válido: " + ficheroContador, e);
+            }
+        }
+        salasApartadas = contadorSalas;
+    }
+
+    // Llamar con el monitor tomado
+    private void guardarContador(int apartadas) throws IOException {
+        Path temporal = ficheroContador.resolveSibling(ficheroContador.getFileName() + ".tmp");
+        Files.writeString(temporal, apartadas + "\n");
+        Files.move(temporal, ficheroContador, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        salasApartadas = apartadas;
+    }
+
+    /**
+     * Si el primer jugador se va antes de que llegue el segundo, la sala deja de ofrecerse.
+     */
+    private synchronized void retirarEspera(String tamano, int sala) {
+        esperas.remove(tamano, sala);
+    }
+
+    private void atender(Socket cliente) {
+        String tamanoEsperando = null;
+        int sala = -1;
+        try (cliente) {
+            InputStream in = new BufferedInputStream(cliente.getInputStream());
+            String linea = leerPrimeraLinea(cliente, in);
+            String destino;
+            String cabecera;
+            if (linea != null && linea.startsWith(BoardCodec.MIRAR)) {
+                destino = fragmentoDeSala(leerId(linea.substring(BoardCodec.MIRAR.length())));
+                cabecera = linea + "\n";
+            } else if (linea != null && linea.startsWith(BoardCodec.REINCORPORAR)) {
+                // Si el fragmento no encuentra la partida lo dice y cierra
+                String token = linea.substring(BoardCodec.REINCORPORAR.length()).trim();
+                int guion = token.indexOf('-');
+                destino = fragmentoDeSala(guion > 0 ? leerId(token.substring(0, guion)) : 0);
+                cabecera = linea + "\n";
+            } else {
+                // Jugador nuevo; a los clientes antiguos, que no mandan PLAY, se les pone uno sin tamaño
+                String jugar = BoardCodec.JUGAR;
+                String pedido = "";
+                if (linea != null && linea.startsWith(BoardCodec.JUGAR)) {
+                    jugar = linea;
+                    pedido = linea.substring(BoardCodec.JUGAR.length()).trim();
+                    linea = null;
+                }
+                boolean contraOrdenador = pedido.contains(BoardCodec.CONTRA_ORDENADOR);
+                int[] tamano = ClientHandler.leerTamano(contraOrdenador
+                        ? pedido.substring(0, pedido.indexOf(BoardCodec.CONTRA_ORDENADOR)).trim() : pedido);
+                String clave = tamano == null ? "" : tamano[0] + "x" + tamano[1];
+                sala = asignarSala(clave, !contraOrdenador);
+                if (!contraOrdenador) {
+                    tamanoEsperando = clave;
+                }
+                destino = fragmentoDeSala(sala);
+                cabecera = BoardCodec.SALA + sala + "\n" + jugar + "\n" + (linea != null ? linea + "\n" : "");
+            }
+            puentear(cliente, in, destino, cabecera);
+        } catch (IOException e) {
+            // El cliente o el fragmento cerraron la conexión
+        } finally {
+            if (tamanoEsperando != null) {
+                retirarEspera(tamanoEsperando, sala);
+            }
+        }
+    }
+
+    /**
+     * Conecta con el fragmento, le pasa la cabecera y copia en los dos sentidos hasta que uno de los dos cierre.
+     */
+    private void puentear(Socket cliente, InputStream in, String destino, String cabecera) throws IOException {
+        String[] direccion = direccion(destino);
+        Thread vuelta = null;
+        try (Socket fragmento = new Socket(direccion[0], Integer.parseInt(direccion[1]))) {
+            fragmento.setTcpNoDelay(true);
+            OutputStream haciaFragmento = fragmento.getOutputStream();
+            haciaFragmento.write(cabecera.getBytes(StandardCharsets.UTF_8));
+            haciaFragmento.flush();
+            vuelta = Thread.ofVirtual().name("pasarela-vuelta").start(() -> {
+                try {
+                    fragmento.getInputStream().transferTo(cliente.getOutputStream());
+                } catch (IOException e) {
+                    // Cierre de cualquiera de los dos lados
+                } finally {
+                    try { cliente.close(); } catch (IOException e) { e.printStackTrace(); }
+                }
+            });
+            in.transferTo(haciaFragmento);
+        } finally {
+            // Al cerrarse el fragmento termina también la copia de vuelta
+            if (vuelta != null) {
+                try {
+                    vuelta.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Primera línea del cliente, o null si no manda nada en {@code ESPERA_PRIMERA_LINEA_MS} (clientes
+     * antiguos, que por eso tardan un segundo más en tener sala).
+     * Se lee byte a byte de un stream con buffer para no consumir nada de lo que va detrás.
+     */
+    private static String leerPrimeraLinea(Socket cliente, InputStream in) throws IOException {
+        ByteArrayOutputStream linea = new ByteArrayOutputStream();
+        try {
+            cliente.setSoTimeout(ESPERA_PRIMERA_LINEA_MS);
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0 || linea.size() == LINEA_MAXIMA) {
+                    throw new IOException("Primera línea no válida");
+                }
+                linea.write(b);
+            }
+        } catch (SocketTimeoutException e) {
+            return null;
+        } finally {
+            cliente.setSoTimeout(0);
+        }
+        String texto = linea.toString(StandardCharsets.UTF_8);
+        return texto.endsWith("\r") ? texto.substring(0, texto.length() - 1) : texto;
+    }
+
+    private static int leerId(String texto) {
+        try {
+            return Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String[] direccion(String fragmento) {
+        int dosPuntos = fragmento.lastIndexOf(':');
+        if (dosPuntos <= 0 || !fragmento.substring(dosPuntos + 1).matches("\\d{1,5}")) {
+            throw new IllegalArgumentException("Fragmento no válido (host:puerto): " + fragmento);
+        }
+        return new String[]{fragmento.substring(0, dosPuntos), fragmento.substring(dosPuntos + 1)};
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.GameLogic;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Herramienta de línea de comandos para el {@link Diario} de partidas.
+ *
+ * <pre>
+ * ReproductorDiario &lt;directorio&gt;                       lista las partidas guardadas
+ * ReproductorDiario &lt;directorio&gt; sala=N [ejecucion=X]  reproduce una partida
+ *     [hasta=K]       se detiene tras el evento K de la partida y muestra el estado en ese punto
+ *     [velocidad=V]   1 = tiempo real, 10 = diez veces más rápido, 0 (por defecto) = sin esperas
+ * </pre>
+ *
+ * Si no se indica la ejecución se usa la última en la que aparece esa sala.
+ */
+public class ReproductorDiario {
+
+    private final GameLogic logica;
+    private final int[] puntos = new int[2];
+    private int eventos;
+    private boolean terminada;
+
+    private ReproductorDiario(int filas, int columnas, long semilla) {
+        this.logica = new GameLogic(filas, columnas, semilla);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Uso: ReproductorDiario <directorio> [sala=N] [ejecucion=X] [hasta=K] [velocidad=V]");
+            System.exit(2);
+        }
+        Path directorio = Path.of(args[0]);
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int igual = args[i].indexOf('=');
+            if (igual > 0) {
+                opciones.put(args[i].substring(0, igual), args[i].substring(igual + 1));
+            }
+        }
+        if (!opciones.containsKey("sala")) {
+            listar(directorio);
+            return;
+        }
+        int sala = Integer.parseInt(opciones.get("sala"));
+        long ejecucion = opciones.containsKey("ejecucion")
+                ? Long.parseLong(opciones.get("ejecucion"))
+                : ultimaEjecucion(directorio, sala);
+        if (ejecucion < 0) {
+            System.err.println("No hay ninguna partida con sala " + sala);
+            System.exit(1);
+        }
+        int hasta = Integer.parseInt(opciones.getOrDefault("hasta", String.valueOf(Integer.MAX_VALUE)));
+        double velocidad = Double.parseDouble(opciones.getOrDefault("velocidad", "0"));
+        reproducir(directorio, ejecucion, sala, hasta, velocidad);
+    }
+
+    private static void listar(Path directorio) throws IOException {
+        record Resumen(long ejecucion, int sala, int filas, int columnas, int[] volteos, int[] puntos, String[] fin) {
+        }
+        Map<String, Resumen> partidas = new LinkedHashMap<>();
+        LectorDiario lector = new LectorDiario(directorio);
+        while (lector.siguiente()) {
+            String clave = lector.getEjecucion() + ":" + lector.getSala();
+            if (lector.getTipo() == LectorDiario.PARTIDA) {
+                partidas.put(clave, new Resumen(lector.getEjecucion(), lector.getSala(), lector.getFilas(),
+                        lector.getColumnas(), new int[1], new int[2], new String[]{"en curso"}));
+                continue;
+            }
+            Resumen r = partidas.get(clave);
+            if (r == null) continue;
+            switch (lector.getTipo()) {
+                case LectorDiario.VOLTEO -> r.volteos[0]++;
+                case LectorDiario.PAREJA -> r.puntos[lector.getJugador()]++;
+                case LectorDiario.FIN -> r.fin[0] = lector.getJugador() == 1 ? "abandonada" : "terminada";
+                default -> { }
+            }
+        }
+        System.out.printf("%-15s %6s %9s %8s %9s  %s%n", "ejecucion", "sala", "tablero", "volteos", "marcador", "estado");
+        for (Resumen r : partidas.values()) {
+            System.out.printf("%-15d %6d %9s %8d %9s  %s%n", r.ejecucion, r.sala, r.filas + "x" + r.columnas,
+                    r.volteos[0], r.puntos[0] + "-" + r.puntos[1], r.fin[0]);
+        }
+    }
+
+    private static long ultimaEjecucion(Path directorio, int sala) throws IOException {
+        long ultima = -1;
+        LectorDiario lector = new LectorDiario(directorio);
+        while (lector.siguiente()) {
+            if (lector.getTipo() == LectorDiario.PARTIDA && lector.getSala() == sala) {
+                ultima = lector.getEjecucion();
+            }
+        }
+        return ultima;
+    }
+
+    private static void reproducir(Path directorio, long ejecucion, int sala, int hasta, double velocidad)
+            throws IOException, InterruptedException {
+        ReproductorDiario partida = null;
+        long instanteAnterior = -1;
+        LectorDiario lector = new LectorDiario(directorio);
+        while (lector.siguiente()) {
+            if (lector.getEjecucion() != ejecucion || lector.getSala() != sala) continue;
+            if (lector.getTipo() == LectorDiario.PARTIDA) {
+                partida = new ReproductorDiario(lector.getFilas(), lector.getColumnas(), lector.getSemilla());
+                System.out.printf("Sala %d: tablero %dx%d, semilla %d%n", sala, lector.getFilas(), lector.getColumnas(), lector.getSemilla());
+                instanteAnterior = lector.getInstante();
+                continue;
+            }
+            if (partida == null) continue;
+            if (velocidad > 0 && instanteAnterior >= 0) {
+                long espera = (long) ((lector.getInstante() - instanteAnterior) / velocidad);
+                if (espera > 0) {
+                    Thread.sleep(espera);
+                }
+            }
+            instanteAnterior = lector.getInstante();
+            partida.aplicar(lector);
+            if (partida.eventos >= hasta || partida.terminada) {
+                break;
+            }
+        }
+        if (partida == null) {
+            System.err.println("La partida no está en el diario");
+            return;
+        }
+        System.out.printf("Estado tras %d eventos%s:%n", partida.eventos, partida.terminada ? " (fin)" : "");
+        partida.imprimirTablero();
+    }
+
+    private void aplicar(LectorDiario r) {
+        eventos++;
+        String texto = switch (r.getTipo()) {
+            case LectorDiario.VOLTEO -> {
+                logica.voltearCarta(r.getFila1(), r.getCol1());
+                if (r.getJugador() < 0) {
+                    // Cartas que ya estaban descubiertas al recuperar la partida tras reiniciar el servidor
+                    yield "Recuperada (" + r.getFila1() + "," + r.getCol1() + "): carta " + logica.getIdCarta(r.getFila1(), r.getCol1());
+                }
+                yield "Jugador " + (r.getJugador() + 1) + " voltea (" + r.getFila1() + "," + r.getCol1()
+                        + "): carta " + logica.getIdCarta(r.getFila1(), r.getCol1());
+            }
+            case LectorDiario.PAREJA -> {
+                puntos[r.getJugador()]++;
+                yield "Jugador " + (r.getJugador() + 1) + " encuentra pareja. Marcador " + puntos[0] + "-" + puntos[1];
+            }
+            case LectorDiario.ESCONDER -> {
+                logica.esconderCartas(r.getFila1(), r.getCol1(), r.getFila2(), r.getCol2());
+                yield "Se esconden (" + r.getFila1() + "," + r.getCol1() + ") y (" + r.getFila2() + "," + r.getCol2() + ")";
+            }
+            case LectorDiario.TURNO -> "Turno del Jugador " + (r.getJugador() + 1);
+            case LectorDiario.FIN -> {
+                terminada = true;
+                yield r.getJugador() == 1 ? "Partida abandonada" : "Partida terminada. Marcador " + puntos[0] + "-" + puntos[1];
+            }
+            default -> "Evento desconocido " + r.getTipo();
+        };
+        System.out.printf("%5d  %s%n", eventos, texto);
+    }
+
+    private void imprimirTablero() {
+        int ancho = String.valueOf(logica.getFilas() * logica.getColumnas() / 2).length();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < logica.getFilas(); i++) {
+            for (int j = 0; j < logica.getColumnas(); j++) {
+                String celda = logica.isRevelada(i, j) ? String.valueOf(logica.getIdCarta(i, j)) : ".";
+                sb.append(" ".repeat(ancho - celda.length() + 1)).append(celda);
+            }
+            sb.append('\n');
+        }
+        System.out.print(sb);
+    }
+}
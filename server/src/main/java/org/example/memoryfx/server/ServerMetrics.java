@@ -0,0 +1,349 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.Histograma;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Métricas del servidor. Los contadores son {@link LongAdder} y los tiempos van a {@link Histograma},
+ * así que registrar algo desde las salas no toma ningún lock. Se publican por JMX y, si se pide,
+ * en un endpoint HTTP local en formato de texto ({@code GET /metrics}).
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    private final IntSupplier salasActivas;
+    private final AtomicInteger conexionesActivas = new AtomicInteger();
+    private final AtomicInteger espectadoresActivos = new AtomicInteger();
+    private final LongAdder conexionesTotales = new LongAdder();
+    private final LongAdder salasCreadas = new LongAdder();
+    private final LongAdder jugadas = new LongAdder();
+    private final LongAdder jugadasInvalidas = new LongAdder();
+    private final LongAdder jugadasFueraDeTurno = new LongAdder();
+    private final LongAdder comandosMalformados = new LongAdder();
+    private final LongAdder comandosFrenados = new LongAdder();
+    private final LongAdder bytesEnviados = new LongAdder();
+    private final LongAdder escrituras = new LongAdder();
+    private final LongAdder mensajesEscritos = new LongAdder();
+    private final LongAdder mensajesDescartados = new LongAdder();
+    private final LongAdder clientesLentosDesconectados = new LongAdder();
+    private final Histograma latenciaJugada = new Histograma();
+    private final Histograma difusion = new Histograma();
+    private final Histograma decisionOrdenador = new Histograma();
+    private final Histograma bytesPorCliente = new Histograma();
+
+    private long jugadasUltimaMuestra;
+    private long instanteUltimaMuestra = System.nanoTime();
+    private volatile double jugadasPorSegundo;
+
+    private ObjectName nombreJmx;
+    private HttpServer http;
+
+    ServerMetrics(IntSupplier salasActivas) {
+        this.salasActivas = salasActivas;
+    }
+
+    void conexionAbierta() {
+        conexionesActivas.incrementAndGet();
+        conexionesTotales.increment();
+    }
+
+    void conexionCerrada() {
+        conexionesActivas.decrementAndGet();
+    }
+
+    /**
+     * El hilo escritor de una conexión ha terminado tras enviar {@code bytes} en total.
+     */
+    void salidaCerrada(long bytes) {
+        bytesPorCliente.registrar(bytes);
+    }
+
+    void espectadorConectado() {
+        espectadoresActivos.incrementAndGet();
+    }
+
+    void espectadorDesconectado() {
+        espectadoresActivos.decrementAndGet();
+    }
+
+    void salaCreada() {
+        salasCreadas.increment();
+    }
+
+    void jugada(long nanos) {
+        jugadas.increment();
+        latenciaJugada.registrar(nanos);
+    }
+
+    void jugadaInvalida() {
+        jugadasInvalidas.increment();
+    }
+
+    void jugadaFueraDeTurno() {
+        jugadasFueraDeTurno.increment();
+    }
+
+    void comandoMalformado() {
+        comandosMalformados.increment();
+    }
+
+    void comandoFrenado() {
+        comandosFrenados.increment();
+    }
+
+    void difusion(long nanos) {
+        difusion.registrar(nanos);
+    }
+
+    void decisionOrdenador(long nanos) {
+        decisionOrdenador.registrar(nanos);
+    }
+
+    /**
+     * Una escritura (un flush al socket) con {@code mensajes} mensajes agrupados.
+     */
+    void escritura(int mensajes, int bytes) {
+        escrituras.increment();
+        mensajesEscritos.add(mensajes);
+        bytesEnviados.add(bytes);
+    }
+
+    void mensajeDescartado() {
+        mensajesDescartados.increment();
+    }
+
+    void clienteLentoDesconectado() {
+        clientesLentosDesconectados.increment();
+    }
+
+    /**
+     * Recalcula las tasas por segundo. El servidor lo llama una vez por segundo desde su temporizador.
+     */
+    synchronized void muestrear() {
+        long ahora = System.nanoTime();
+        long total = jugadas.sum();
+        double segundos = (ahora - instanteUltimaMuestra) / 1e9;
+        if (segundos > 0) {
+            jugadasPorSegundo = (total - jugadasUltimaMuestra) / segundos;
+        }
+        jugadasUltimaMuestra = total;
+        instanteUltimaMuestra = ahora;
+    }
+
+    void registrarJmx(int puerto) {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            nombreJmx = new ObjectName("org.example.memoryfx:type=MemoryServer,port=" + puerto);
+            mbs.registerMBean(this, nombreJmx);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Arranca el endpoint HTTP en la interfaz de loopback; solo es accesible desde la propia máquina.
+     */
+    void iniciarHttp(int puerto) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        http.createContext("/metrics", intercambio -> {
+            byte[] cuerpo = comoTexto().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream os = intercambio.getResponseBody()) {
+                os.write(cuerpo);
+            }
+        });
+        http.start();
+        System.out.println("Métricas en http://" + http.getAddress().getHostString() + ":" + http.getAddress().getPort() + "/metrics");
+    }
+
+    int getPuertoHttp() {
+        return http == null ? -1 : http.getAddress().getPort();
+    }
+
+    void detener() {
+        if (http != null) {
+            http.stop(0);
+        }
+        if (nombreJmx != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(nombreJmx);
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public String comoTexto() {
+        StringBuilder sb = new StringBuilder(1024);
+        linea(sb, "memoryfx_conexiones_activas", getConexionesActivas());
+        linea(sb, "memoryfx_conexiones_totales", conexionesTotales.sum());
+        linea(sb, "memoryfx_espectadores_activos", getEspectadoresActivos());
+        linea(sb, "memoryfx_salas_activas", getSalasActivas());
+        linea(sb, "memoryfx_salas_creadas", getSalasCreadas());
+        linea(sb, "memoryfx_jugadas", getJugadas());
+        linea(sb, "memoryfx_jugadas_por_segundo", getJugadasPorSegundo());
+        linea(sb, "memoryfx_jugadas_invalidas", getJugadasInvalidas());
+        linea(sb, "memoryfx_jugadas_fuera_de_turno", getJugadasFueraDeTurno());
+        linea(sb, "memoryfx_comandos_malformados", getComandosMalformados());
+        linea(sb, "memoryfx_comandos_frenados", getComandosFrenados());
+        linea(sb, "memoryfx_bytes_enviados", getBytesEnviados());
+        linea(sb, "memoryfx_bytes_por_cliente_media", getBytesPorClienteMedia());
+        linea(sb, "memoryfx_escrituras", getEscrituras());
+        linea(sb, "memoryfx_mensajes_por_escritura", getMensajesPorEscritura());
+        linea(sb, "memoryfx_mensajes_descartados", getMensajesDescartados());
+        linea(sb, "memoryfx_clientes_lentos_desconectados", getClientesLentosDesconectados());
+        percentiles(sb, "memoryfx_latencia_jugada_micros", latenciaJugada);
+        percentiles(sb, "memoryfx_difusion_micros", difusion);
+        percentiles(sb, "memoryfx_decision_ordenador_micros", decisionOrdenador);
+        return sb.toString();
+    }
+
+    private static void linea(StringBuilder sb, String nombre, double valor) {
+        sb.append(nombre).append(' ').append(valor).append('\n');
+    }
+
+    private static void linea(StringBuilder sb, String nombre, long valor) {
+        sb.append(nombre).append(' ').append(valor).append('\n');
+    }
+
+    private static void percentiles(StringBuilder sb, String nombre, Histograma h) {
+        sb.append(nombre).append("_count ").append(h.getTotal()).append('\n');
+        sb.append(nombre).append("{quantile=\"0.5\"} ").append(micros(h.percentil(0.5))).append('\n');
+        sb.append(nombre).append("{quantile=\"0.99\"} ").append(micros(h.percentil(0.99))).append('\n');
+        sb.append(nombre).append("{quantile=\"0.999\"} ").append(micros(h.percentil(0.999))).append('\n');
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    @Override
+    public int getConexionesActivas() {
+        return conexionesActivas.get();
+    }
+
+    @Override
+    public int getEspectadoresActivos() {
+        return espectadoresActivos.get();
+    }
+
+    @Override
+    public int getSalasActivas() {
+        return salasActivas.getAsInt();
+    }
+
+    @Override
+    public long getSalasCreadas() {
+        return salasCreadas.sum();
+    }
+
+    @Override
+    public long getJugadas() {
+        return jugadas.sum();
+    }
+
+    @Override
+    public double getJugadasPorSegundo() {
+        return jugadasPorSegundo;
+    }
+
+    @Override
+    public long getJugadasInvalidas() {
+        return jugadasInvalidas.sum();
+    }
+
+    @Override
+    public long getJugadasFueraDeTurno() {
+        return jugadasFueraDeTurno.sum();
+    }
+
+    @Override
+    public long getComandosMalformados() {
+        return comandosMalformados.sum();
+    }
+
+    @Override
+    public long getComandosFrenados() {
+        return comandosFrenados.sum();
+    }
+
+    @Override
+    public long getBytesEnviados() {
+        return bytesEnviados.sum();
+    }
+
+    @Override
+    public double getBytesPorClienteMedia() {
+        return bytesPorCliente.getMedia();
+    }
+
+    @Override
+    public long getEscrituras() {
+        return escrituras.sum();
+    }
+
+    @Override
+    public double getMensajesPorEscritura() {
+        long n = escrituras.sum();
+        return n == 0 ? 0 : (double) mensajesEscritos.sum() / n;
+    }
+
+    @Override
+    public long getMensajesDescartados() {
+        return mensajesDescartados.sum();
+    }
+
+    @Override
+    public long getClientesLentosDesconectados() {
+        return clientesLentosDesconectados.sum();
+    }
+
+    @Override
+    public double getLatenciaJugadaP50Micros() {
+        return micros(latenciaJugada.percentil(0.5));
+    }
+
+    @Override
+    public double getLatenciaJugadaP99Micros() {
+        return micros(latenciaJugada.percentil(0.99));
+    }
+
+    @Override
+    public double getLatenciaJugadaP999Micros() {
+        return micros(latenciaJugada.percentil(0.999));
+    }
+
+    @Override
+    public double getDifusionP50Micros() {
+        return micros(difusion.percentil(0.5));
+    }
+
+    @Override
+    public double getDifusionP99Micros() {
+        return micros(difusion.percentil(0.99));
+    }
+
+    @Override
+    public double getDecisionOrdenadorP50Micros() {
+        return micros(decisionOrdenador.percentil(0.5));
+    }
+
+    @Override
+    public double getDecisionOrdenadorP99Micros() {
+        return micros(decisionOrdenador.percentil(0.99));
+    }
+}
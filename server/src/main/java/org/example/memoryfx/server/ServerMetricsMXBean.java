@@ -0,0 +1,74 @@
+package org.example.memoryfx.server;
+
+/**
+ * Vista JMX de {@link ServerMetrics}. Las latencias se publican en microsegundos.
+ */
+public interface ServerMetricsMXBean {
+
+    int getConexionesActivas();
+
+    /**
+     * Conexiones que están mirando una sala sin jugar; también cuentan en {@link #getConexionesActivas()}.
+     */
+    int getEspectadoresActivos();
+
+    int getSalasActivas();
+
+    long getSalasCreadas();
+
+    long getJugadas();
+
+    double getJugadasPorSegundo();
+
+    long getJugadasInvalidas();
+
+    long getJugadasFueraDeTurno();
+
+    /**
+     * Líneas que empezaban por MOVE y no se pudieron interpretar; se descartan sin contestar.
+     */
+    long getComandosMalformados();
+
+    /**
+     * Veces que se dejó de leer una conexión por superar su límite de comandos por segundo.
+     */
+    long getComandosFrenados();
+
+    long getBytesEnviados();
+
+    /**
+     * Bytes enviados de media a cada cliente, contando las conexiones ya cerradas.
+     */
+    double getBytesPorClienteMedia();
+
+    /**
+     * Escrituras al socket: cada una agrupa todos los mensajes que había en la cola de la conexión.
+     */
+    long getEscrituras();
+
+    double getMensajesPorEscritura();
+
+    /**
+     * Tableros obsoletos descartados de las colas de clientes que no leían a tiempo.
+     */
+    long getMensajesDescartados();
+
+    long getClientesLentosDesconectados();
+
+    double getLatenciaJugadaP50Micros();
+
+    double getLatenciaJugadaP99Micros();
+
+    double getLatenciaJugadaP999Micros();
+
+    double getDifusionP50Micros();
+
+    double getDifusionP99Micros();
+
+    /**
+     * Lo que tarda el oponente del ordenador en decidir cada carta.
+     */
+    double getDecisionOrdenadorP50Micros();
+
+    double getDecisionOrdenadorP99Micros();
+}
@@ -0,0 +1,267 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.GameLogic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulación de Monte Carlo de partidas completas sin servidor ni red, para estudiar estrategias y
+ * tamaños de tablero (por ejemplo, cuánta ventaja tiene quien empieza en un 4x8 frente a un 5x6).
+ *
+ * <pre>
+ * Simulador [tableros=4x8,5x6] [partidas=1000000] [j1=100] [j2=100] [semilla=1] [hilos=núcleos]
+ * </pre>
+ *
+ * {@code j1} y {@code j2} son las estrategias de cada jugador: un número es el {@link OponenteIA} con ese
+ * tanto por ciento de memoria (0 = al azar, 100 = memoria perfecta). El Jugador 1 empieza siempre.
+ *
+ * Las partidas se reparten en tramos de {@value #TRAMO} con fork/join. Cada partida se juega con la
+ * semilla {@code semilla + número de partida} y cada tramo con su propio generador, así que el
+ * resultado no depende del número de hilos. Dentro de un tramo no se reserva memoria: el tablero y
+ * las estrategias se reutilizan de una partida a otra.
+ */
+public class Simulador {
+
+    private static final int TRAMO = 4096;
+
+    /**
+     * Crea la estrategia de un jugador para un tablero; cada tramo tiene las suyas.
+     */
+    public interface Fabrica {
+        Estrategia crear(int filas, int columnas, RandomGenerator random);
+    }
+
+    /**
+     * Resultados agregados de un conjunto de partidas. Los tramos se suman con {@link #sumar}.
+     */
+    public static final class Estadisticas {
+        private final int parejas;
+        private long partidas;
+        private final long[] victorias = new long[3]; // Jugador 1, Jugador 2, empate
+        private long turnos;
+        private long volteos;
+        // turnosPorPartida[t]: partidas que duraron t turnos (el último cubre las más largas)
+        private final long[] turnosPorPartida;
+        // puntosJugador1[p]: partidas en que el Jugador 1 terminó con p parejas
+        private final long[] puntosJugador1;
+
+        Estadisticas(int parejas) {
+            this.parejas = parejas;
+            this.turnosPorPartida = new long[4 * parejas + 2];
+            this.puntosJugador1 = new long[parejas + 1];
+        }
+
+        void sumar(Estadisticas otras) {
+            partidas += otras.partidas;
+            turnos += otras.turnos;
+            volteos += otras.volteos;
+            for (int i = 0; i < victorias.length; i++) victorias[i] += otras.victorias[i];
+            for (int i = 0; i < turnosPorPartida.length; i++) turnosPorPartida[i] += otras.turnosPorPartida[i];
+            for (int i = 0; i < puntosJugador1.length; i++) puntosJugador1[i] += otras.puntosJugador1[i];
+        }
+
+        public long getPartidas() {
+            return partidas;
+        }
+
+        /**
+         * Fracción de partidas que gana el Jugador 1 (0), el Jugador 2 (1) o que acaban en empate (2).
+         */
+        public double getTasa(int resultado) {
+            return partidas == 0 ? 0 : (double) victorias[resultado] / partidas;
+        }
+
+        public double getTurnosMedia() {
+            return partidas == 0 ? 0 : (double) turnos / partidas;
+        }
+
+        public double getVolteosMedia() {
+            return partidas == 0 ? 0 : (double) volteos / partidas;
+        }
+
+        public int percentilTurnos(double p) {
+            return percentil(turnosPorPartida, p);
+        }
+
+        public int percentilPuntosJugador1(double p) {
+            return percentil(puntosJugador1, p);
+        }
+
+        private int percentil(long[] cuentas, double p) {
+            long objetivo = (long) Math.ceil(p * partidas);
+            long acumulado = 0;
+            for (int i = 0; i < cuentas.length; i++) {
+                acumulado += cuentas[i];
+                if (acumulado >= objetivo && acumulado > 0) {
+                    return i;
+                }
+            }
+            return cuentas.length - 1;
+        }
+    }
+
+    private final int filas;
+    private final int columnas;
+    private final Fabrica jugador1;
+    private final Fabrica jugador2;
+    private final long semilla;
+
+    public Simulador(int filas, int columnas, Fabrica jugador1, Fabrica jugador2, long semilla) {
+        // Se valida aquí el tamaño para fallar antes de repartir trabajo
+        if (!GameLogic.esTamanoValido(filas, columnas)) {
+            throw new IllegalArgumentException("Tamaño de tablero no soportado: " + filas + "x" + columnas);
+        }
+        this.filas = filas;
+        this.columnas = columnas;
+        this.jugador1 = jugador1;
+        this.jugador2 = jugador2;
+        this.semilla = semilla;
+    }
+
+    /**
+     * Estrategia {@link OponenteIA} con esa memoria, entre 0 y 1.
+     */
+    public static Fabrica conMemoria(double memoria) {
+        return (f, c, random) -> new OponenteIA(f, c, memoria, random);
+    }
+
+    /**
+     * Juega las partidas {@code [0, partidas)} en el pool y devuelve los resultados agregados.
+     */
+    public Estadisticas simular(long partidas, ForkJoinPool pool) {
+        return pool.invoke(new Tramos(0, partidas));
+    }
+
+    // RecursiveTask es Serializable, pero las tareas solo viven dentro del pool: nunca se serializan
+    @SuppressWarnings("serial")
+    private final class Tramos extends RecursiveTask<Estadisticas> {
+        private final long desde;
+        private final long hasta;
+
+        Tramos(long desde, long hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected Estadisticas compute() {
+            if (hasta - desde <= TRAMO) {
+                return jugarTramo(desde, hasta);
+            }
+            // Se parte por un múltiplo de TRAMO para que los tramos hoja sean siempre los mismos
+            long mitad = desde + ((hasta - desde) / 2 + TRAMO - 1) / TRAMO * TRAMO;
+            Tramos izquierda = new Tramos(desde, mitad);
+            izquierda.fork();
+            Estadisticas resultado = new Tramos(mitad, hasta).compute();
+            resultado.sumar(izquierda.join());
+            return resultado;
+        }
+    }
+
+    private Estadisticas jugarTramo(long desde, long hasta) {
+        GameLogic tablero = new GameLogic(filas, columnas, semilla + desde);
+        RandomGenerator random = new SplittableRandom(semilla * 31 + desde);
+        Estrategia[] jugadores = {jugador1.crear(filas, columnas, random), jugador2.crear(filas, columnas, random)};
+        Estadisticas estadisticas = new Estadisticas(filas * columnas / 2);
+        for (long partida = desde; partida < hasta; partida++) {
+            tablero.repartir(semilla + partida);
+            jugar(tablero, jugadores, estadisticas);
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Una partida con las reglas de {@link GameRoom}: quien acierta sigue y quien falla pasa el turno.
+     */
+    private void jugar(GameLogic tablero, Estrategia[] jugadores, Estadisticas estadisticas) {
+        jugadores[0].nuevaPartida();
+        jugadores[1].nuevaPartida();
+        int turno = 0;
+        int turnos = 1;
+        int volteos = 0;
+        int puntos1 = 0;
+        int puntos2 = 0;
+        while (!tablero.verificarJuegoTerminado()) {
+            Estrategia jugador = jugadores[turno];
+            int primera = jugador.elegirPrimera(tablero);
+            int idPrimera = voltear(tablero, jugadores, primera);
+            int segunda = jugador.elegirSegunda(tablero, primera, idPrimera);
+            int idSegunda = voltear(tablero, jugadores, segunda);
+            volteos += 2;
+            if (idPrimera == idSegunda) {
+                if (turno == 0) puntos1++;
+                else puntos2++;
+            } else {
+                tablero.esconderCartas(primera / columnas, primera % columnas, segunda / columnas, segunda % columnas);
+                turno ^= 1;
+                turnos++;
+            }
+        }
+        estadisticas.partidas++;
+        estadisticas.turnos += turnos;
+        estadisticas.volteos += volteos;
+        estadisticas.victorias[puntos1 > puntos2 ? 0 : puntos2 > puntos1 ? 1 : 2]++;
+        estadisticas.turnosPorPartida[Math.min(turnos, estadisticas.turnosPorPartida.length - 1)]++;
+        estadisticas.puntosJugador1[puntos1]++;
+    }
+
+    private int voltear(GameLogic tablero, Estrategia[] jugadores, int celda) {
+        int fila = celda / columnas;
+        int col = celda % columnas;
+        if (!tablero.voltearCarta(fila, col)) {
+            throw new IllegalStateException("La estrategia ha elegido una casilla no válida: " + celda);
+        }
+        int id = tablero.getIdCarta(fila, col);
+        jugadores[0].recordar(celda, id);
+        jugadores[1].recordar(celda, id);
+        return id;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual > 0) {
+                opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+            }
+        }
+        String[] tableros = opciones.getOrDefault("tableros", "4x8,5x6").split(",");
+        long partidas = Long.parseLong(opciones.getOrDefault("partidas", "1000000"));
+        int memoria1 = Integer.parseInt(opciones.getOrDefault("j1", "100"));
+        int memoria2 = Integer.parseInt(opciones.getOrDefault("j2", "100"));
+        long semilla = Long.parseLong(opciones.getOrDefault("semilla", "1"));
+        int hilos = Integer.parseInt(opciones.getOrDefault("hilos",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        System.out.printf("%d partidas por tablero, Jugador 1 con memoria %d %%, Jugador 2 con memoria %d %%, %d hilos%n",
+                partidas, memoria1, memoria2, hilos);
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            for (String tamano : tableros) {
+                String[] partes = tamano.trim().split("x");
+                Simulador simulador = new Simulador(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]),
+                        conMemoria(memoria1 / 100.0), conMemoria(memoria2 / 100.0), semilla);
+                // Una ronda corta antes para que el JIT compile el bucle de juego
+                simulador.simular(Math.min(partidas, 20 * TRAMO), pool);
+                long inicio = System.nanoTime();
+                Estadisticas e = simulador.simular(partidas, pool);
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+                System.out.printf("%s: gana J1 %.2f %% | gana J2 %.2f %% | empate %.2f %%%n", tamano.trim(),
+                        100 * e.getTasa(0), 100 * e.getTasa(1), 100 * e.getTasa(2));
+                System.out.printf("    turnos por partida: media %.1f  p50 %d  p99 %d; volteos por partida %.1f%n",
+                        e.getTurnosMedia(), e.percentilTurnos(0.5), e.percentilTurnos(0.99), e.getVolteosMedia());
+                System.out.printf("    parejas del J1 (de %d): p10 %d  p50 %d  p90 %d%n", e.parejas,
+                        e.percentilPuntosJugador1(0.1), e.percentilPuntosJugador1(0.5), e.percentilPuntosJugador1(0.9));
+                System.out.printf("    %.2f s: %.0f partidas/s, %.0f partidas/s por hilo%n",
+                        segundos, e.getPartidas() / segundos, e.getPartidas() / segundos / hilos);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
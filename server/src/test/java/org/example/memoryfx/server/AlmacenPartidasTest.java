@@ -0,0 +1,84 @@
+package org.example.memoryfx.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlmacenPartidasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void instantaneaIdaYVuelta() throws IOException {
+        AlmacenPartidas.EstadoSala enCurso = new AlmacenPartidas.EstadoSala(7, 4, 8, 123_456_789L,
+                new long[]{0b1010_0000_0011L}, 2, 1, 1, 1, 3, 5, new String[]{"7-aaaa", "7-bbbb"});
+        // Tablero de más de 64 celdas: el bitset ocupa varias palabras
+        AlmacenPartidas.EstadoSala grande = new AlmacenPartidas.EstadoSala(12, 10, 20, -1L,
+                new long[]{-1L, 0L, 1L << 63, 0xFFL}, 0, 0, 0, 0, -1, -1, new String[]{"12-cccc", "12-dddd"});
+        AlmacenPartidas.guardar(directorio, List.of(enCurso, grande), 42);
+
+        int[] contador = new int[1];
+        List<AlmacenPartidas.EstadoSala> leidas = AlmacenPartidas.cargar(directorio, contador);
+
+        assertEquals(42, contador[0]);
+        assertEquals(2, leidas.size());
+        assertIgual(enCurso, leidas.get(0));
+        assertIgual(grande, leidas.get(1));
+    }
+
+    @Test
+    void sinInstantaneaNoHayPartidas() throws IOException {
+        int[] contador = {-1};
+
+        assertTrue(AlmacenPartidas.cargar(directorio, contador).isEmpty());
+        assertEquals(-1, contador[0]);
+    }
+
+    @Test
+    void laUltimaInstantaneaSustituyeALaAnterior() throws IOException {
+        AlmacenPartidas.EstadoSala sala = new AlmacenPartidas.EstadoSala(1, 2, 2, 5, new long[1], 0, 0, 0, 0, -1, -1,
+                new String[]{"1-a", "1-b"});
+        AlmacenPartidas.guardar(directorio, List.of(sala), 1);
+        AlmacenPartidas.guardar(directorio, List.of(), 3);
+
+        int[] contador = new int[1];
+        assertTrue(AlmacenPartidas.cargar(directorio, contador).isEmpty());
+        assertEquals(3, contador[0]);
+        // No queda el temporal a la vista
+        try (var ficheros = Files.list(directorio)) {
+            assertEquals(List.of(directorio.resolve(AlmacenPartidas.FICHERO)), ficheros.toList());
+        }
+    }
+
+    @Test
+    void unFicheroAjenoNoSeLee() throws IOException {
+        Files.write(directorio.resolve(AlmacenPartidas.FICHERO), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> AlmacenPartidas.cargar(directorio, new int[1]));
+    }
+
+    private static void assertIgual(AlmacenPartidas.EstadoSala esperado, AlmacenPartidas.EstadoSala leido) {
+        assertEquals(esperado.id(), leido.id());
+        assertEquals(esperado.filas(), leido.filas());
+        assertEquals(esperado.columnas(), leido.columnas());
+        assertEquals(esperado.semilla(), leido.semilla());
+        assertArrayEquals(esperado.reveladas(), leido.reveladas());
+        assertEquals(esperado.puntos1(), leido.puntos1());
+        assertEquals(esperado.puntos2(), leido.puntos2());
+        assertEquals(esperado.turno(), leido.turno());
+        assertEquals(esperado.jugada(), leido.jugada());
+        assertEquals(esperado.filaPrimera(), leido.filaPrimera());
+        assertEquals(esperado.colPrimera(), leido.colPrimera());
+        assertArrayEquals(esperado.tokens(), leido.tokens());
+    }
+}
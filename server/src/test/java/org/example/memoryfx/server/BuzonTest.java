@@ -0,0 +1,109 @@
+package org.example.memoryfx.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BuzonTest {
+
+    private final ForkJoinPool ejecutor = new ForkJoinPool(4);
+
+    @AfterEach
+    void parar() {
+        ejecutor.shutdownNow();
+    }
+
+    @Test
+    void lasOrdenesSeEjecutanEnOrdenDeLlegada() {
+        Buzon buzon = new Buzon(ejecutor);
+        // Sin sincronizar: el buzón garantiza que las órdenes no se solapan y que cada una ve las anteriores
+        List<Integer> ejecutadas = new ArrayList<>();
+        int ordenes = 10_000;
+        for (int i = 0; i < ordenes; i++) {
+            int n = i;
+            buzon.enviar(() -> ejecutadas.add(n));
+        }
+
+        assertEquals(ordenes, buzon.pedir(ejecutadas::size).join());
+        for (int i = 0; i < ordenes; i++) {
+            assertEquals(i, ejecutadas.get(i));
+        }
+    }
+
+    @Test
+    void nuncaHayDosOrdenesALaVezAunqueLleguenDeVariosHilos() throws InterruptedException {
+        Buzon buzon = new Buzon(ejecutor);
+        int[] contador = {0};
+        boolean[] solapadas = {false};
+        boolean[] enCurso = {false};
+        int hilos = 8;
+        int porHilo = 5_000;
+        try (ExecutorService productores = Executors.newFixedThreadPool(hilos)) {
+            for (int h = 0; h < hilos; h++) {
+                productores.execute(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        buzon.enviar(() -> {
+                            solapadas[0] |= enCurso[0];
+                            enCurso[0] = true;
+                            contador[0]++;
+                            enCurso[0] = false;
+                        });
+                    }
+                });
+            }
+            productores.shutdown();
+            productores.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        assertEquals(hilos * porHilo, buzon.pedir(() -> contador[0]).join());
+        assertFalse(buzon.pedir(() -> solapadas[0]).join());
+    }
+
+    @Test
+    void unaOrdenQueFallaNoDetieneLasSiguientes() {
+        Buzon buzon = new Buzon(ejecutor);
+
+        CompletableFuture<Integer> fallida = buzon.pedir(() -> {
+            throw new IllegalStateException("prueba");
+        });
+        CompletableFuture<String> siguiente = buzon.pedir(() -> "sigue");
+
+        CompletionException e = assertThrows(CompletionException.class, fallida::join);
+        assertEquals(IllegalStateException.class, e.getCause().getClass());
+        assertEquals("sigue", siguiente.join());
+    }
+
+    @Test
+    void elFalloDeUnaPeticionSoloLlegaAlFuturo() {
+        Buzon buzon = new Buzon(ejecutor);
+        PrintStream err = System.err;
+        ByteArrayOutputStream salidaErrores = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(salidaErrores, true));
+        try {
+            CompletableFuture<Integer> fallida = buzon.pedir(() -> {
+                throw new IllegalStateException("prueba");
+            });
+            assertThrows(CompletionException.class, fallida::join);
+            // Con la siguiente orden ya terminada, la fallida ha salido del todo de procesar()
+            buzon.pedir(() -> null).join();
+        } finally {
+            System.setErr(err);
+        }
+
+        assertEquals("", salidaErrores.toString());
+    }
+}
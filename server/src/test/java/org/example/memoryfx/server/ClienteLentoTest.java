@@ -0,0 +1,92 @@
+package org.example.memoryfx.server;
+
+import org.example.memoryfx.core.BoardCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClienteLentoTest {
+
+    private MemoryServer server;
+
+    @BeforeEach
+    void arrancar() throws InterruptedException {
+        server = new MemoryServer(0, 4, 4);
+        server.setLimitesCola(64, 64 * 1024);
+        // El cliente lento tiene que poder llenar su cola de salida antes de que lo frene el límite de entrada
+        server.setLimiteComandos(0, 1);
+        Thread serverThread = new Thread(server::start, "memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        while (server.getLocalPort() < 0) {
+            Thread.sleep(5);
+        }
+    }
+
+    @AfterEach
+    void parar() {
+        server.stop();
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void unClienteQueNoLeeAcabaDesconectado() throws IOException {
+        try (Socket companero = new Socket("localhost", server.getLocalPort())) {
+            companero.getOutputStream().write((BoardCodec.JUGAR + "\n").getBytes(StandardCharsets.UTF_8));
+            BufferedReader in = new BufferedReader(new InputStreamReader(companero.getInputStream(), StandardCharsets.UTF_8));
+            // Las salas se llenan en orden de llegada: el lento ocupa el hueco del compañero
+            String linea;
+            while ((linea = in.readLine()) != null && !linea.contains("Esperando al otro jugador")) {
+            }
+            Thread lector = new Thread(() -> descartar(in), "companero");
+            lector.setDaemon(true);
+            lector.start();
+
+            try (Socket lento = new Socket()) {
+                lento.setReceiveBufferSize(1024);
+                lento.connect(new InetSocketAddress("localhost", server.getLocalPort()));
+                OutputStream out = lento.getOutputStream();
+                out.write((BoardCodec.JUGAR + "\n").getBytes(StandardCharsets.UTF_8));
+                // Nunca lee: cada jugada fuera de turno le deja otro "No es tu turno." en la cola
+                try {
+                    while (true) {
+                        out.write("MOVE 0 0\n".getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // El servidor ha cerrado la conexión
+                }
+            }
+        }
+
+        assertEquals(1, server.getMetricas().getClientesLentosDesconectados());
+    }
+
+    private static void descartar(BufferedReader in) {
+        try {
+            while (in.readLine() != null) {
+            }
+        } catch (IOException e) {
+            // Cerrado al terminar la prueba
+        }
+    }
+
+    @Test
+    void unaColaSinSitioNoSeAcepta() {
+        assertThrows(IllegalArgumentException.class, () -> server.setLimitesCola(0, 1024));
+        assertThrows(IllegalArgumentException.class, () -> server.setLimitesCola(64, 0));
+    }
+}
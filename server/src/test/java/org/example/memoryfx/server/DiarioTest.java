@@ -0,0 +1,103 @@
+package org.example.memoryfx.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiarioTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void registrosIdaYVuelta() throws IOException {
+        long antes = System.currentTimeMillis();
+        try (Diario diario = new Diario(directorio, 10)) {
+            diario.partida(3, 4, 8, 987_654_321L);
+            diario.volteo(3, 0, 1, 2);
+            diario.volteo(3, -1, 0, 7);
+            diario.esconder(3, 1, 2, 0, 7);
+            diario.turno(3, 1);
+            diario.pareja(3, 1);
+            diario.fin(3, true);
+            assertEquals(7, diario.getRegistros());
+        }
+
+        LectorDiario lector = new LectorDiario(directorio);
+        assertTrue(lector.siguiente());
+        assertEquals(LectorDiario.PARTIDA, lector.getTipo());
+        assertEquals(3, lector.getSala());
+        assertEquals(4, lector.getFilas());
+        assertEquals(8, lector.getColumnas());
+        assertEquals(987_654_321L, lector.getSemilla());
+        assertTrue(lector.getInstante() >= antes);
+        assertTrue(lector.getEjecucion() >= antes);
+
+        assertTrue(lector.siguiente());
+        assertEquals(LectorDiario.VOLTEO, lector.getTipo());
+        assertEquals(0, lector.getJugador());
+        assertEquals(1, lector.getFila1());
+        assertEquals(2, lector.getCol1());
+
+        // -1: carta que ya estaba descubierta al recuperar la partida
+        assertTrue(lector.siguiente());
+        assertEquals(-1, lector.getJugador());
+        assertEquals(7, lector.getCol1());
+
+        assertTrue(lector.siguiente());
+        assertEquals(LectorDiario.ESCONDER, lector.getTipo());
+        assertEquals(1, lector.getFila1());
+        assertEquals(2, lector.getCol1());
+        assertEquals(0, lector.getFila2());
+        assertEquals(7, lector.getCol2());
+
+        assertTrue(lector.siguiente());
+        assertEquals(LectorDiario.TURNO, lector.getTipo());
+        assertEquals(1, lector.getJugador());
+
+        assertTrue(lector.siguiente());
+        assertEquals(LectorDiario.PAREJA, lector.getTipo());
+        assertEquals(1, lector.getJugador());
+
+        assertTrue(lector.siguiente());
+        assertEquals(LectorDiario.FIN, lector.getTipo());
+        assertEquals(1, lector.getJugador());
+
+        assertFalse(lector.siguiente());
+    }
+
+    @Test
+    void cadaArranqueEmpiezaUnSegmentoYSeLeenEnOrden() throws IOException {
+        try (Diario diario = new Diario(directorio, 10)) {
+            diario.partida(1, 2, 2, 1);
+            diario.fin(1, false);
+        }
+        try (Diario diario = new Diario(directorio, 10)) {
+            diario.partida(2, 2, 2, 2);
+        }
+
+        LectorDiario lector = new LectorDiario(directorio);
+        int[] salas = new int[3];
+        int n = 0;
+        while (lector.siguiente()) {
+            salas[n++] = lector.getSala();
+        }
+        assertEquals(3, n);
+        assertEquals(1, salas[0]);
+        assertEquals(1, salas[1]);
+        assertEquals(2, salas[2]);
+    }
+
+    @Test
+    void unDiarioSinRegistrosSeLeeVacio() throws IOException {
+        new Diario(directorio, 10).close();
+
+        assertFalse(new LectorDiario(directorio).siguiente());
+    }
+}
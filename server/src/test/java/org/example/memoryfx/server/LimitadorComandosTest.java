@@ -0,0 +1,56 @@
+package org.example.memoryfx.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LimitadorComandosTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    @Test
+    void laRafagaPasaSinEsperar() {
+        LimitadorComandos limitador = new LimitadorComandos(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.reservar(0));
+        }
+        // A 10 por segundo la siguiente ficha tarda una décima
+        assertEquals(SEGUNDO / 10, limitador.reservar(0));
+    }
+
+    @Test
+    void cadaEsperaReservaSuFicha() {
+        LimitadorComandos limitador = new LimitadorComandos(10, 1, 0);
+
+        assertEquals(0, limitador.reservar(0));
+        assertEquals(SEGUNDO / 10, limitador.reservar(0));
+        assertEquals(2 * SEGUNDO / 10, limitador.reservar(0));
+        // Quien esperó lo que se le dijo tiene su ficha, pero no una de más
+        assertEquals(SEGUNDO / 10, limitador.reservar(2 * SEGUNDO / 10));
+    }
+
+    @Test
+    void seRellenaConElTiempoHastaLaRafaga() {
+        LimitadorComandos limitador = new LimitadorComandos(100, 3, 0);
+        for (int i = 0; i < 3; i++) {
+            limitador.reservar(0);
+        }
+
+        // Tras un minuto parado no se acumulan más de 3
+        long ahora = 60 * SEGUNDO;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.reservar(ahora));
+        }
+        assertEquals(SEGUNDO / 100, limitador.reservar(ahora));
+    }
+
+    @Test
+    void sinLimiteNoEsperaNunca() {
+        LimitadorComandos limitador = new LimitadorComandos(0, 1, 0);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, limitador.reservar(0));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.memoryfx.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class LobbyTest {
+
+    private record Sala(int id, int filas, int columnas) {
+    }
+
+    private final AtomicInteger creadas = new AtomicInteger();
+    private final Lobby<Sala> lobby = new Lobby<>((filas, columnas) -> new Sala(creadas.incrementAndGet(), filas, columnas));
+
+    @Test
+    void emparejaDeDosEnDos() {
+        Sala primera = lobby.emparejar(4, 4);
+        Sala segunda = lobby.emparejar(4, 4);
+        Sala tercera = lobby.emparejar(4, 4);
+
+        assertEquals(primera, segunda);
+        assertNotEquals(primera, tercera);
+        assertEquals(2, creadas.get());
+    }
+
+    @Test
+    void soloEmparejaElMismoTamano() {
+        Sala cuatroPorCuatro = lobby.emparejar(4, 4);
+        Sala cuatroPorOcho = lobby.emparejar(4, 8);
+        Sala ochoPorCuatro = lobby.emparejar(8, 4);
+
+        assertNotEquals(cuatroPorCuatro, cuatroPorOcho);
+        assertNotEquals(cuatroPorOcho, ochoPorCuatro);
+        assertEquals(cuatroPorOcho, lobby.emparejar(4, 8));
+        assertEquals(new Sala(3, 8, 4), ochoPorCuatro);
+    }
+
+    @Test
+    void unaSalaRetiradaNoSeOfrece() {
+        Sala abandonada = lobby.emparejar(4, 4);
+        lobby.retirar(4, 4, abandonada);
+
+        assertNotEquals(abandonada, lobby.emparejar(4, 4));
+    }
+
+    @Test
+    void retirarOtraSalaNoQuitaLaQueEspera() {
+        Sala esperando = lobby.emparejar(4, 4);
+        lobby.retirar(4, 4, new Sala(99, 4, 4));
+        lobby.retirar(6, 6, esperando);
+
+        assertEquals(esperando, lobby.emparejar(4, 4));
+    }
+
+    @Test
+    void cadaSalaRecibeExactamenteDosJugadoresConLlegadasSimultaneas() throws InterruptedException {
+        int jugadores = 2_000;
+        Map<Sala, AtomicInteger> porSala = new ConcurrentHashMap<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < jugadores; i++) {
+                ejecutor.execute(() -> {
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    porSala.computeIfAbsent(lobby.emparejar(4, 4), k -> new AtomicInteger()).incrementAndGet();
+                });
+            }
+            salida.countDown();
+        }
+
+        assertEquals(jugadores / 2, porSala.size());
+        assertEquals(List.of(2), porSala.values().stream().map(AtomicInteger::get).distinct().toList());
+    }
+}